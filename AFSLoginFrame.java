@@ -129,18 +129,15 @@ public class AFSLoginFrame extends JFrame {
             return;
         }
         
-        User user = systemManager.authenticateUser(username, password);
-        if (user != null) {
-            openDashboard(user);
+        Session session = systemManager.login(username, password);
+        if (session != null) {
+            openDashboard(session);
             this.dispose();
         } else {
             // Check if user exists but is not approved
-            User existingUser = null;
-            for (User u : systemManager.getAllUsers()) {
-                if (u.getUsername().equals(username) && u.getPassword().equals(password)) {
-                    existingUser = u;
-                    break;
-                }
+            User existingUser = systemManager.findUserByUsername(username);
+            if (existingUser != null && !existingUser.getPassword().equals(password)) {
+                existingUser = null;
             }
             
             if (existingUser != null && !existingUser.isApproved()) {
@@ -170,15 +167,29 @@ public class AFSLoginFrame extends JFrame {
         return rowPanel;
     }
     
-    private void openDashboard(User user) {
+    private void openDashboard(Session session) {
+        User user = session.getUser();
+        JFrame dashboard = null;
         if (user instanceof AdminStaff) {
-            new AdminDashboard(systemManager, (AdminStaff) user).setVisible(true);
+            dashboard = new AdminDashboard(systemManager, (AdminStaff) user);
         } else if (user instanceof AcademicLeader) {
-            new AcademicLeaderDashboard(systemManager, (AcademicLeader) user).setVisible(true);
+            dashboard = new AcademicLeaderDashboard(systemManager, (AcademicLeader) user);
         } else if (user instanceof Lecturer) {
-            new LecturerDashboard(systemManager, (Lecturer) user).setVisible(true);
+            dashboard = new LecturerDashboard(systemManager, (Lecturer) user);
         } else if (user instanceof Student) {
-            new StudentDashboard(systemManager, (Student) user).setVisible(true);
+            dashboard = new StudentDashboard(systemManager, (Student) user);
         }
+        if (dashboard == null) {
+            systemManager.logout(session);
+            return;
+        }
+        // the session ends when its dashboard closes (Logout disposes it)
+        dashboard.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                systemManager.logout(session);
+            }
+        });
+        dashboard.setVisible(true);
     }
 }
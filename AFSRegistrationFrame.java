@@ -191,14 +191,18 @@ public class AFSRegistrationFrame extends JFrame {
         return rowPanel;
     }
     
+    /**
+     * Shows the IDs the new account would get. Only a preview - the IDs are
+     * reserved when the registration is actually submitted.
+     */
     private void generateUserID() {
         String userType = (String) userTypeCombo.getSelectedItem();
-        String generatedID = systemManager.generateUserID(userType);
+        String generatedID = systemManager.peekUserID(userType);
         userIDField.setText(generatedID);
         
         // Generate staff ID for non-student types
         if (!"Student".equals(userType)) {
-            String staffID = systemManager.generateStaffID();
+            String staffID = systemManager.peekStaffID();
             staffIdField.setText(staffID);
         } else {
             staffIdField.setText("N/A");
@@ -249,14 +253,12 @@ public class AFSRegistrationFrame extends JFrame {
         phoneError.setText("");
         phoneError.setVisible(false);
         
-        String userID = userIDField.getText().trim();
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword()).trim();
         String email = emailField.getText().trim();
         String fullName = fullNameField.getText().trim();
         String phone = phoneField.getText().trim();
         String department = (String) departmentCombo.getSelectedItem();
-        String staffId = staffIdField.getText().trim();
         String gender = (String) genderCombo.getSelectedItem();
         int age = (Integer) ageSpinner.getValue();
         
@@ -309,6 +311,19 @@ public class AFSRegistrationFrame extends JFrame {
         User newUser = null;
         String userType = (String) userTypeCombo.getSelectedItem();
         
+        // Taken usernames are turned away before any ID is reserved
+        if (systemManager.findUserByUsername(username) != null) {
+            usernameError.setText("Username already exists!");
+            usernameError.setVisible(true);
+            return;
+        }
+        
+        // Reserve the IDs only now that the account is really being created
+        String userID = systemManager.generateUserID(userType);
+        String staffId = "Student".equals(userType) ? "N/A" : systemManager.generateStaffID();
+        userIDField.setText(userID);
+        staffIdField.setText(staffId);
+        
         try {
             if (userType.equals("Student")) {
                 String enrollmentYear = enrollmentField.getText().trim();
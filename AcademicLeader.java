@@ -1,5 +1,5 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * AcademicLeader
@@ -82,6 +82,103 @@ public class AcademicLeader extends User {
         return "LOW RISK";
     }
 
+    // ======================================================
+    // DEPARTMENT-WIDE RISK
+    // ======================================================
+
+    /** One row of the risk table: a module's marks and its risk level */
+    public static final class ModuleRisk {
+        private final Module module;
+        private final int assessments;
+        private final MarkStats stats;
+        private final String risk;
+
+        ModuleRisk(Module module, int assessments, MarkStats stats, String risk) {
+            this.module = module;
+            this.assessments = assessments;
+            this.stats = stats;
+            this.risk = risk;
+        }
+
+        public Module getModule() { return module; }
+        public int getAssessmentCount() { return assessments; }
+        public long getMarkCount() { return stats.getCount(); }
+        public double getAverage() { return stats.getMean(); }
+        public double getStdDev() { return stats.getStdDev(); }
+        public double getPassRate() { return stats.getPassRate(); }
+        /** "HIGH RISK", "MEDIUM RISK", "LOW RISK" or "NO DATA" */
+        public String getRisk() { return risk; }
+
+        public int getRiskOrder() { return riskOrder(risk); }
+    }
+
+    /** 0 for high risk up to 3 for no data, for sorting worst first */
+    public static int riskOrder(String risk) {
+        if (risk == null) return 3;
+        switch (risk) {
+            case "HIGH RISK": return 0;
+            case "MEDIUM RISK": return 1;
+            case "LOW RISK": return 2;
+            default: return 3;
+        }
+    }
+
+    /** Worst first: by risk level, then lowest average, then module code */
+    public static final Comparator<ModuleRisk> WORST_FIRST = Comparator.comparingInt(ModuleRisk::getRiskOrder)
+            .thenComparingDouble(ModuleRisk::getAverage)
+            .thenComparing(r -> String.valueOf(r.getModule().getModuleCode()));
+
+    /**
+     * analyzeModuleMarks for every module in one pass: the assessments are
+     * grouped by module ID in a single scan (instead of getAssessmentsByModule
+     * per module, which matches the same way), then each module's statistics
+     * are merged and its risk evaluated in parallel on the common fork-join
+     * pool. Modules are independent and each assessment belongs to one
+     * module, so the workers share nothing. Returned worst first (see
+     * WORST_FIRST).
+     */
+    public List<ModuleRisk> analyzeAllModules(List<Module> modules,
+                                              List<Assessment> assessments,
+                                              GradingSystem gradingSystem) {
+        if (modules == null || modules.isEmpty()) return new ArrayList<>();
+
+        Map<String, List<Assessment>> byModule = new HashMap<>();
+        if (assessments != null) {
+            for (Assessment a : assessments) {
+                Module m = a.getModule();
+                if (m != null) byModule.computeIfAbsent(m.getModuleID(), k -> new ArrayList<>()).add(a);
+            }
+        }
+
+        List<ModuleRisk> result = modules.parallelStream()
+                .map(m -> {
+                    List<Assessment> own = byModule.getOrDefault(m.getModuleID(), Collections.emptyList());
+                    MarkStats stats = combineStats(own, gradingSystem);
+                    String risk = stats.isEmpty() ? "NO DATA" : evaluateAcademicRisk(stats.getMean(), stats.getPassRate());
+                    return new ModuleRisk(m, own.size(), stats, risk);
+                })
+                .collect(Collectors.toList());
+        result.sort(WORST_FIRST);
+        return result;
+    }
+
+    /**
+     * analyzeAllModules for the modules of this leader's department (all
+     * modules if the leader has no department)
+     */
+    public List<ModuleRisk> analyzeDepartment(List<Module> modules,
+                                              List<Assessment> assessments,
+                                              GradingSystem gradingSystem) {
+        if (department == null || department.trim().isEmpty() || modules == null) {
+            return analyzeAllModules(modules, assessments, gradingSystem);
+        }
+        List<Module> own = new ArrayList<>();
+        for (Module m : modules) {
+            if (department.equalsIgnoreCase(m.getDepartment())) own.add(m);
+        }
+        return analyzeAllModules(own, assessments, gradingSystem);
+    }
+
     // ======================================================
     // FEEDBACK AUDIT
     // ======================================================
@@ -100,18 +197,29 @@ public class AcademicLeader extends User {
     // ======================================================
     // MODULE-LEVEL ANALYSIS
     // ======================================================
+    /**
+     * The assessments of this module, matched by module ID like everywhere
+     * else modules are grouped (module codes need not be unique)
+     */
     public List<Assessment> getAssessmentsByModule(List<Assessment> allAssessments, Module module) {
         List<Assessment> result = new ArrayList<>();
         if (allAssessments == null || module == null) return result;
 
         for (Assessment a : allAssessments) {
-            if (a.getModuleCode().equals(module.getModuleCode())) {
+            Module m = a.getModule();
+            if (m != null && Objects.equals(m.getModuleID(), module.getModuleID())) {
                 result.add(a);
             }
         }
         return result;
     }
 
+    /**
+     * Risk from each assessment's average raw score and the share of
+     * assessments whose average passes the scale. Coarse: one number per
+     * assessment, whatever its total marks or number of marks. See
+     * analyzeModuleMarks for the per-mark version the risk table uses.
+     */
     public String analyzeModulePerformance(Module module,
                                            List<Assessment> assessments,
                                            GradingScale scale) {
@@ -124,6 +232,35 @@ public class AcademicLeader extends User {
         return evaluateAcademicRisk(avg, pass);
     }
 
+    /**
+     * Risk from every mark of the module's assessments: the mean of the
+     * marks as percentages of their total marks, and the share of marks at
+     * or above the grading system's passing percentage. Unlike
+     * analyzeModulePerformance every mark counts once, so big classes
+     * weigh more than small ones and totals other than 100 are scaled.
+     * Reads only the assessments' running statistics. analyzeAllModules
+     * gives the same answer for every module at once.
+     */
+    public String analyzeModuleMarks(Module module,
+                                     List<Assessment> assessments,
+                                     GradingSystem gradingSystem) {
+
+        MarkStats stats = combineStats(assessments, gradingSystem);
+        if (stats.isEmpty()) return "NO DATA";
+
+        return evaluateAcademicRisk(stats.getMean(), stats.getPassRate());
+    }
+
+    public MarkStats combineStats(List<Assessment> assessments, GradingSystem gradingSystem) {
+        MarkStats result = new MarkStats(gradingSystem != null ? gradingSystem.getPassingPercentage() : 0.0);
+        if (assessments == null) return result;
+
+        for (Assessment a : assessments) {
+            result.include(a.getStats(gradingSystem));
+        }
+        return result;
+    }
+
     // ======================================================
     // GETTERS
     // ======================================================
@@ -57,6 +57,7 @@ public class AcademicLeaderDashboard extends JFrame {
         tabs.addTab("Module Management", buildModuleManagementPanel());
         tabs.addTab("Assign Lecturers", buildAssignLecturersPanel());
         tabs.addTab("View Reports", buildReportsPanel());
+        tabs.addTab("Module Risk", buildRiskPanel());
         
         // Add listener to refresh module box when Assign Lecturers tab is selected
         tabs.addChangeListener(e -> {
@@ -286,8 +287,8 @@ public class AcademicLeaderDashboard extends JFrame {
             gbc.insets = new Insets(8, 8, 8, 8);
             gbc.fill = GridBagConstraints.HORIZONTAL;
             
-            // Auto-generate Module ID
-            String nextModuleID = FileManager.generateNextModuleID();
+            // Show the next Module ID (reserved when the module is saved)
+            String nextModuleID = systemManager.peekModuleID();
             JTextField idField = new JTextField(nextModuleID, 20);
             idField.setEditable(false);
             idField.setBackground(new Color(220, 220, 220));
@@ -355,6 +356,7 @@ public class AcademicLeaderDashboard extends JFrame {
                         return;
                     }
                     
+                    idField.setText(systemManager.generateModuleID());
                     Module module = new Module(
                             idField.getText(),
                             moduleName,
@@ -458,12 +460,15 @@ public class AcademicLeaderDashboard extends JFrame {
                         return;
                     }
 
-                    module.setModuleName(moduleName);
-                    module.setModuleCode(moduleCode);
-                    module.setCreditHours((Integer) creditBox.getSelectedItem());
-                    module.setDepartment((String) departmentBox.getSelectedItem());
+                    int credits = (Integer) creditBox.getSelectedItem();
+                    String department = (String) departmentBox.getSelectedItem();
                     
-                    if (systemManager.updateModule(module)) {
+                    if (systemManager.editModule(module.getModuleID(), m -> {
+                        m.setModuleName(moduleName);
+                        m.setModuleCode(moduleCode);
+                        m.setCreditHours(credits);
+                        m.setDepartment(department);
+                    })) {
                         JOptionPane.showMessageDialog(editDialog, "Module updated successfully!");
                         editDialog.dispose();
                         parent.dispose();
@@ -550,9 +555,11 @@ public class AcademicLeaderDashboard extends JFrame {
 
                 // Add module to lecturer's assigned modules at runtime and persist
                 if (!selectedLecturer.getAssignedModules().contains(selectedModule)) {
-                    selectedLecturer.getAssignedModules().add(selectedModule);
                     // persist change to users file
-                    systemManager.updateUser(selectedLecturer);
+                    systemManager.editUser(selectedLecturer.getUserID(), u -> {
+                        List<Module> assigned = ((Lecturer) u).getAssignedModules();
+                        if (!assigned.contains(selectedModule)) assigned.add(selectedModule);
+                    });
                     JOptionPane.showMessageDialog(this, "Lecturer assigned to module (saved)");
                 } else {
                     JOptionPane.showMessageDialog(this, "Lecturer is already assigned to this module");
@@ -631,151 +638,145 @@ public class AcademicLeaderDashboard extends JFrame {
         // ========== USER REPORT ==========
         userBtn.addActionListener(e -> {
             selectedReportButton[0] = userBtn;
-            StringBuilder sb = new StringBuilder();
-            List<User> users = systemManager.getAllUsers();
-
-            sb.append("=== USER SUMMARY REPORT ===\n\n");
-            sb.append("Total Users: ").append(users.size()).append("\n\n");
-
-            for (User u : users) {
-                sb.append(u.getUserID())
-                        .append(" - ")
-                        .append(u.getFullName())
-                        .append(" (")
-                        .append(u.getRole())
-                        .append(")\n");
-            }
-
-            reportArea.setText(sb.toString());
+            reportArea.setText(systemManager.getReportCache().get("dashboard.users", () -> {
+                StringBuilder sb = new StringBuilder();
+                List<User> users = systemManager.getAllUsers();
+
+                sb.append("=== USER SUMMARY REPORT ===\n\n");
+                sb.append("Total Users: ").append(users.size()).append("\n\n");
+
+                for (User u : users) {
+                    sb.append(u.getUserID())
+                            .append(" - ")
+                            .append(u.getFullName())
+                            .append(" (")
+                            .append(u.getRole())
+                            .append(")\n");
+                }
+                return sb.toString();
+            }, ReportCache.Data.USERS));
         });
 
         // ========== MODULE REPORT ==========
         moduleBtn.addActionListener(e -> {
             selectedReportButton[0] = moduleBtn;
-            StringBuilder sb = new StringBuilder();
-            List<Module> modules = systemManager.getAllModules();
+            reportArea.setText(systemManager.getReportCache().get("dashboard.modules", () -> {
+                StringBuilder sb = new StringBuilder();
+                List<Module> modules = systemManager.getAllModules();
 
-            sb.append("=== MODULE SUMMARY ===\n\n");
-            sb.append("Total Modules: ").append(modules.size()).append("\n\n");
+                sb.append("=== MODULE SUMMARY ===\n\n");
+                sb.append("Total Modules: ").append(modules.size()).append("\n\n");
 
-            for (Module m : modules) {
-                sb.append("Module ID: ").append(m.getModuleID()).append("\n");
-                sb.append("  Name: ").append(m.getModuleName()).append("\n");
-                sb.append("  Code: ").append(m.getModuleCode()).append("\n");
-                sb.append("  Credits: ").append(m.getCreditHours()).append("\n");
-                sb.append("  Department: ").append(m.getDepartment()).append("\n");
+                for (Module m : modules) {
+                    sb.append("Module ID: ").append(m.getModuleID()).append("\n");
+                    sb.append("  Name: ").append(m.getModuleName()).append("\n");
+                    sb.append("  Code: ").append(m.getModuleCode()).append("\n");
+                    sb.append("  Credits: ").append(m.getCreditHours()).append("\n");
+                    sb.append("  Department: ").append(m.getDepartment()).append("\n");
                 
-                // Find assigned lecturers (can be multiple)
-                List<String> assignedLecturers = new ArrayList<>();
-                List<User> lecturers = systemManager.getAllLecturers();
-                for (User u : lecturers) {
-                    if (u instanceof Lecturer) {
-                        Lecturer lec = (Lecturer) u;
-                        if (lec.getAssignedModules() != null) {
-                            for (Module assignedMod : lec.getAssignedModules()) {
-                                if (assignedMod.getModuleID().equals(m.getModuleID())) {
-                                    assignedLecturers.add(lec.getFullName());
-                                    break;
+                    // Find assigned lecturers (can be multiple)
+                    List<String> assignedLecturers = new ArrayList<>();
+                    List<User> lecturers = systemManager.getAllLecturers();
+                    for (User u : lecturers) {
+                        if (u instanceof Lecturer) {
+                            Lecturer lec = (Lecturer) u;
+                            if (lec.getAssignedModules() != null) {
+                                for (Module assignedMod : lec.getAssignedModules()) {
+                                    if (assignedMod.getModuleID().equals(m.getModuleID())) {
+                                        assignedLecturers.add(lec.getFullName());
+                                        break;
+                                    }
                                 }
                             }
                         }
                     }
+                    String lecturerName = assignedLecturers.isEmpty() ? "Not Assigned" : String.join(", ", assignedLecturers);
+                    sb.append("  Assigned Lecturer: ").append(lecturerName).append("\n\n");
                 }
-                String lecturerName = assignedLecturers.isEmpty() ? "Not Assigned" : String.join(", ", assignedLecturers);
-                sb.append("  Assigned Lecturer: ").append(lecturerName).append("\n\n");
-            }
-
-            reportArea.setText(sb.toString());
+                return sb.toString();
+            }, ReportCache.Data.MODULES, ReportCache.Data.USERS));
         });
 
         // ========== ASSESSMENT REPORT ==========
         assessBtn.addActionListener(e -> {
             selectedReportButton[0] = assessBtn;
-            StringBuilder sb = new StringBuilder();
-            List<Assessment> assessments = systemManager.getAllAssessments();
-
-            sb.append("=== ASSESSMENT SUMMARY REPORT ===\n\n");
+            reportArea.setText(systemManager.getReportCache().get("dashboard.assessments", () -> {
+                StringBuilder sb = new StringBuilder();
+                List<Assessment> assessments = systemManager.getAllAssessments();
 
-            for (Assessment a : assessments) {
-                sb.append("Assessment ID: ").append(a.getAssessmentID()).append("\n");
-                sb.append("Title: ").append(a.getAssessmentName()).append("\n");
-                sb.append("Type: ").append(a.getAssessmentType().getAssessmentType()).append("\n\n");
-            }
+                sb.append("=== ASSESSMENT SUMMARY REPORT ===\n\n");
 
-            reportArea.setText(sb.toString());
+                for (Assessment a : assessments) {
+                    sb.append("Assessment ID: ").append(a.getAssessmentID()).append("\n");
+                    sb.append("Title: ").append(a.getAssessmentName()).append("\n");
+                    sb.append("Type: ").append(a.getAssessmentType().getAssessmentType()).append("\n\n");
+                }
+                return sb.toString();
+            }, ReportCache.Data.ASSESSMENTS));
         });
 
         // ========== CLASS REPORT ==========
         classBtn.addActionListener(e -> {
             selectedReportButton[0] = classBtn;
-            StringBuilder sb = new StringBuilder();
-            List<ClassModule> classes = systemManager.getAllClasses();
-
-            sb.append("=== CLASS SUMMARY REPORT ===\n\n");
-            sb.append("Total Classes: ").append(classes.size()).append("\n\n");
-
-            for (ClassModule c : classes) {
-                sb.append("Class ID: ").append(c.getClassID()).append("\n");
-                sb.append("  Name: ").append(c.getClassName()).append("\n");
-                sb.append("  Module: ").append(c.getModuleID()).append("\n");
-                sb.append("  Capacity: ").append(c.getCapacity()).append("\n");
-                sb.append("  Enrolled: ").append(c.getEnrolledStudents().size()).append(" students\n");
-                sb.append("  Schedule: ").append(c.getDay() != null ? c.getDay() : "N/A").append(" at ")
-                        .append(c.getTime() != null ? c.getTime() : "N/A").append("\n");
-                sb.append("  Location: ").append(c.getLocation() != null ? c.getLocation() : "N/A").append("\n");
-                sb.append("  Lecturer: ");
-                if (c.getLecturerID() != null) {
-                    User u = systemManager.findUserByID(c.getLecturerID());
-                    sb.append(u != null ? u.getUsername() : "Not found");
-                } else {
-                    sb.append("Unassigned");
-                }
-                sb.append("\n\n");
-            }
+            reportArea.setText(systemManager.getReportCache().get("dashboard.classes", () -> {
+                StringBuilder sb = new StringBuilder();
+                List<ClassModule> classes = systemManager.getAllClasses();
+
+                sb.append("=== CLASS SUMMARY REPORT ===\n\n");
+                sb.append("Total Classes: ").append(classes.size()).append("\n\n");
 
-            reportArea.setText(sb.toString());
+                for (ClassModule c : classes) {
+                    sb.append("Class ID: ").append(c.getClassID()).append("\n");
+                    sb.append("  Name: ").append(c.getClassName()).append("\n");
+                    sb.append("  Module: ").append(c.getModuleID()).append("\n");
+                    sb.append("  Capacity: ").append(c.getCapacity()).append("\n");
+                    sb.append("  Enrolled: ").append(c.getEnrolledStudents().size()).append(" students\n");
+                    sb.append("  Schedule: ").append(c.getDay() != null ? c.getDay() : "N/A").append(" at ")
+                            .append(c.getTime() != null ? c.getTime() : "N/A").append("\n");
+                    sb.append("  Location: ").append(c.getLocation() != null ? c.getLocation() : "N/A").append("\n");
+                    sb.append("  Lecturer: ");
+                    if (c.getLecturerID() != null) {
+                        User u = systemManager.findUserByID(c.getLecturerID());
+                        sb.append(u != null ? u.getUsername() : "Not found");
+                    } else {
+                        sb.append("Unassigned");
+                    }
+                    sb.append("\n\n");
+                }
+                return sb.toString();
+            }, ReportCache.Data.CLASSES, ReportCache.Data.USERS));
         });
 
         // ========== ENROLLMENT REPORT ==========
         enrollBtn.addActionListener(e -> {
             selectedReportButton[0] = enrollBtn;
-            StringBuilder sb = new StringBuilder();
-            List<ClassModule> classes = systemManager.getAllClasses();
-            int totalEnrolled = 0;
-
-            sb.append("=== ENROLLMENT REPORT ===\n\n");
-            sb.append("--- Enrollment by Class ---\n");
-            for (ClassModule c : classes) {
-                int enrolled = c.getEnrolledStudents().size();
-                sb.append(c.getClassID()).append(" (").append(c.getClassName()).append("): ")
-                        .append(enrolled).append(" / ").append(c.getCapacity()).append(" students\n");
-                totalEnrolled += enrolled;
-            }
-
-            sb.append("\nTotal Enrolled: ").append(totalEnrolled).append("\n\n");
+            reportArea.setText(systemManager.getReportCache().get("dashboard.enrollment", () -> {
+                StringBuilder sb = new StringBuilder();
+                List<ClassModule> classes = systemManager.getAllClasses();
+                int totalEnrolled = 0;
 
-            sb.append("--- Enrollment by Student ---\n");
-            List<User> students = systemManager.getAllStudents();
-            for (User u : students) {
-                int classCount = 0;
+                sb.append("=== ENROLLMENT REPORT ===\n\n");
+                sb.append("--- Enrollment by Class ---\n");
                 for (ClassModule c : classes) {
-                    boolean enrolled = false;
-                    for (Student s : c.getEnrolledStudents ()) {
-                        if (s.getUserID().equals(u.getUserID())) {
-                            enrolled = true;
-                            break;
-                        }
-                    }
-
-                    if (enrolled) {
-                        classCount++;
-                    }
+                    int enrolled = c.getEnrolledStudents().size();
+                    sb.append(c.getClassID()).append(" (").append(c.getClassName()).append("): ")
+                            .append(enrolled).append(" / ").append(c.getCapacity()).append(" students\n");
+                    totalEnrolled += enrolled;
                 }
-                sb.append(u.getUsername()).append(" (").append(u.getUserID()).append("): ")
-                        .append(classCount).append(" classes\n");
-            }
 
-            reportArea.setText(sb.toString());
+                sb.append("\nTotal Enrolled: ").append(totalEnrolled).append("\n\n");
+
+                sb.append("--- Enrollment by Student ---\n");
+                List<User> students = systemManager.getAllStudents();
+                for (User u : students) {
+                    int classCount = (u instanceof Student)
+                            ? systemManager.countClassesForStudent(((Student) u).getStudentID())
+                            : 0;
+                    sb.append(u.getUsername()).append(" (").append(u.getUserID()).append("): ")
+                            .append(classCount).append(" classes\n");
+                }
+                return sb.toString();
+            }, ReportCache.Data.CLASSES, ReportCache.Data.USERS));
         });
 
         refreshBtn.addActionListener(e -> {
@@ -792,6 +793,87 @@ public class AcademicLeaderDashboard extends JFrame {
         return panel;
     }
 
+    // ================= MODULE RISK =================
+    private JPanel buildRiskPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        String[] cols = {"Module Code", "Module Name", "Department", "Assessments", "Marks",
+                "Average %", "Std Dev", "Pass Rate %", "Risk"};
+        DefaultTableModel model = new DefaultTableModel(cols, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
 
+            @Override
+            public Class<?> getColumnClass(int column) {
+                // numeric columns sort as numbers
+                if (column == 3 || column == 4) return Long.class;
+                if (column >= 5 && column <= 7) return Double.class;
+                return String.class;
+            }
+        };
+        JTable table = new JTable(model);
+        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(model);
+        // risk column sorts by severity, not alphabetically
+        sorter.setComparator(8, (a, b) -> Integer.compare(AcademicLeader.riskOrder((String) a), AcademicLeader.riskOrder((String) b)));
+        table.setRowSorter(sorter);
+
+        JCheckBox ownDepartment = new JCheckBox("Only " + leader.getDepartment() + " modules", true);
+        JButton analyzeBtn = new JButton("Analyze");
+        JLabel status = new JLabel("Click Analyze to evaluate every module.");
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(ownDepartment);
+        top.add(analyzeBtn);
+        top.add(status);
+
+        panel.add(top, BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        analyzeBtn.addActionListener(e -> {
+            analyzeBtn.setEnabled(false);
+            status.setText("Analyzing...");
+            boolean own = ownDepartment.isSelected();
+            long start = System.nanoTime();
+            new SwingWorker<List<AcademicLeader.ModuleRisk>, Void>() {
+                @Override
+                protected List<AcademicLeader.ModuleRisk> doInBackground() {
+                    List<Module> modules = systemManager.getAllModules();
+                    List<Assessment> assessments = systemManager.getAllAssessments();
+                    GradingSystem grading = systemManager.getGradingSystem();
+                    return own ? leader.analyzeDepartment(modules, assessments, grading)
+                               : leader.analyzeAllModules(modules, assessments, grading);
+                }
+
+                @Override
+                protected void done() {
+                    analyzeBtn.setEnabled(true);
+                    try {
+                        List<AcademicLeader.ModuleRisk> rows = get();
+                        model.setRowCount(0);
+                        int high = 0;
+                        for (AcademicLeader.ModuleRisk r : rows) {
+                            Module m = r.getModule();
+                            model.addRow(new Object[] {m.getModuleCode(), m.getModuleName(), m.getDepartment(),
+                                    (long) r.getAssessmentCount(), r.getMarkCount(),
+                                    round1(r.getAverage()), round1(r.getStdDev()), round1(r.getPassRate()), r.getRisk()});
+                            if (r.getRiskOrder() == 0) high++;
+                        }
+                        status.setText(String.format("%d modules, %d high risk (%d ms)",
+                                rows.size(), high, (System.nanoTime() - start) / 1_000_000));
+                    } catch (Exception ex) {
+                        status.setText("Analysis failed: " + ex.getMessage());
+                    }
+                }
+            }.execute();
+        });
+
+        return panel;
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
 
 }
@@ -3,10 +3,23 @@ import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 class AcademicLeaderReportsPanel extends JPanel {
+    // one daemon thread for all report panels: reports and refreshes run in order, off the EDT
+    private static final ExecutorService REPORT_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "report-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
     private SystemManager systemManager;
     private JFrame parentFrame;
+    private JTextArea reportArea;
+    private JProgressBar progressBar;
+    private ReportTask currentTask;   // latest report started, null when idle (EDT only)
     
     public AcademicLeaderReportsPanel(SystemManager systemManager, JFrame parentFrame) {
         this.systemManager = systemManager;
@@ -60,11 +73,16 @@ class AcademicLeaderReportsPanel extends JPanel {
         JPanel reportPanel = new JPanel(new BorderLayout());
         reportPanel.setBorder(BorderFactory.createTitledBorder("Report Display"));
         
-        JTextArea reportArea = new JTextArea();
+        reportArea = new JTextArea();
         reportArea.setEditable(false);
         reportArea.setFont(new Font("Monospaced", Font.PLAIN, 11));
         JScrollPane scroll = new JScrollPane(reportArea);
         reportPanel.add(scroll, BorderLayout.CENTER);
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Ready");
+        reportPanel.add(progressBar, BorderLayout.SOUTH);
         
         add(optionsPanel, BorderLayout.WEST);
         add(reportPanel, BorderLayout.CENTER);
@@ -73,31 +91,7 @@ class AcademicLeaderReportsPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 selectedReportButton[0] = userReportBtn;
-                StringBuilder report = new StringBuilder();
-                report.append("=== USER SUMMARY REPORT ===\n");
-                report.append("Generated: ").append(new java.util.Date()).append("\n\n");
-                
-                java.util.List<User> users = systemManager.getAllUsers();
-                Map<String, Integer> roleCount = new HashMap<>();
-                for (User u : users) {
-                    String role = u.getRole();
-                    roleCount.put(role, roleCount.getOrDefault(role, 0) + 1);
-                }
-                
-                report.append("Total Users: ").append(users.size()).append("\n");
-                for (String role : roleCount.keySet()) {
-                    report.append("  ").append(role).append(": ").append(roleCount.get(role)).append("\n");
-                }
-                
-                report.append("\n--- User List ---\n");
-                for (User u : users) {
-                    report.append("ID: ").append(u.getUserID()).append(" | ");
-                    report.append("Username: ").append(u.getUsername()).append(" | ");
-                    report.append("Name: ").append(u.getFullName()).append(" | ");
-                    report.append("Role: ").append(u.getRole()).append("\n");
-                }
-                
-                reportArea.setText(report.toString());
+                startReport("User Summary", task -> buildUserReport(task), null);
             }
         });
         
@@ -105,34 +99,7 @@ class AcademicLeaderReportsPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 selectedReportButton[0] = classReportBtn;
-                StringBuilder report = new StringBuilder();
-                report.append("=== CLASS SUMMARY REPORT ===\n");
-                report.append("Generated: ").append(new java.util.Date()).append("\n\n");
-                
-                java.util.List<ClassModule> classes = systemManager.getAllClasses();
-                report.append("Total Classes: ").append(classes.size()).append("\n\n");
-                
-                report.append("--- Class Details ---\n");
-                for (ClassModule c : classes) {
-                    report.append("Class ID: ").append(c.getClassID()).append("\n");
-                    report.append("  Name: ").append(c.getClassName()).append("\n");
-                    report.append("  Module: ").append(c.getModuleID()).append("\n");
-                    report.append("  Capacity: ").append(c.getCapacity()).append("\n");
-                    report.append("  Enrolled: ").append(c.getEnrolledStudents().size()).append(" students\n");
-                    report.append("  Schedule: ").append(c.getDay() != null ? c.getDay() : "N/A").append(" at ")
-                           .append(c.getTime() != null ? c.getTime() : "N/A").append("\n");
-                    report.append("  Location: ").append(c.getLocation() != null ? c.getLocation() : "N/A").append("\n");
-                    report.append("  Lecturer: ");
-                    if (c.getLecturerID() != null) {
-                        User u = systemManager.findUserByID(c.getLecturerID());
-                        report.append(u != null ? u.getUsername() : "Not found");
-                    } else {
-                        report.append("Unassigned");
-                    }
-                    report.append("\n\n");
-                }
-                
-                reportArea.setText(report.toString());
+                startReport("Class Summary", task -> buildClassReport(task), null);
             }
         });
         
@@ -148,25 +115,7 @@ class AcademicLeaderReportsPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 selectedReportButton[0] = assessmentReportBtn;
-                StringBuilder report = new StringBuilder();
-                report.append("=== ASSESSMENT SUMMARY REPORT ===\n");
-                report.append("Generated: ").append(new java.util.Date()).append("\n\n");
-                
-                java.util.List<Assessment> assessments = systemManager.getAllAssessments();
-                report.append("Total Assessments: ").append(assessments.size()).append("\n\n");
-                
-                report.append("--- Assessment Details ---\n");
-                for (Assessment a : assessments) {
-                    report.append("Assessment ID: ").append(a.getAssessmentID()).append("\n");
-                    report.append("  Class: ").append(a.getClassID()).append("\n");
-                    report.append("  Title: ").append(a.getTitle()).append("\n");
-                    report.append("  Type: ").append(a.getAssessmentType()).append("\n");
-                    report.append("  Status: ").append(a.getStatus()).append("\n");
-                    report.append("  Marks: ").append(a.getTotalMarks()).append("\n");
-                    report.append("  Students Graded: ").append(a.getStudentMarks().size()).append("\n\n");
-                }
-                
-                reportArea.setText(report.toString());
+                startReport("Assessment Summary", task -> buildAssessmentReport(task), null);
             }
         });
         
@@ -174,50 +123,288 @@ class AcademicLeaderReportsPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 selectedReportButton[0] = enrollmentReportBtn;
-                StringBuilder report = new StringBuilder();
-                report.append("=== ENROLLMENT REPORT ===\n");
-                report.append("Generated: ").append(new java.util.Date()).append("\n\n");
-                
-                java.util.List<ClassModule> classes = systemManager.getAllClasses();
-                int totalEnrolled = 0;
-                
-                report.append("--- Enrollment by Class ---\n");
-                for (ClassModule c : classes) {
-                    report.append(c.getClassID()).append(" (").append(c.getClassName()).append("): ");
-                    int enrolled = c.getEnrolledStudents().size();
-                    report.append(enrolled).append(" / ").append(c.getCapacity()).append(" students\n");
-                    totalEnrolled += enrolled;
-                }
-                
-                report.append("\nTotal Enrolled: ").append(totalEnrolled).append("\n");
-                
-                report.append("\n--- Enrollment by Student ---\n");
-                java.util.List<User> students = systemManager.getAllStudents();
-                for (User u : students) {
-                    report.append(u.getUsername()).append(" (").append(u.getUserID()).append("): ");
-                    int classCount = 0;
-                    for (ClassModule c : classes) {
-                        if (c.getEnrolledStudents().contains(u.getUserID())) classCount++;
-                    }
-                    report.append(classCount).append(" classes\n");
-                }
-                
-                reportArea.setText(report.toString());
+                startReport("Enrollment Report", task -> buildEnrollmentReport(task), null);
             }
         });
 
         refreshBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                systemManager.loadAllData();
+                // reload from disk in the background, then show the last report again
+                startReport("Refreshing data", task -> {
+                    systemManager.loadAllData();
+                    return null;
+                }, () -> {
+                    if (selectedReportButton[0] != null) {
+                        selectedReportButton[0].doClick();
+                    } else {
+                        reportArea.setText("Data refreshed. Select a report to view latest information.");
+                    }
+                });
+            }
+        });
+    }
 
-                if (selectedReportButton[0] != null) {
-                    selectedReportButton[0].doClick();
-                } else {
-                    reportArea.setText("Data refreshed. Select a report to view latest information.");
+    // ======================================================
+    // BACKGROUND REPORTS
+    // ======================================================
+
+    /**
+     * Builds the text of one report on the worker thread. Loops call
+     * task.step(done, total), which updates the progress bar and returns
+     * false once the report has been cancelled (the builder then returns null).
+     */
+    private interface ReportBuilder {
+        String build(ReportTask task);
+    }
+
+    /**
+     * Runs a ReportBuilder on the report thread and puts the result in
+     * reportArea. Only the latest task may touch the display.
+     */
+    private class ReportTask extends SwingWorker<String, Void> {
+        private final String title;
+        private final ReportBuilder builder;
+        private final Runnable whenDone;
+
+        ReportTask(String title, ReportBuilder builder, Runnable whenDone) {
+            this.title = title;
+            this.builder = builder;
+            this.whenDone = whenDone;
+        }
+
+        boolean step(int done, int total) {
+            if (total > 0) {
+                int percent = (int) (done * 100L / total);
+                if (percent != getProgress()) setProgress(percent);
+            }
+            return !isCancelled();
+        }
+
+        @Override
+        protected String doInBackground() {
+            return builder.build(this);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || currentTask != this) return;
+            currentTask = null;
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(100);
+            progressBar.setString("Ready");
+            try {
+                String text = get();
+                if (text != null) {
+                    reportArea.setText(text);
+                    reportArea.setCaretPosition(0);
                 }
+            } catch (InterruptedException | ExecutionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                reportArea.setText("Error generating " + title + ": " + cause.getMessage());
+                return;
+            }
+            if (whenDone != null) whenDone.run();
+        }
+    }
+
+    /**
+     * Cancel whatever report is running and start this one.
+     * Tasks run one at a time on a single thread, so a report never
+     * overlaps a data refresh.
+     */
+    private void startReport(String title, ReportBuilder builder, Runnable whenDone) {
+        if (currentTask != null) {
+            currentTask.cancel(false);
+        }
+        ReportTask task = new ReportTask(title, builder, whenDone);
+        task.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName()) && currentTask == task) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((Integer) evt.getNewValue());
             }
         });
+        currentTask = task;
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(true);   // until the task reports progress
+        progressBar.setString(title + "...");
+        reportArea.setText("Generating " + title + "...");
+        REPORT_EXECUTOR.execute(task);
+    }
+
+    /**
+     * Cached section text, rebuilt only when the data it depends on has
+     * changed (see ReportCache). Returns null if the task was cancelled.
+     */
+    private String section(String key, java.util.function.Supplier<String> builder, ReportCache.Data... dependsOn) {
+        return systemManager.getReportCache().get(key, builder, dependsOn);
+    }
+
+    private static String header(String title) {
+        return "=== " + title + " ===\n" + "Generated: " + new java.util.Date() + "\n\n";
+    }
+
+    private String buildUserReport(ReportTask task) {
+        String body = section("reports.users", () -> {
+            StringBuilder report = new StringBuilder();
+            java.util.List<User> users = systemManager.getAllUsers();
+            Map<String, Integer> roleCount = new HashMap<>();
+            for (User u : users) {
+                String role = u.getRole();
+                roleCount.put(role, roleCount.getOrDefault(role, 0) + 1);
+            }
+            
+            report.append("Total Users: ").append(users.size()).append("\n");
+            for (String role : roleCount.keySet()) {
+                report.append("  ").append(role).append(": ").append(roleCount.get(role)).append("\n");
+            }
+            
+            report.append("\n--- User List ---\n");
+            for (int i = 0; i < users.size(); i++) {
+                if (!task.step(i, users.size())) return null;
+                User u = users.get(i);
+                report.append("ID: ").append(u.getUserID()).append(" | ");
+                report.append("Username: ").append(u.getUsername()).append(" | ");
+                report.append("Name: ").append(u.getFullName()).append(" | ");
+                report.append("Role: ").append(u.getRole()).append("\n");
+            }
+            return report.toString();
+        }, ReportCache.Data.USERS);
+        return body == null ? null : header("USER SUMMARY REPORT") + body;
+    }
+
+    private String buildClassReport(ReportTask task) {
+        String body = section("reports.classes", () -> {
+            StringBuilder report = new StringBuilder();
+            java.util.List<ClassModule> classes = systemManager.getAllClasses();
+            report.append("Total Classes: ").append(classes.size()).append("\n\n");
+            
+            report.append("--- Class Details ---\n");
+            for (int i = 0; i < classes.size(); i++) {
+                if (!task.step(i, classes.size())) return null;
+                ClassModule c = classes.get(i);
+                report.append("Class ID: ").append(c.getClassID()).append("\n");
+                report.append("  Name: ").append(c.getClassName()).append("\n");
+                report.append("  Module: ").append(c.getModuleID()).append("\n");
+                report.append("  Capacity: ").append(c.getCapacity()).append("\n");
+                report.append("  Enrolled: ").append(c.getEnrolledStudents().size()).append(" students\n");
+                report.append("  Schedule: ").append(c.getDay() != null ? c.getDay() : "N/A").append(" at ")
+                       .append(c.getTime() != null ? c.getTime() : "N/A").append("\n");
+                report.append("  Location: ").append(c.getLocation() != null ? c.getLocation() : "N/A").append("\n");
+                report.append("  Lecturer: ");
+                if (c.getLecturerID() != null) {
+                    User u = systemManager.findUserByID(c.getLecturerID());
+                    report.append(u != null ? u.getUsername() : "Not found");
+                } else {
+                    report.append("Unassigned");
+                }
+                report.append("\n\n");
+            }
+            return report.toString();
+        }, ReportCache.Data.CLASSES, ReportCache.Data.USERS);
+        return body == null ? null : header("CLASS SUMMARY REPORT") + body;
+    }
+
+    private String buildAssessmentReport(ReportTask task) {
+        String body = section("reports.assessments", () -> {
+            StringBuilder report = new StringBuilder();
+            java.util.List<Assessment> assessments = systemManager.getAllAssessments();
+            GradingSystem grading = systemManager.getGradingSystem();
+            report.append("Total Assessments: ").append(assessments.size()).append("\n\n");
+            
+            report.append("--- Assessment Details ---\n");
+            for (int i = 0; i < assessments.size(); i++) {
+                if (!task.step(i, assessments.size())) return null;
+                Assessment a = assessments.get(i);
+                report.append("Assessment ID: ").append(a.getAssessmentID()).append("\n");
+                report.append("  Class: ").append(a.getClassID()).append("\n");
+                report.append("  Title: ").append(a.getTitle()).append("\n");
+                report.append("  Type: ").append(a.getAssessmentType()).append("\n");
+                report.append("  Status: ").append(a.getStatus()).append("\n");
+                report.append("  Marks: ").append(a.getTotalMarks()).append("\n");
+                report.append("  Students Graded: ").append(a.getMarkedCount()).append("\n");
+                MarkStats stats = a.getStats(grading);
+                if (!stats.isEmpty()) {
+                    report.append("  ").append(describeStats(stats)).append("\n");
+                }
+                report.append("\n");
+            }
+
+            // module figures come from merging the assessments' running stats
+            report.append("--- Marks by Module ---\n");
+            Map<String, Module> modules = new HashMap<>();
+            for (Module m : systemManager.getAllModules()) modules.put(m.getModuleID(), m);
+            Map<String, QuantileSketch> sketches = systemManager.getModuleSketches();
+            for (Map.Entry<String, MarkStats> e : systemManager.getModuleStats().entrySet()) {
+                MarkStats stats = e.getValue();
+                if (stats.isEmpty()) continue;
+                Module m = modules.get(e.getKey());
+                report.append(m != null ? m.getModuleCode() + " (" + m.getModuleName() + ")" : e.getKey()).append("\n");
+                report.append("  ").append(describeStats(stats)).append("\n");
+                QuantileSketch sketch = sketches.get(e.getKey());
+                if (sketch != null && !sketch.isEmpty()) {
+                    report.append(String.format("  Median: %.1f%%, Quartiles: %.1f%% - %.1f%%%s%n",
+                            sketch.getMedian(), sketch.getLowerQuartile(), sketch.getUpperQuartile(),
+                            sketch.isExact() ? "" : " (approx.)"));
+                }
+                report.append("  Distribution:");
+                long[] histogram = stats.getHistogram();
+                for (int b = 0; b < histogram.length; b++) {
+                    if (histogram[b] > 0) report.append(" ").append(MarkStats.bucketLabel(b)).append("%: ").append(histogram[b]);
+                }
+                report.append("\n\n");
+            }
+            return report.toString();
+        }, ReportCache.Data.ASSESSMENTS, ReportCache.Data.MODULES, ReportCache.Data.GRADING);
+        return body == null ? null : header("ASSESSMENT SUMMARY REPORT") + body;
+    }
+
+    private static String describeStats(MarkStats stats) {
+        return String.format("Average: %.1f%% (SD %.1f), Range: %.1f%% - %.1f%%, Passed: %d/%d (%.1f%%)",
+                stats.getMean(), stats.getStdDev(), stats.getMin(), stats.getMax(),
+                stats.getPassCount(), stats.getCount(), stats.getPassRate());
+    }
+
+    private String buildEnrollmentReport(ReportTask task) {
+        // two sections: the per-class part does not need rebuilding when only users change
+        String byClass = section("reports.enrollment.byClass", () -> {
+            StringBuilder report = new StringBuilder();
+            java.util.List<ClassModule> classes = systemManager.getAllClasses();
+            int totalEnrolled = 0;
+            
+            report.append("--- Enrollment by Class ---\n");
+            for (int i = 0; i < classes.size(); i++) {
+                if (!task.step(i, classes.size())) return null;
+                ClassModule c = classes.get(i);
+                report.append(c.getClassID()).append(" (").append(c.getClassName()).append("): ");
+                int enrolled = c.getEnrolledStudents().size();
+                report.append(enrolled).append(" / ").append(c.getCapacity()).append(" students\n");
+                totalEnrolled += enrolled;
+            }
+            
+            report.append("\nTotal Enrolled: ").append(totalEnrolled).append("\n");
+            return report.toString();
+        }, ReportCache.Data.CLASSES);
+        if (byClass == null) return null;
+
+        String byStudent = section("reports.enrollment.byStudent", () -> {
+            StringBuilder report = new StringBuilder();
+            report.append("\n--- Enrollment by Student ---\n");
+            java.util.List<User> students = systemManager.getAllStudents();
+            for (int i = 0; i < students.size(); i++) {
+                if (!task.step(i, students.size())) return null;
+                User u = students.get(i);
+                report.append(u.getUsername()).append(" (").append(u.getUserID()).append("): ");
+                int classCount = (u instanceof Student)
+                        ? systemManager.countClassesForStudent(((Student) u).getStudentID())
+                        : 0;
+                report.append(classCount).append(" classes\n");
+            }
+            return report.toString();
+        }, ReportCache.Data.USERS, ReportCache.Data.CLASSES);
+        if (byStudent == null) return null;
+
+        return header("ENROLLMENT REPORT") + byClass + byStudent;
     }
 
     private void showModuleManagementPanel() {
@@ -386,11 +573,15 @@ class AcademicLeaderReportsPanel extends JPanel {
         JButton cancelBtn = new JButton("Cancel");
         
         saveBtn.addActionListener(e -> {
-            module.setModuleName(nameField.getText());
-            module.setModuleCode(codeField.getText());
-            module.setCreditHours((Integer) creditsSpinner.getValue());
+            String name = nameField.getText();
+            String code = codeField.getText();
+            int credits = (Integer) creditsSpinner.getValue();
             
-            if (systemManager.updateModule(module)) {
+            if (systemManager.editModule(module.getModuleID(), m -> {
+                m.setModuleName(name);
+                m.setModuleCode(code);
+                m.setCreditHours(credits);
+            })) {
                 JOptionPane.showMessageDialog(editDialog, "Module updated successfully!");
                 editDialog.dispose();
                 parent.dispose();
@@ -1,5 +1,4 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
@@ -15,7 +14,7 @@ class AdminClassCreationPanel extends JPanel {
     private JFrame parentFrame;
     
     // Table components for displaying all classes
-    private DefaultTableModel tableModel;
+    private RecordTableModel<ClassModule> tableModel;
     private JTable table;
     public AdminClassCreationPanel(SystemManager systemManager, JFrame parentFrame) {
         this.systemManager = systemManager;
@@ -152,16 +151,19 @@ class AdminClassCreationPanel extends JPanel {
         allClassesPanel.setBorder(BorderFactory.createTitledBorder("All Classes"));
         
         // Table columns for class information
-        String[] cols = new String[] {"Class ID", "Class Name", "Module", "Capacity", "Schedule", "Location", "Lecturer"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Cells are read from the classes as they are drawn; click a header to sort
+        tableModel = new RecordTableModel<ClassModule>(ClassModule::getClassID)
+            .addColumn("Class ID", String.class, ClassModule::getClassID)
+            .addColumn("Class Name", String.class, ClassModule::getClassName)
+            .addColumn("Module", String.class, ClassModule::getModuleID)
+            .addColumn("Capacity", Integer.class, ClassModule::getCapacity)
+            .addColumn("Schedule", String.class, this::scheduleOf)
+            .addColumn("Location", String.class, c -> c.getLocation() != null ? c.getLocation() : "N/A")
+            .addColumn("Lecturer", String.class, this::lecturerNameOf);
         
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setRowSorter(tableModel.createSorter());
         JScrollPane scroll = new JScrollPane(table);
         allClassesPanel.add(scroll, BorderLayout.CENTER);
         
@@ -178,8 +180,8 @@ class AdminClassCreationPanel extends JPanel {
         add(allClassesPanel, BorderLayout.CENTER);
         add(deletePanel, BorderLayout.SOUTH);
         
-        // Set initial class ID
-        classIdField.setText(systemManager.generateClassID());
+        // Show the ID the next class will get (reserved when it is created)
+        classIdField.setText(systemManager.peekClassID());
         
         // ==================== CREATE BUTTON HANDLER ====================
         // Handle class creation with validation
@@ -187,7 +189,6 @@ class AdminClassCreationPanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 // Collect form data
-                String classId = classIdField.getText().trim();
                 String className = classNameField.getText().trim();
                 
                 // Validate class name
@@ -248,6 +249,8 @@ class AdminClassCreationPanel extends JPanel {
                     }
                 }
                 // Create new ClassModule object with all the collected data
+                // (the class ID is only reserved now that the form is valid)
+                String classId = systemManager.generateClassID();
                 ClassModule newClass = new ClassModule(
                     classId, 
                     className, 
@@ -268,7 +271,7 @@ class AdminClassCreationPanel extends JPanel {
                 
                 // ========== RESET FORM TO DEFAULT VALUES ==========
                 // Ready for creating another class
-                classIdField.setText(systemManager.generateClassID());
+                classIdField.setText(systemManager.peekClassID());
                 classNameField.setText("");
                 if (moduleBox.getItemCount() > 0) {
                     moduleBox.setSelectedIndex(0);
@@ -319,40 +322,34 @@ class AdminClassCreationPanel extends JPanel {
      * Displays class information including schedule and assigned lecturer.
      */
     private void refreshTable() {
-        tableModel.setRowCount(0);
-        
-        java.util.List<ClassModule> classes = systemManager.getAllClasses();
-        for (ClassModule c : classes) {
-            // Get lecturer name or show "Unassigned"
-            String lecName = "Unassigned";
-            if (c.getLecturerID() != null) {
-                User u = systemManager.findUserByID(c.getLecturerID());
-                lecName = u != null ? u.getUsername() : "Not found";
-            }
-            
-            // Format schedule display (handles both recurring and one-time schedules)
-            String schedule = "";
-            if (c.getDay() != null && c.getTime() != null) {
-                schedule = c.getDay() + ", " + c.getTime();
-            } else if (c.getDay() != null) {
-                schedule = c.getDay();
-            } else if (c.getTime() != null) {
-                schedule = c.getTime();
-            } else {
-                schedule = "N/A";
-            }
-            
-            // Add row to table with all class information
-            tableModel.addRow(new Object[] {
-                c.getClassID(),
-                c.getClassName(),
-                c.getModuleID(),
-                c.getCapacity(),
-                schedule,
-                c.getLocation() != null ? c.getLocation() : "N/A",
-                lecName
-            });
+        // Only the rows that differ from what is shown are reported to the table
+        tableModel.setRows(systemManager.getAllClasses());
+    }
+    
+    /**
+     * Lecturer's username for the table, or "Unassigned" (looked up by ID
+     * when the cell is drawn)
+     */
+    private String lecturerNameOf(ClassModule c) {
+        if (c.getLecturerID() == null) {
+            return "Unassigned";
+        }
+        User u = systemManager.findUserByID(c.getLecturerID());
+        return u != null ? u.getUsername() : "Not found";
+    }
+    
+    /**
+     * Schedule for the table (handles both recurring and one-time schedules)
+     */
+    private String scheduleOf(ClassModule c) {
+        if (c.getDay() != null && c.getTime() != null) {
+            return c.getDay() + ", " + c.getTime();
+        } else if (c.getDay() != null) {
+            return c.getDay();
+        } else if (c.getTime() != null) {
+            return c.getTime();
         }
+        return "N/A";
     }
     
     private JPanel createLabeledRow(String labelText, JComponent comp) {
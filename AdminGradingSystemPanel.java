@@ -18,6 +18,10 @@ class AdminGradingSystemPanel extends JPanel {
     
     // The grading system object containing all grade configurations
     private GradingSystem gradingSystem;
+    
+    // Impact of the table's unsaved edits on existing marks
+    private JTextArea previewArea;
+    private int previewRun;   // bumped per preview so stale results are dropped
 
     public AdminGradingSystemPanel(SystemManager systemManager, JFrame parentFrame) {
         this.systemManager = systemManager;
@@ -81,20 +85,27 @@ class AdminGradingSystemPanel extends JPanel {
         // Load initial grading scale data from gradingSystem
         loadInitialGrades();
         
-        // ========== AUTO-SAVE ON CELL EDIT ==========
-        // Add listener to detect cell edits and automatically save changes to file
+        // ========== PREVIEW ON CELL EDIT ==========
+        // Edits are not saved straight away: every change to the table reruns
+        // the what-if simulation so the admin sees its effect first
         tableModel.addTableModelListener(new javax.swing.event.TableModelListener() {
             @Override
             public void tableChanged(javax.swing.event.TableModelEvent e) {
-                // Only save on UPDATE events (not on INSERT or DELETE)
-                if (e.getType() == javax.swing.event.TableModelEvent.UPDATE) {
-                    saveGradingSystemToFile();
-                }
+                refreshPreview();
             }
         });
         
         tablePanel.add(scroll, BorderLayout.CENTER);
         
+        // ========== IMPACT PREVIEW ==========
+        previewArea = new JTextArea(8, 40);
+        previewArea.setEditable(false);
+        previewArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        previewArea.setText("No unsaved changes.");
+        JScrollPane previewScroll = new JScrollPane(previewArea);
+        previewScroll.setBorder(BorderFactory.createTitledBorder("Impact of unsaved changes on existing marks"));
+        tablePanel.add(previewScroll, BorderLayout.SOUTH);
+        
         // ==================== ADD/EDIT GRADE FORM ====================
         // Bottom section: Form for adding new grades or editing existing ones
         JPanel editPanel = new JPanel();
@@ -160,14 +171,6 @@ class AdminGradingSystemPanel extends JPanel {
                     // Add to table model for display
                     tableModel.addRow(new Object[] { minScore, maxScore, grade, gpa, classification });
                     
-                    // Add to grading system with GPA
-                    String gradeID = "G" + (gradingSystem.getGrades().size() + 1);
-                    GradingScale gradingScale = new GradingScale(gradeID, grade, minScore, maxScore, classification, gpa);
-                    gradingSystem.addGradingScale(gradingScale);
-                    
-                    // Save to file immediately
-                    FileManager.saveGradingSystem(gradingSystem);
-                    
                     // Clear form fields
                     minSpinner.setValue(80);
                     maxSpinner.setValue(100);
@@ -175,7 +178,8 @@ class AdminGradingSystemPanel extends JPanel {
                     gpaSpinner.setValue(4.00);
                     classificationField.setText("");
                     
-                    JOptionPane.showMessageDialog(parentFrame, "Grade added and saved successfully!");
+                    // Show the impact and save once confirmed
+                    confirmAndSave("Grade added and saved successfully!");
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(parentFrame, "Error: " + ex.getMessage());
                 }
@@ -183,12 +187,11 @@ class AdminGradingSystemPanel extends JPanel {
         });
         
         // ==================== SAVE CHANGES BUTTON ====================
-        // Explicitly save all table changes to file
+        // Show the impact of all table changes, then save them to file
         saveChangesBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                saveGradingSystemToFile();
-                JOptionPane.showMessageDialog(parentFrame, "All changes saved successfully!");
+                confirmAndSave("All changes saved successfully!");
             }
         });
 
@@ -203,95 +206,205 @@ class AdminGradingSystemPanel extends JPanel {
                     return;
                 }
                 
-                int confirm = JOptionPane.showConfirmDialog(parentFrame, "Delete this grade?", "Confirm", JOptionPane.YES_NO_OPTION);
-                if (confirm == JOptionPane.YES_OPTION) {
-                    // Remove from grading system internal list
-                    if (r < gradingSystem.getGrades().size()) {
-                        gradingSystem.getGrades().remove(r);
-                    }
-                    // Remove from table display
-                    tableModel.removeRow(r);
-                    // Save changes immediately
-                    saveGradingSystemToFile();
-                    JOptionPane.showMessageDialog(parentFrame, "Grade deleted and saved successfully!");
-                }
+                // Remove from table display; the preview dialog asks before saving
+                tableModel.removeRow(r);
+                confirmAndSave("Grade deleted and saved successfully!");
             }
         });
     }
     
     
 
-    private void saveGradingSystemToFile() {
-        try {
-            // Create a NEW grading system from what's in the table (ensures table is source of truth)
-            GradingSystem newGradingSystem = new GradingSystem("GS001", "APU Grading System", 60.0);
-            newGradingSystem.getGrades().clear();
-            
-            // Process each table row
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
+    // ==================== WHAT-IF PREVIEW ====================
+
+    /**
+     * Reruns the simulation for the table as it is now, off the event
+     * thread, and shows the result in the preview area
+     */
+    private void refreshPreview() {
+        int run = ++previewRun;
+        GradingSystem candidate = buildGradingSystemFromTable();
+        previewArea.setText("Calculating impact...");
+        new SwingWorker<GradingSimulation.Result, Void>() {
+            @Override
+            protected GradingSimulation.Result doInBackground() {
+                return simulate(candidate);
+            }
+
+            @Override
+            protected void done() {
+                if (run != previewRun) return;   // a newer edit has its own preview coming
                 try {
-                    // Read each cell value from the table
-                    Object minObj = tableModel.getValueAt(i, 0);
-                    Object maxObj = tableModel.getValueAt(i, 1);
-                    Object gradeObj = tableModel.getValueAt(i, 2);
-                    Object gpaObj = tableModel.getValueAt(i, 3);
-                    Object classObj = tableModel.getValueAt(i, 4);
-                    
-                    // Convert to proper types - handle both String and Number types
-                    // (cells may return different types depending on editing state)
-                    int minScore = 0;
-                    try {
-                        minScore = (minObj instanceof Number) ? ((Number) minObj).intValue() : Integer.parseInt(minObj.toString());
-                    } catch (Exception e) {
-                        System.err.println("Error parsing min score: " + minObj);
-                        continue;
-                    }
-                    
-                    int maxScore = 0;
-                    try {
-                        maxScore = (maxObj instanceof Number) ? ((Number) maxObj).intValue() : Integer.parseInt(maxObj.toString());
-                    } catch (Exception e) {
-                        System.err.println("Error parsing max score: " + maxObj);
-                        continue;
-                    }
-                    
-                    double gpa = 0.0;
-                    try {
-                        gpa = (gpaObj instanceof Number) ? ((Number) gpaObj).doubleValue() : Double.parseDouble(gpaObj.toString());
-                    } catch (Exception e) {
-                        System.err.println("Error parsing GPA: " + gpaObj);
-                        gpa = 0.0;
-                    }
-                    
-                    String grade = (gradeObj != null) ? gradeObj.toString() : "";
-                    String classification = (classObj != null) ? classObj.toString() : "";
-                    
-                    if (grade.isEmpty() || classification.isEmpty()) {
-                        System.err.println("Skipping row " + i + " - empty grade or classification");
-                        continue;
-                    }
-                    
-                    // Create GradingScale object and add to system
-                    String gradeID = "G" + (i + 1);
-                    GradingScale gradingScale = new GradingScale(gradeID, grade, minScore, maxScore, classification, gpa);
-                    newGradingSystem.addGradingScale(gradingScale);
-                    
-                } catch (Exception e) {
-                    System.err.println("Error processing row " + i + ": " + e.getMessage());
-                    e.printStackTrace();
+                    GradingSimulation.Result result = get();
+                    previewArea.setText(result.getChangedMarks() == 0 && result.getTotalMarks() > 0
+                            ? "No existing mark changes grade (" + result.getTotalMarks() + " marks checked)."
+                            : describe(result, 10));
+                    previewArea.setCaretPosition(0);
+                } catch (Exception ex) {
+                    previewArea.setText("Preview failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows what the table's grading scale would do to existing marks and
+     * saves it only if the admin confirms. Declined changes stay in the
+     * table, unsaved, with their preview.
+     */
+    private void confirmAndSave(String savedMessage) {
+        GradingSystem candidate = buildGradingSystemFromTable();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<GradingSimulation.Result, Void>() {
+            @Override
+            protected GradingSimulation.Result doInBackground() {
+                return simulate(candidate);
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                String impact;
+                try {
+                    impact = describe(get(), 5);
+                } catch (Exception ex) {
+                    impact = "Impact could not be calculated: " + ex.getMessage();
+                }
+                JTextArea text = new JTextArea(impact + "\n\nSave this grading scale?");
+                text.setEditable(false);
+                text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+                int confirm = JOptionPane.showConfirmDialog(parentFrame, new JScrollPane(text),
+                        "Confirm Grading Changes", JOptionPane.YES_NO_OPTION);
+                if (confirm == JOptionPane.YES_OPTION) {
+                    saveGradingSystem(candidate);
+                    refreshPreview();
+                    JOptionPane.showMessageDialog(parentFrame, savedMessage);
                 }
             }
-            
-            // Save the new grading system to file
-            FileManager.saveGradingSystem(newGradingSystem);
+        }.execute();
+    }
+
+    private GradingSimulation.Result simulate(GradingSystem candidate) {
+        return GradingSimulation.run(systemManager.getGradingSystem(), candidate, systemManager.getAllAssessments());
+    }
+
+    /**
+     * Plain-text summary: marks and students affected, the grade
+     * distribution before and after, and the modules whose pass rate moves most
+     */
+    private static String describe(GradingSimulation.Result result, int maxModules) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%,d of %,d marks change grade, affecting %,d students (%d ms)%n%n",
+                result.getChangedMarks(), result.getTotalMarks(), result.getStudentsAffected(), result.getElapsedMillis()));
+        sb.append(String.format("%-8s %10s %10s %10s%n", "Grade", "Now", "After", "Change"));
+        for (GradingSimulation.GradeCount g : result.getDistribution()) {
+            sb.append(String.format("%-8s %,10d %,10d %+,10d%n", g.getGradeLetter(), g.getBefore(), g.getAfter(), g.getDelta()));
+        }
+        java.util.List<GradingSimulation.ModuleDelta> modules = result.getModuleDeltas();
+        if (modules.isEmpty()) {
+            sb.append(String.format("%nNo module's pass rate changes.%n"));
+        } else {
+            sb.append(String.format("%nPass rate by module (%d changed):%n", modules.size()));
+            for (int i = 0; i < modules.size() && i < maxModules; i++) {
+                GradingSimulation.ModuleDelta m = modules.get(i);
+                sb.append(String.format("  %-10s %-28.28s %5.1f%% -> %5.1f%% (%+.1f)%n", m.getModuleCode(), m.getModuleName(),
+                        m.getPassRateBefore(), m.getPassRateAfter(), m.getPassRateChange()));
+            }
+            if (modules.size() > maxModules) {
+                sb.append(String.format("  ... and %d more%n", modules.size() - maxModules));
+            }
+        }
+        return sb.toString();
+    }
+
+    // ==================== SAVING ====================
+
+    private void saveGradingSystem(GradingSystem newGradingSystem) {
+        try {
+            // Save the new grading system to file and make it the one in use
+            systemManager.updateGradingSystem(newGradingSystem);
             // Update the internal reference
             this.gradingSystem = newGradingSystem;
-            
         } catch (Exception ex) {
             System.err.println("Error saving grading system: " + ex.getMessage());
             ex.printStackTrace();
         }
     }
+
+    /**
+     * Builds a NEW grading system from what's in the table (the table is
+     * the source of truth); rows that cannot be read are skipped
+     */
+    private GradingSystem buildGradingSystemFromTable() {
+        return buildGradingSystem(systemManager.getGradingSystem(), tableModel);
+    }
+
+    /**
+     * The grading system the table rows describe. The table only holds the
+     * bands, so ID, name and passing percentage are those of the live system.
+     */
+    static GradingSystem buildGradingSystem(GradingSystem live, TableModel rows) {
+        GradingSystem newGradingSystem = new GradingSystem(live.getSystemID(), live.getSystemName(),
+                live.getPassingPercentage());
+        newGradingSystem.getGrades().clear();
+        
+        // Process each table row
+        for (int i = 0; i < rows.getRowCount(); i++) {
+            try {
+                // Read each cell value from the table
+                Object minObj = rows.getValueAt(i, 0);
+                Object maxObj = rows.getValueAt(i, 1);
+                Object gradeObj = rows.getValueAt(i, 2);
+                Object gpaObj = rows.getValueAt(i, 3);
+                Object classObj = rows.getValueAt(i, 4);
+                
+                // Convert to proper types - handle both String and Number types
+                // (cells may return different types depending on editing state)
+                int minScore = 0;
+                try {
+                    minScore = (minObj instanceof Number) ? ((Number) minObj).intValue() : Integer.parseInt(minObj.toString());
+                } catch (Exception e) {
+                    System.err.println("Error parsing min score: " + minObj);
+                    continue;
+                }
+                
+                int maxScore = 0;
+                try {
+                    maxScore = (maxObj instanceof Number) ? ((Number) maxObj).intValue() : Integer.parseInt(maxObj.toString());
+                } catch (Exception e) {
+                    System.err.println("Error parsing max score: " + maxObj);
+                    continue;
+                }
+                
+                double gpa = 0.0;
+                try {
+                    gpa = (gpaObj instanceof Number) ? ((Number) gpaObj).doubleValue() : Double.parseDouble(gpaObj.toString());
+                } catch (Exception e) {
+                    System.err.println("Error parsing GPA: " + gpaObj);
+                    gpa = 0.0;
+                }
+                
+                String grade = (gradeObj != null) ? gradeObj.toString() : "";
+                String classification = (classObj != null) ? classObj.toString() : "";
+                
+                if (grade.isEmpty() || classification.isEmpty()) {
+                    System.err.println("Skipping row " + i + " - empty grade or classification");
+                    continue;
+                }
+                
+                // Create GradingScale object and add to system
+                String gradeID = "G" + (i + 1);
+                GradingScale gradingScale = new GradingScale(gradeID, grade, minScore, maxScore, classification, gpa);
+                newGradingSystem.addGradingScale(gradingScale);
+                
+            } catch (Exception e) {
+                System.err.println("Error processing row " + i + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        return newGradingSystem;
+    }
     
     /**
      * Loads the initial grading scale data from the gradingSystem object into the table.
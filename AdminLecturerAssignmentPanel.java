@@ -8,7 +8,7 @@ class AdminLecturerAssignmentPanel extends JPanel {
     // Reference to system manager for data operations
     private SystemManager systemManager;
     private JFrame parentFrame;
-    private DefaultTableModel tableModel;
+    private RecordTableModel<User> tableModel;
     private JTable table;
     
     public AdminLecturerAssignmentPanel(SystemManager systemManager, JFrame parentFrame) {
@@ -62,16 +62,16 @@ class AdminLecturerAssignmentPanel extends JPanel {
         currentPanel.setBorder(BorderFactory.createTitledBorder("Current Lecturer-Leader Assignments"));
         
         // Table columns: Lecturer info and their assigned leader
-        String[] cols = new String[] {"Lecturer ID", "Lecturer Name", "Academic Leader ID", "Leader Name"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Cells are read from the lecturers as they are drawn; click a header to sort
+        tableModel = new RecordTableModel<User>(User::getUserID)
+            .addColumn("Lecturer ID", String.class, User::getUserID)
+            .addColumn("Lecturer Name", String.class, User::getUsername)
+            .addColumn("Academic Leader ID", String.class, u -> leaderIDOf(u) != null ? leaderIDOf(u) : "Unassigned")
+            .addColumn("Leader Name", String.class, this::leaderNameOf);
         
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setRowSorter(tableModel.createSorter());
         JScrollPane scroll = new JScrollPane(table);
         
         // Load initial assignment data
@@ -125,7 +125,7 @@ class AdminLecturerAssignmentPanel extends JPanel {
                 }
                 JOptionPane.showMessageDialog(parentFrame, "Lecturer assigned to academic leader successfully!");
                 // Refresh table to show new assignment
-                refreshTable();
+                refreshTable(lecId);
             }
         });
         
@@ -145,7 +145,7 @@ class AdminLecturerAssignmentPanel extends JPanel {
                 systemManager.unassignLecturerFromLeader(lecId);
                 JOptionPane.showMessageDialog(parentFrame, "Assignment removed successfully!");
                 // Refresh table to reflect change
-                refreshTable();
+                refreshTable(lecId);
             }
         });
     }
@@ -155,25 +155,35 @@ class AdminLecturerAssignmentPanel extends JPanel {
      * Shows "Unassigned" for lecturers without an academic leader.
      */
     private void refreshTable() {
-        tableModel.setRowCount(0);
-        java.util.List<User> allLecturers = systemManager.getAllLecturers();
-        for (User u : allLecturers) {
-            Lecturer lec = (Lecturer) u;
-            // Get assigned leader's information or show "Unassigned"
-            String leaderId = lec.getAcademicLeaderID() != null ? lec.getAcademicLeaderID() : "Unassigned";
-            String leaderName = "Unassigned";
-            if (lec.getAcademicLeaderID() != null) {
-                User leader = systemManager.findUserByID(lec.getAcademicLeaderID());
-                leaderName = leader != null ? leader.getUsername() : "Not found";
-            }
-            // Add row to table
-            tableModel.addRow(new Object[] { 
-                lec.getUserID(), 
-                lec.getUsername(), 
-                leaderId, 
-                leaderName 
-            });
+        // Only the rows that differ from what is shown are reported to the table
+        tableModel.setRows(systemManager.getAllLecturers());
+    }
+    
+    /**
+     * Refreshes the table after this lecturer's assignment changed in place.
+     * The row's sort keys are dropped first, so any sort the refresh causes
+     * uses the new assignment.
+     */
+    private void refreshTable(String changedLecturerID) {
+        tableModel.rowChanged(changedLecturerID);
+        refreshTable();
+    }
+    
+    private static String leaderIDOf(User u) {
+        return u instanceof Lecturer ? ((Lecturer) u).getAcademicLeaderID() : null;
+    }
+    
+    /**
+     * Assigned leader's username, or "Unassigned" (looked up by ID when the
+     * cell is drawn)
+     */
+    private String leaderNameOf(User u) {
+        String leaderId = leaderIDOf(u);
+        if (leaderId == null) {
+            return "Unassigned";
         }
+        User leader = systemManager.findUserByID(leaderId);
+        return leader != null ? leader.getUsername() : "Not found";
     }
     
 
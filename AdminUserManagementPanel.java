@@ -12,7 +12,8 @@ class AdminUserManagementPanel extends JPanel {
     private JFrame parentFrame;
     
     // Table model and table for displaying user list
-    private DefaultTableModel tableModel;
+    private RecordTableModel<User> tableModel;
+    private TableRowSorter<RecordTableModel<User>> sorter;
     private JTable table;
     
     // Search field for finding users
@@ -25,6 +26,10 @@ class AdminUserManagementPanel extends JPanel {
     private java.util.List<User> allUsers;
     private java.util.List<User> filteredUsers;
     
+    // Search-as-you-type: waits for a pause in typing before searching
+    private static final int SEARCH_DELAY_MS = 150;
+    private javax.swing.Timer searchTimer;
+    
     public AdminUserManagementPanel(SystemManager systemManager, JFrame parentFrame) {
         this.systemManager = systemManager;
         this.parentFrame = parentFrame;
@@ -44,16 +49,19 @@ class AdminUserManagementPanel extends JPanel {
         // ==================== USER TABLE SETUP ====================
         // Create table with columns for user information
         // Table is non-editable - users must use Edit button
-        String[] cols = new String[] {"UserID", "Username", "Full Name", "Email", "Role", "Status"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Cells are read from the User objects as they are drawn; click a header to sort
+        tableModel = new RecordTableModel<User>(User::getUserID)
+            .addColumn("UserID", String.class, User::getUserID)
+            .addColumn("Username", String.class, User::getUsername)
+            .addColumn("Full Name", String.class, User::getFullName)
+            .addColumn("Email", String.class, User::getEmail)
+            .addColumn("Role", String.class, User::getRole)
+            .addColumn("Status", String.class, u -> u.isApproved() ? "Approved" : "Pending");
         
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        sorter = tableModel.createSorter();
+        table.setRowSorter(sorter);
         JScrollPane scroll = new JScrollPane(table);
         
         // Load initial data from system manager
@@ -195,16 +203,36 @@ class AdminUserManagementPanel extends JPanel {
         searchField.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                searchTimer.stop();
                 performSearch();
             }
         });
         
+        // Search as you type - restarts the timer on every edit, so a burst
+        // of keystrokes runs one search after the last of them
+        searchTimer = new javax.swing.Timer(SEARCH_DELAY_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                performSearch();
+            }
+        });
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+        });
+        
         // Clear button - resets search and shows all users
         clearBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 searchField.setText("");
                 roleFilter.setSelectedIndex(0);
+                searchTimer.stop();
                 refreshTable();
             }
         });
@@ -369,7 +397,7 @@ class AdminUserManagementPanel extends JPanel {
                 String username = (String)table.getValueAt(r,1);
                 if (systemManager.approveUser(userId)) {
                     JOptionPane.showMessageDialog(parentFrame, "User " + username + " approved successfully!");
-                    refreshTable();
+                    refreshTable(userId);
                 } else {
                     JOptionPane.showMessageDialog(parentFrame, "Failed to approve user");
                 }
@@ -392,7 +420,7 @@ class AdminUserManagementPanel extends JPanel {
                 if (yn == JOptionPane.YES_OPTION) {
                     if (systemManager.rejectUser(userId)) {
                         JOptionPane.showMessageDialog(parentFrame, "User rejected successfully!");
-                        refreshTable();
+                        refreshTable(userId);
                     } else {
                         JOptionPane.showMessageDialog(parentFrame, "Failed to reject user");
                     }
@@ -522,14 +550,9 @@ class AdminUserManagementPanel extends JPanel {
                             
                             if (systemManager.convertUserRole(userId, newRole, dept, staffId)) {
                                 // Get the converted user (which now has a new ID)
-                                // Search for the newly created user
-                                java.util.List<User> allUsers = systemManager.getAllUsers();
-                                User convertedUser = null;
-                                for (User u : allUsers) {
-                                    if (u.getUsername().equals(usern) && !u.getUserID().equals(oldUserId)) {
-                                        convertedUser = u;
-                                        break;
-                                    }
+                                User convertedUser = systemManager.findUserByUsername(existingUser.getUsername());
+                                if (convertedUser != null && convertedUser.getUserID().equals(oldUserId)) {
+                                    convertedUser = null;
                                 }
                                 
                                 if (convertedUser != null) {
@@ -554,8 +577,6 @@ class AdminUserManagementPanel extends JPanel {
                         }
                         
                         // ========== UPDATE USER FIELDS ==========
-                        // Update common fields that all user types have
-                        existingUser.setUsername(usern);
                         // Only update password if a new one was provided
                         if (!pass.isEmpty()) {
                             if (pass.length() < 8) {
@@ -566,30 +587,32 @@ class AdminUserManagementPanel extends JPanel {
                                 JOptionPane.showMessageDialog(parentFrame, "Password must contain at least one special character");
                                 return;
                             }
-                            existingUser.setPassword(pass);
                         }
-                        existingUser.setEmail(mail);
-                        existingUser.setFullName(name);
-                        existingUser.setPhoneNumber(phoneStr.isEmpty()?"N/A":phoneStr);
-                        existingUser.setGender(gender);
-                        existingUser.setAge(age);
-                        
-                        // Update role-specific fields (department for staff roles)
-                        if (existingUser instanceof Lecturer) {
-                            ((Lecturer)existingUser).setDepartment(dept);
-                        } else if (existingUser instanceof AcademicLeader) {
-                            ((AcademicLeader)existingUser).setDepartment(dept);
-                        } else if (existingUser instanceof AdminStaff) {
-                            ((AdminStaff)existingUser).setDepartment(dept);
-                        }
-                        
-                        // Save changes to file
-                        systemManager.updateUser(existingUser);
+                        String phone = phoneStr.isEmpty() ? "N/A" : phoneStr;
+
+                        // Update common fields that all user types have, then the
+                        // role-specific ones (department for staff roles), and save
+                        systemManager.editUser(userId, u -> {
+                            u.setUsername(usern);
+                            if (!pass.isEmpty()) u.setPassword(pass);
+                            u.setEmail(mail);
+                            u.setFullName(name);
+                            u.setPhoneNumber(phone);
+                            u.setGender(gender);
+                            u.setAge(age);
+                            if (u instanceof Lecturer) {
+                                ((Lecturer) u).setDepartment(dept);
+                            } else if (u instanceof AcademicLeader) {
+                                ((AcademicLeader) u).setDepartment(dept);
+                            } else if (u instanceof AdminStaff) {
+                                ((AdminStaff) u).setDepartment(dept);
+                            }
+                        });
                         JOptionPane.showMessageDialog(parentFrame, "User updated successfully!");
                         // Hide form and refresh table
                         formPanel.setVisible(false);
                         mainPanel.remove(formPanel);
-                        refreshTable();
+                        refreshTable(userId);
                     }
                 } catch (Exception ex) {
                     // Handle any unexpected errors during save
@@ -607,10 +630,11 @@ class AdminUserManagementPanel extends JPanel {
                 // When creating a new user, generate appropriate IDs
                 if ("Create".equals(saveBtn.getText())) {
                     // Generate user ID with correct prefix (STU/LEC/AL/ADM)
-                    userIdField.setText(systemManager.generateUserID(selectedType));
+                    // (a preview only - the IDs are reserved when the user is saved)
+                    userIdField.setText(systemManager.peekUserID(selectedType));
                     // Generate staff ID for non-student roles
                     if (!"Student".equals(selectedType)) {
-                        staffIdField.setText(systemManager.generateStaffID());
+                        staffIdField.setText(systemManager.peekStaffID());
                     } else {
                         staffIdField.setText("N/A");
                     }
@@ -644,58 +668,50 @@ class AdminUserManagementPanel extends JPanel {
     }
     
     /**
-     * Refreshes the user table by loading all users from the system manager.
+     * Refreshes the user table by loading all users from the system manager,
+     * keeping the current search and role filter.
      * This method is called after any user modification (create, edit, delete, approve, reject).
      */
     private void refreshTable() {
         allUsers = systemManager.getAllUsers();
-        filteredUsers = new ArrayList<>(allUsers);
-        updateTableDisplay();
+        performSearch();
+    }
+    
+    /**
+     * Refreshes the table after the user with this ID was changed in place
+     * (same object, new field values). The row's sort keys are dropped
+     * first, so the search and role filter that follow sort it by its new
+     * values.
+     */
+    private void refreshTable(String changedUserID) {
+        tableModel.rowChanged(changedUserID);
+        refreshTable();
     }
     
     /**
      * Updates the table display with the current filtered user list.
-     * Shows user ID, username, full name, email, role, and approval status.
+     * The model only reports the rows that differ from what is shown.
      */
     private void updateTableDisplay() {
-        tableModel.setRowCount(0);
-        for (User u : filteredUsers) {
-            String status = u.isApproved() ? "Approved" : "Pending";
-            tableModel.addRow(new Object[] { 
-                u.getUserID(), 
-                u.getUsername(), 
-                u.getFullName(), 
-                u.getEmail(), 
-                u.getRole(),
-                status
-            });
-        }
+        tableModel.setRows(filteredUsers);
     }
     
     /**
      * Performs a search based on the search field text and role filter.
-     * Filters users by matching username or user ID (case-insensitive)
-     * and by role if a specific role is selected.
+     * Matches user ID, username, full name or email (case-insensitive)
+     * through the system manager's search index, then shows only users of
+     * the selected role.
      */
     private void performSearch() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
+        String searchTerm = searchField.getText().trim();
         String selectedRole = (String) roleFilter.getSelectedItem();
         
-        filteredUsers = new ArrayList<>();
-        for (User u : allUsers) {
-            // Check search term
-            boolean matchesSearch = searchTerm.isEmpty() || 
-                                    u.getUserID().toLowerCase().contains(searchTerm) ||
-                                    u.getFullName().toLowerCase().contains(searchTerm);
-            
-            // Check role filter
-            boolean matchesRole = "All Roles".equals(selectedRole) || u.getRole().equals(selectedRole);
-            
-            if (matchesSearch && matchesRole) {
-                filteredUsers.add(u);
-            }
-        }
+        filteredUsers = searchTerm.isEmpty() ? allUsers : systemManager.searchUsers(searchTerm, 0);
         updateTableDisplay();
+        
+        // Role filter runs in the table's sorter, on the User objects
+        sorter.setRowFilter("All Roles".equals(selectedRole) ? null
+                : tableModel.rowFilter(u -> selectedRole.equals(u.getRole())));
     }
     
     private JPanel createLabeledRow(String labelText, JComponent comp) {
@@ -29,4 +29,5 @@ public class Announcement implements Serializable {
     public void setTitle(String title) { this.title = title; }
     public void setContent(String content) { this.content = content; }
     public void setTargetRole(String targetRole) { this.targetRole = targetRole; }
+    public void setCreatedDate(Date createdDate) { this.createdDate = createdDate; } // needed by FileManager
 }
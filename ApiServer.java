@@ -0,0 +1,309 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ApiServer class - headless JSON API over one shared SystemManager
+ *
+ * Alternative entry point to main for web and mobile front-ends:
+ *
+ *   java ApiServer [port]          (default 8080, or -Dafs.api.port)
+ *
+ * Endpoints (all JSON, UTF-8):
+ *   POST /api/login           {"username":..,"password":..} -> {"token":..,"userID":..,"role":..}
+ *   POST /api/logout
+ *   GET  /api/classes         the caller's classes (students: enrolled, lecturers: teaching, others: all)
+ *   GET  /api/results         a student's marks; staff may add ?studentID=
+ *   GET  /api/feedback        a student's feedback; staff may add ?studentID=
+ *   GET  /api/announcements   announcements for the caller's role
+ * Every endpoint except login needs "Authorization: Bearer <token>", where
+ * the token is the Session ID returned by login.
+ *
+ * Requests run on a virtual thread each when the JVM has them (Java 21+);
+ * on older JVMs they run on a fixed pool of afs.api.threads platform
+ * threads (default 64). SystemManager is thread-safe and reads share
+ * snapshots, so handlers need no locking of their own.
+ */
+public class ApiServer {
+
+    private static final int MAX_BODY = 64 * 1024;
+    private static final int BACKLOG = 4096;   // let bursts of connections queue instead of being refused
+
+    private final SystemManager systemManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /** Thrown by endpoints to answer with an error status */
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private interface Endpoint {
+        Object handle(HttpExchange exchange, Session session) throws IOException;
+    }
+
+    public ApiServer(SystemManager systemManager, int port) throws IOException {
+        this.systemManager = systemManager;
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = requestExecutor();
+        server.setExecutor(executor);
+
+        route("/api/login", "POST", false, this::login);
+        route("/api/logout", "POST", true, this::logout);
+        route("/api/classes", "GET", true, this::classes);
+        route("/api/results", "GET", true, this::results);
+        route("/api/feedback", "GET", true, this::feedback);
+        route("/api/announcements", "GET", true, this::announcements);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+                : Integer.getInteger("afs.api.port", 8080);
+        SystemManager systemManager = new SystemManager();
+        ApiServer api = new ApiServer(systemManager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop();
+            FileManager.shutdown();
+        }));
+        api.start();
+        System.out.println("AFS API listening on port " + api.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * A virtual thread per request if this JVM has them (looked up
+     * reflectively so the code still compiles and runs on Java 17),
+     * otherwise a fixed pool of daemon threads
+     */
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Integer.getInteger("afs.api.threads", 64);
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "api-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // ======================================================
+    // ROUTING
+    // ======================================================
+
+    private void route(String path, String method, boolean needsSession, Endpoint endpoint) {
+        server.createContext(path, exchange -> {
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    throw new ApiException(404, "Not found");
+                }
+                if (!method.equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    throw new ApiException(405, "Use " + method);
+                }
+                Session session = needsSession ? sessionOf(exchange) : null;
+                send(exchange, 200, endpoint.handle(exchange, session));
+            } catch (ApiException e) {
+                send(exchange, e.status, Json.object("error", e.getMessage()));
+            } catch (Exception e) {
+                System.err.println("API error on " + path + ": " + e);
+                send(exchange, 500, Json.object("error", "Internal error"));
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    private Session sessionOf(HttpExchange exchange) {
+        String auth = exchange.getRequestHeaders().getFirst("Authorization");
+        String token = auth != null && auth.startsWith("Bearer ") ? auth.substring(7).trim() : null;
+        Session session = systemManager.findSession(token);
+        if (session == null) throw new ApiException(401, "Log in first");
+        return session;
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                if (buffer.size() + n > MAX_BODY) throw new ApiException(413, "Request body too large");
+                buffer.write(chunk, 0, n);
+            }
+        }
+        try {
+            return Json.parseObject(buffer.toString(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid JSON: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /**
+     * Students may only see their own records; staff pick one with ?studentID=
+     */
+    private static String studentIDFor(HttpExchange exchange, Session session) {
+        User user = session.getUser();
+        if (user instanceof Student) return ((Student) user).getStudentID();
+        String studentID = query(exchange).get("studentID");
+        if (studentID == null || studentID.isEmpty()) throw new ApiException(400, "studentID is required");
+        return studentID;
+    }
+
+    // ======================================================
+    // ENDPOINTS
+    // ======================================================
+
+    private Object login(HttpExchange exchange, Session none) throws IOException {
+        Map<String, Object> body = readBody(exchange);
+        Object username = body.get("username");
+        Object password = body.get("password");
+        if (!(username instanceof String) || !(password instanceof String)) {
+            throw new ApiException(400, "username and password are required");
+        }
+        Session session = systemManager.login((String) username, (String) password);
+        if (session == null) throw new ApiException(401, "Invalid username or password");
+        User user = session.getUser();
+        return Json.object("token", session.getSessionID(), "userID", user.getUserID(),
+                "username", user.getUsername(), "fullName", user.getFullName(), "role", user.getRole());
+    }
+
+    private Object logout(HttpExchange exchange, Session session) {
+        systemManager.logout(session);
+        return Json.object("loggedOut", true);
+    }
+
+    private Object classes(HttpExchange exchange, Session session) {
+        User user = session.getUser();
+        List<ClassModule> classes;
+        if (user instanceof Student) {
+            classes = systemManager.getClassesForStudent(((Student) user).getStudentID());
+        } else if (user instanceof Lecturer) {
+            classes = new ArrayList<>();
+            for (ClassModule c : systemManager.getAllClasses()) {
+                if (user.getUserID().equals(c.getLecturerID())) classes.add(c);
+            }
+        } else {
+            classes = systemManager.getAllClasses();
+        }
+
+        List<Object> result = new ArrayList<>(classes.size());
+        for (ClassModule c : classes) {
+            result.add(Json.object("classID", c.getClassID(), "className", c.getClassName(),
+                    "moduleID", c.getModuleID(), "lecturerID", c.getLecturerID(),
+                    "day", c.getDay(), "time", c.getTime(), "location", c.getLocation(),
+                    "capacity", c.getCapacity(), "enrolled", c.getEnrolledStudents().size()));
+        }
+        return Json.object("classes", result);
+    }
+
+    /**
+     * Same selection as the student dashboard: assessments of the student's
+     * classes (or every assessment if they are not in any class yet)
+     */
+    private Object results(HttpExchange exchange, Session session) {
+        String studentID = studentIDFor(exchange, session);
+        Set<String> classIDs = new HashSet<>();
+        for (ClassModule c : systemManager.getClassesForStudent(studentID)) classIDs.add(c.getClassID());
+        GradingSystem grading = systemManager.getGradingSystem();
+
+        List<Object> result = new ArrayList<>();
+        for (Assessment a : systemManager.getAllAssessments()) {
+            String classID = a.getClassID();
+            if (!classIDs.isEmpty() && classID != null && !classIDs.contains(classID)) continue;
+
+            Double mark = a.getStudentMarks(studentID);
+            Double total = a.getTotalMarks();
+            String grade = null;
+            if (mark != null && total != null && total > 0) {
+                grade = grading.getGradeLetterByPercentage(mark * 100.0 / total);
+            }
+            result.add(Json.object("assessmentID", a.getAssessmentID(), "assessmentName", a.getAssessmentName(),
+                    "moduleCode", a.getModuleCode(), "classID", classID, "dueDate", a.getDueDate(),
+                    "marks", mark, "totalMarks", total, "grade", grade));
+        }
+        return Json.object("studentID", studentID, "results", result);
+    }
+
+    private Object feedback(HttpExchange exchange, Session session) {
+        String studentID = studentIDFor(exchange, session);
+        List<Object> result = new ArrayList<>();
+        for (Feedback f : systemManager.getStudentFeedback(studentID)) {
+            result.add(Json.object("feedbackID", f.getFeedbackID(), "assessmentID", f.getAssessmentID(),
+                    "lecturerID", f.getLecturerID(), "content", f.getFeedbackContent(),
+                    "suggestedMarks", f.getSuggestedMarks(), "comments", f.getComments(),
+                    "date", f.getFeedbackDate(), "delivered", f.isDelivered()));
+        }
+        return Json.object("studentID", studentID, "feedback", result);
+    }
+
+    private Object announcements(HttpExchange exchange, Session session) {
+        String role = session.getUser().getRole();
+        List<Object> result = new ArrayList<>();
+        for (Announcement a : systemManager.getAllAnnouncements()) {
+            String target = a.getTargetRole();
+            if (target != null && !target.equalsIgnoreCase("ALL") && !target.equalsIgnoreCase(role)) continue;
+            result.add(Json.object("announcementID", a.getAnnouncementID(), "title", a.getTitle(),
+                    "content", a.getContent(), "senderID", a.getSenderID(), "targetRole", target,
+                    "createdDate", a.getCreatedDate()));
+        }
+        return Json.object("announcements", result);
+    }
+}
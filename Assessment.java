@@ -1,6 +1,6 @@
 import java.io.Serializable;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class Assessment implements Serializable {
@@ -17,7 +17,17 @@ public class Assessment implements Serializable {
 
     private Date createdDate;
     private Date dueDate;
-    private Map<String, Double> studentMarks;
+    private MarkStore studentMarks;   // studentID -> mark, with running count/sum/min/max
+
+    // percentage statistics, built on first use and then kept up to date on
+    // every mark write; rebuilt if the total marks or pass percentage change
+    private transient MarkStats stats;
+    private transient double statsTotal;
+
+    // quantile sketch of the percentages, kept the same way; a sketch cannot
+    // take a value back, so an overwritten mark drops it for a rebuild
+    private transient QuantileSketch sketch;
+    private transient double sketchTotal;
 
     
     public Assessment(String assessmentID,
@@ -38,32 +48,122 @@ public class Assessment implements Serializable {
         this.dueDate = dueDate;
 
         this.status = "PENDING"; 
-        this.studentMarks = new HashMap<>();
+        this.studentMarks = new MarkStore();
     }
 
-    // Record marks 
-    public void recordMarks(Student student, double marks) {
+    // Record marks (for a stored assessment use SystemManager.recordMarks)
+    public synchronized void recordMarks(Student student, double marks) {
         if (student == null) return;
         if (marks < 0 || marks > assessmentType.getTotalMarks()) return;
 
-        studentMarks.put(student.getStudentID(), marks);
+        markChanged(studentMarks.put(student.getStudentID(), marks), marks);
 
        
         this.status = "GRADED";
     }
 
    
-    public void addStudentMark(String studentID, double marks) {
+    public synchronized void addStudentMark(String studentID, double marks) {
         if (studentID == null) return;
-        studentMarks.put(studentID, marks);
+        markChanged(studentMarks.put(studentID, marks), marks);
 
         if (!studentMarks.isEmpty()) this.status = "GRADED";
     }
 
-    public Double getStudentMarks(String studentID) {
+    /**
+     * Statistics of the marks as percentages of the total marks, with the
+     * pass count taken at this grading system's passing percentage. O(1)
+     * unless the total, the passing percentage or the min/max changed
+     * since the last call, in which case they are rebuilt from the marks
+     * once. Returns a copy the caller may keep.
+     */
+    public synchronized MarkStats getStats(GradingSystem gradingSystem) {
+        double total = totalMarksOrZero();
+        double pass = gradingSystem != null ? gradingSystem.getPassingPercentage()
+                : stats != null ? stats.getPassPercentage() : 0.0;
+        if (stats == null || statsTotal != total || stats.getPassPercentage() != pass || stats.isRangeStale()) {
+            MarkStats built = new MarkStats(pass);
+            if (total > 0) {
+                for (int slot = 0; slot < studentMarks.size(); slot++) {
+                    built.add(studentMarks.markAt(slot) * 100.0 / total);
+                }
+            }
+            stats = built;
+            statsTotal = total;
+        }
+        return stats.copy();
+    }
+
+    /**
+     * Quantile sketch of the marks as percentages of the total marks, for
+     * median, quartiles and percentile ranks (exact for up to
+     * QuantileSketch.DEFAULT_K marks). Returns a copy the caller may keep
+     * or merge.
+     */
+    public synchronized QuantileSketch getSketch() {
+        return currentSketch().copy();
+    }
+
+    /**
+     * Merge this assessment's marks into a module or department sketch
+     * (no copy of this sketch is made)
+     */
+    public synchronized void addSketchTo(QuantileSketch target) {
+        target.include(currentSketch());
+    }
+
+    private QuantileSketch currentSketch() {
+        double total = totalMarksOrZero();
+        if (sketch == null || sketchTotal != total) {
+            QuantileSketch built = new QuantileSketch();
+            if (total > 0) {
+                for (int slot = 0; slot < studentMarks.size(); slot++) {
+                    built.add(studentMarks.markAt(slot) * 100.0 / total);
+                }
+            }
+            sketch = built;
+            sketchTotal = total;
+        }
+        return sketch;
+    }
+
+    // keep the stats and sketch in step with one mark write (old is NaN for a new mark)
+    private synchronized void markChanged(double old, double mark) {
+        double total = totalMarksOrZero();
+        if (stats != null) {
+            if (total != statsTotal || total <= 0) {
+                stats = null;   // rebuilt on the next getStats
+            } else {
+                if (!Double.isNaN(old)) stats.remove(old * 100.0 / total);
+                stats.add(mark * 100.0 / total);
+            }
+        }
+        if (sketch != null) {
+            if (total != sketchTotal || total <= 0 || !Double.isNaN(old)) {
+                sketch = null;  // rebuilt on the next getSketch
+            } else {
+                sketch.add(mark * 100.0 / total);
+            }
+        }
+    }
+
+    private double totalMarksOrZero() {
+        return assessmentType != null ? assessmentType.getTotalMarks() : 0.0;
+    }
+
+    public synchronized Double getStudentMarks(String studentID) {
         return studentMarks.get(studentID);
     }
 
+    /**
+     * Mark of the student with this dense index (MarkStore.findIndex), or
+     * NaN if they have none
+     */
+    public synchronized double getMarkOfIndex(int studentIndex) {
+        int slot = studentMarks.slotOfIndex(studentIndex);
+        return slot >= 0 ? studentMarks.markAt(slot) : Double.NaN;
+    }
+
     
     public String getAssessmentID() { return assessmentID; }
     public void setAssessmentID(String assessmentID) { this.assessmentID = assessmentID; }
@@ -86,7 +186,14 @@ public class Assessment implements Serializable {
     public Date getDueDate() { return dueDate; }
     public void setDueDate(Date dueDate) { this.dueDate = dueDate; }
 
-    public Map<String, Double> getStudentMarks() { return studentMarks; }
+    // a copy; use recordMarks/addStudentMark to change marks
+    public synchronized Map<String, Double> getStudentMarks() { return new LinkedHashMap<>(studentMarks.asMap()); }
+
+    // a copy taken under this assessment's lock, so it can be walked while
+    // marks are being recorded; changes to it do not reach the assessment
+    public synchronized MarkStore getMarkStore() { return studentMarks.copy(); }
+
+    public synchronized int getMarkedCount() { return studentMarks.size(); }
 
     
     public String getClassID() { return classID; }
@@ -105,11 +212,9 @@ public class Assessment implements Serializable {
         // Note: The full lecturer object should be properly reconstructed by the system
     }
 
-    public Double getScore() {
-        if (studentMarks.isEmpty()) return 0.0;
-        double total = 0;
-        for (double m : studentMarks.values()) total += m;
-        return total / studentMarks.size();
+    // average mark, kept up to date as marks are recorded
+    public synchronized Double getScore() {
+        return studentMarks.average();
     }
 
     public Double getTotalMarks() {
@@ -0,0 +1,332 @@
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * BinarySnapshot class - optional compact copy of the data files for fast startup
+ *
+ * data/snapshot.bin holds one section per change-logged data file (users,
+ * modules, classes, assessments, feedback). A section stores its records
+ * already split into fields, and every field is a number pointing into the
+ * section's string table, so repeated values such as roles, departments,
+ * "true" or module IDs are stored and decoded only once. The file is read
+ * through a MappedByteBuffer. The channel is closed as soon as the file is
+ * mapped, and the mapping itself is released as soon as a section has
+ * been read to the end (or rejected), instead of whenever the GC gets to
+ * it - an open mapping would stop the next write() from renaming a new
+ * snapshot over this one on Windows.
+ *
+ * Each section remembers the length and last-modified time of the .txt and
+ * .log file it was built from, and the log's generation (see ChangeLog).
+ * If any of them has changed the section is stale and FileManager reads
+ * the text files instead (and rebuilds the snapshot). Timestamps alone
+ * are not enough: a rewrite with the same length in the same timestamp
+ * tick would go unnoticed, but it always bumps the generation.
+ *
+ * Layout (numbers are unsigned varints unless noted):
+ *   int MAGIC, int VERSION, sectionCount
+ *   per section: name, txtLength, txtModified, logLength, logModified,
+ *                logGeneration, int offset
+ *   at offset:   stringCount, strings (byteLength + UTF-8 bytes),
+ *                recordCount, per record: fieldCount, field string IDs
+ *
+ * Turn it off with -Dafs.snapshot=false.
+ */
+public class BinarySnapshot {
+
+    private static final String SNAPSHOT_FILE = "data/snapshot.bin";
+    private static final int MAGIC = 0x41465331;   // "AFS1"
+    private static final int VERSION = 2;
+    private static final int STAMP_SIZE = 5;
+
+    private static final boolean ENABLED =
+            !"false".equalsIgnoreCase(System.getProperty("afs.snapshot", "true"));
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // ======================================================
+    // WRITING
+    // ======================================================
+
+    /**
+     * Rebuild the snapshot from the text files behind these change logs.
+     * Written to a temp file first and then moved into place, so readers
+     * never see a half-written snapshot.
+     */
+    public static void write(List<ChangeLog> logs) {
+        if (!ENABLED) return;
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        List<byte[]> names = new ArrayList<>();
+        List<long[]> stamps = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+
+        FieldCursor cursor = new FieldCursor();
+        for (ChangeLog log : logs) {
+            List<String> lines;
+            long[] stamp;
+            // hold the log's lock so no change slips in between stamping and reading;
+            // anything queued after the flush makes the section stale, which is safe
+            log.flush();
+            synchronized (log) {
+                stamp = stampOf(log);
+                lines = log.readAllLocked();
+            }
+
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> table = new ArrayList<>();
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            writeVarint(records, lines.size());
+            for (String line : lines) {
+                cursor.reset(line, '|', true);
+                writeVarint(records, cursor.count());
+                for (int i = 0; i < cursor.count(); i++) {
+                    String field = cursor.string(i);
+                    Integer id = ids.get(field);
+                    if (id == null) {
+                        id = table.size();
+                        ids.put(field, id);
+                        table.add(field);
+                    }
+                    writeVarint(records, id);
+                }
+            }
+
+            offsets.add(body.size());
+            writeVarint(body, table.size());
+            for (String s : table) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                writeVarint(body, bytes.length);
+                body.write(bytes, 0, bytes.length);
+            }
+            body.write(records.toByteArray(), 0, records.size());
+
+            names.add(log.getSnapshotFile().getBytes(StandardCharsets.UTF_8));
+            stamps.add(stamp);
+        }
+
+        // header: offsets are relative to the end of the header
+        try {
+            DataOutputStream out = new DataOutputStream(header);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeVarint(header, names.size());
+            for (int i = 0; i < names.size(); i++) {
+                writeVarint(header, names.get(i).length);
+                header.write(names.get(i));
+                for (long v : stamps.get(i)) writeVarint(header, v);
+                out.writeInt(offsets.get(i));
+            }
+            out.flush();
+
+            DurableFiles.replace(SNAPSHOT_FILE, os -> {
+                header.writeTo(os);
+                body.writeTo(os);
+            });
+        } catch (IOException e) {
+            System.err.println("Error writing " + SNAPSHOT_FILE + ": " + e.getMessage());
+        }
+    }
+
+    // ======================================================
+    // READING
+    // ======================================================
+
+    /**
+     * Open the snapshot section for this change log, or return null when the
+     * snapshot is missing, switched off, damaged or older than the text files
+     */
+    public static Section open(ChangeLog log) {
+        if (!ENABLED) return null;
+        File file = new File(SNAPSHOT_FILE);
+        if (!file.exists()) return null;
+
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+
+        // from here on only the mapping is open: handed to the Section, or released
+        Section section = null;
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+
+            byte[] wanted = log.getSnapshotFile().getBytes(StandardCharsets.UTF_8);
+            int sections = readVarint(buf);
+            int found = -1;
+            long[] stamp = new long[STAMP_SIZE];
+            for (int i = 0; i < sections; i++) {
+                int nameLength = readVarint(buf);
+                boolean match = nameLength == wanted.length;
+                for (int b = 0; b < nameLength; b++) {
+                    byte c = buf.get();
+                    if (match && c != wanted[b]) match = false;
+                }
+                for (int k = 0; k < STAMP_SIZE; k++) stamp[k] = readVarlong(buf);
+                int offset = buf.getInt();
+                if (match) {
+                    if (!Arrays.equals(stamp, stampOf(log))) return null; // stale
+                    found = offset;
+                }
+            }
+            if (found < 0) return null;
+
+            buf.position(buf.position() + found);
+            section = new Section(buf);
+            return section;
+        } catch (RuntimeException e) {
+            // Damaged snapshot - the text files are the source of truth
+            return null;
+        } finally {
+            if (section == null) unmap(buf);
+        }
+    }
+
+    /**
+     * One section of the snapshot: the string table plus a reader over the
+     * records. next() fills a FieldCursor with the next record's fields.
+     */
+    public static class Section {
+        private MappedByteBuffer buf;   // null once released
+        private final String[] table;
+        private int remaining;
+        private int[] ids = new int[16];
+
+        private Section(MappedByteBuffer buf) {
+            this.buf = buf;
+            int count = readVarint(buf);
+            table = new String[count];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int length = readVarint(buf);
+                if (bytes.length < length) bytes = new byte[Math.max(length, bytes.length * 2)];
+                buf.get(bytes, 0, length);
+                table[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            remaining = readVarint(buf);
+
+            // walk the records once so a damaged file is rejected here,
+            // not half way through loading
+            int start = buf.position();
+            for (int r = 0; r < remaining; r++) {
+                int fields = readVarint(buf);
+                for (int i = 0; i < fields; i++) {
+                    if (readVarint(buf) >= table.length) {
+                        throw new IllegalStateException("Bad string ID in " + SNAPSHOT_FILE);
+                    }
+                }
+            }
+            buf.position(start);
+        }
+
+        public int size() {
+            return remaining;
+        }
+
+        /**
+         * Fill the cursor with the next record. The mapping is released
+         * when there are no more (the cursor keeps decoded strings only).
+         */
+        public boolean next(FieldCursor cursor) {
+            if (remaining == 0) {
+                close();
+                return false;
+            }
+            remaining--;
+            int fields = readVarint(buf);
+            if (ids.length < fields) ids = new int[Math.max(fields, ids.length * 2)];
+            for (int i = 0; i < fields; i++) ids[i] = readVarint(buf);
+            cursor.reset(table, ids, fields);
+            return true;
+        }
+
+        /**
+         * Release the mapping now (done by next() at the end anyway)
+         */
+        public void close() {
+            if (buf == null) return;
+            remaining = 0;
+            unmap(buf);
+            buf = null;
+        }
+    }
+
+    // ======================================================
+    // HELPERS
+    // ======================================================
+
+    /**
+     * Length and last-modified time of the .txt and .log file behind a
+     * change log, and the log's generation
+     */
+    private static long[] stampOf(ChangeLog log) {
+        File txt = new File(log.getSnapshotFile());
+        File lg = new File(log.getLogFile());
+        return new long[] { txt.length(), txt.lastModified(), lg.length(), lg.lastModified(), log.getGeneration() };
+    }
+
+    // Unsafe.invokeCleaner(ByteBuffer), looked up once; null where it is not available
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    static {
+        Object unsafe = null;
+        Method cleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            cleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // older or locked-down JVM: mappings are released by the GC instead
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = cleaner;
+    }
+
+    /**
+     * Release a mapping straight away. The buffer must not be used afterwards.
+     */
+    private static void unmap(MappedByteBuffer buf) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buf);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // left to the GC
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static int readVarint(ByteBuffer buf) {
+        return (int) readVarlong(buf);
+    }
+
+    private static long readVarlong(ByteBuffer buf) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
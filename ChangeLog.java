@@ -0,0 +1,291 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * ChangeLog class - append-only change log sitting next to one data file
+ *
+ * The data file (e.g. users.txt) is the snapshot. Every insert, update or
+ * delete is written as one short line at the end of a ".log" file instead of
+ * rewriting the whole snapshot:
+ *   U|<serialized record>   (insert or update, keyed by the record's ID)
+ *   D|<record ID>           (delete)
+ *   G|<generation>          (first line after the log was emptied)
+ *
+ * The generation goes up every time the log is emptied, which is also
+ * every time the snapshot is rewritten. Appends only ever make the log
+ * longer, so the log's length plus its generation line change whenever
+ * the data changes, even within one file timestamp tick (BinarySnapshot
+ * relies on this to tell whether it is stale).
+ *
+ * Loading reads the snapshot and then replays the log on top of it. Once the
+ * log has grown past COMPACT_THRESHOLD entries the merged records are written
+ * back as a fresh snapshot and the log is emptied.
+ *
+ * With a PersistenceWriter, put/remove only queue the line and the writer
+ * thread appends it later (see PersistenceWriter). Everything that reads or
+ * replaces the files flushes the writer first, so queued lines are never
+ * missed or written on top of a newer snapshot. Methods ending in "Locked"
+ * expect the caller to hold this log's monitor; the writer thread takes that
+ * monitor to append, so nobody may wait for the writer while holding it.
+ */
+public class ChangeLog {
+
+    private static final int COMPACT_THRESHOLD = 500;   // log entries before a snapshot rewrite
+
+    private static final String OP_UPDATE = "U";
+    private static final String OP_DELETE = "D";
+    private static final String OP_GENERATION = "G";
+
+    private final String snapshotFile;  // e.g. data/users.txt
+    private final String logFile;       // e.g. data/users.log
+    private final int keyField;         // which "|" field holds the record ID
+    private final PersistenceWriter writer;  // null = append on the caller's thread
+    private int pendingEntries;         // change lines currently in the log file
+    private volatile long generation;   // bumped whenever the log is emptied
+    private volatile long rewrites;     // bumped by rewrite() and clearLog(), which replace all queued changes
+
+    public ChangeLog(String snapshotFile, int keyField) {
+        this(snapshotFile, keyField, null);
+    }
+
+    public ChangeLog(String snapshotFile, int keyField, PersistenceWriter writer) {
+        this.snapshotFile = snapshotFile;
+        this.logFile = snapshotFile.replaceAll("\\.txt$", "") + ".log";
+        this.keyField = keyField;
+        this.writer = writer;
+        scanLog();
+    }
+
+    /**
+     * Record an insert or update of one record
+     */
+    public void put(String record) {
+        append(keyOf(record), OP_UPDATE + "|" + record);
+    }
+
+    /**
+     * Record the deletion of the record with this ID
+     */
+    public void remove(String id) {
+        append(id, OP_DELETE + "|" + id);
+    }
+
+    /**
+     * Wait until every change queued for the writer thread is in the log file.
+     * Returns false if some could not be written (see PersistenceWriter.flush).
+     */
+    public boolean flush() {
+        return writer == null || writer.flush();
+    }
+
+    /**
+     * Read the snapshot and replay the log on top of it.
+     * Records keep their snapshot order; new records go to the end.
+     */
+    public List<String> readAll() {
+        flush();
+        synchronized (this) {
+            return readAllLocked();
+        }
+    }
+
+    /**
+     * readAll() without flushing the writer (caller holds this log's monitor)
+     */
+    List<String> readAllLocked() {
+        Map<String, String> records = new LinkedHashMap<>();
+        List<String> unkeyed = new ArrayList<>();   // lines we cannot key are kept as they are
+
+        try (BufferedReader br = new BufferedReader(new FileReader(snapshotFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String key = keyOf(line);
+                if (key == null) unkeyed.add(line);
+                else records.put(key, line);
+            }
+        } catch (FileNotFoundException e) {
+            // No snapshot yet
+        } catch (IOException e) {
+            System.err.println("Error reading " + snapshotFile + ": " + e.getMessage());
+        }
+
+        int entries = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                entries++;
+                if (line.startsWith(OP_UPDATE + "|")) {
+                    String record = line.substring(2);
+                    String key = keyOf(record);
+                    if (key != null) records.put(key, record);
+                } else if (line.startsWith(OP_DELETE + "|")) {
+                    records.remove(line.substring(2));
+                } else if (line.startsWith(OP_GENERATION + "|")) {
+                    entries--;   // a marker, not a change
+                }
+                // anything else is a torn write from a crash - skip it
+            }
+        } catch (FileNotFoundException e) {
+            // No log yet
+        } catch (IOException e) {
+            System.err.println("Error reading " + logFile + ": " + e.getMessage());
+        }
+        pendingEntries = entries;
+
+        List<String> result = new ArrayList<>(unkeyed);
+        result.addAll(records.values());
+        return result;
+    }
+
+    /**
+     * Overwrite the snapshot with these records and empty the log
+     */
+    public void rewrite(List<String> records) {
+        flush();   // older queued changes must not land on top of the new snapshot
+        synchronized (this) {
+            rewrites++;   // changes that failed to write are in records; appending them later would undo newer ones
+            rewriteLocked(records);
+        }
+    }
+
+    private void rewriteLocked(List<String> records) {
+        try {
+            DurableFiles.replace(snapshotFile, records);   // temp file + rename, never truncated in place
+        } catch (IOException e) {
+            System.err.println("Error writing " + snapshotFile + ": " + e.getMessage());
+            return; // keep the log, it still holds the changes
+        }
+        clearLogLocked();
+    }
+
+    /**
+     * Fold the log into the snapshot now
+     */
+    public void compact() {
+        flush();
+        synchronized (this) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() {
+        if (pendingEntries == 0) return;
+        rewriteLocked(readAllLocked());
+    }
+
+    /**
+     * Empty the log file (the snapshot is left alone)
+     */
+    public void clearLog() {
+        flush();
+        synchronized (this) {
+            rewrites++;
+            clearLogLocked();
+        }
+    }
+
+    private void clearLogLocked() {
+        long next = generation + 1;
+        try {
+            DurableFiles.replace(logFile, Collections.singletonList(OP_GENERATION + "|" + next));
+            pendingEntries = 0;
+            generation = next;
+        } catch (IOException e) {
+            System.err.println("Error clearing " + logFile + ": " + e.getMessage());
+        }
+    }
+
+    public synchronized int getPendingEntries() {
+        return pendingEntries;
+    }
+
+    /**
+     * Number written at the top of the log when it was last emptied
+     * (0 if it never was)
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Number of full rewrites (rewrite() or clearLog()) so far; a change made
+     * before one of them is never appended after it
+     */
+    public long getRewrites() {
+        return rewrites;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    private void append(String key, String line) {
+        if (writer != null) {
+            writer.submit(this, key, line);
+            return;
+        }
+        try {
+            appendBatch(Collections.singletonList(line), rewrites);
+        } catch (IOException e) {
+            System.err.println("Error appending to " + logFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Append these lines with one open/write/close of the log file
+     * (called by the writer thread, or directly when there is no writer).
+     * In durable mode this is also one fsync per batch, not one per change.
+     * Lines made before the last rewrite (rewriteCount out of date) are
+     * skipped: the rewritten snapshot already holds their changes. Throws if
+     * the lines could not be written, so the caller can keep them.
+     */
+    synchronized void appendBatch(List<String> lines, long rewriteCount) throws IOException {
+        if (rewriteCount != rewrites) return;
+        DurableFiles.append(logFile, lines);
+        pendingEntries += lines.size();
+        if (pendingEntries >= COMPACT_THRESHOLD) {
+            compactLocked();
+        }
+    }
+
+    /**
+     * Get the ID field of a serialized record, or null if the line is too short
+     */
+    private String keyOf(String record) {
+        int start = 0;
+        for (int i = 0; i < keyField; i++) {
+            start = record.indexOf('|', start);
+            if (start < 0) return null;
+            start++;
+        }
+        int end = record.indexOf('|', start);
+        String key = end < 0 ? record.substring(start) : record.substring(start, end);
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * Count the change lines in the log and read its generation
+     */
+    private void scanLog() {
+        int count = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(OP_GENERATION + "|")) {
+                    try {
+                        generation = Long.parseLong(line.substring(2).trim());
+                    } catch (NumberFormatException ignored) {}
+                } else {
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            // Missing log means nothing pending
+        }
+        pendingEntries = count;
+    }
+}
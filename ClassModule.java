@@ -48,13 +48,16 @@ public class ClassModule implements Serializable {
         this.enrolledStudents = new ArrayList<>();
     }
     
-    public void enrollStudent(Student student) {
+    /**
+     * Add a student if there is room. Returns false when the class is full.
+     * Use SystemManager.enrollStudent so the enrolment index stays in step.
+     */
+    public boolean enrollStudent(Student student) {
         if (enrolledStudents.size() < capacity) {
             enrolledStudents.add(student);
-            
-        } else {
-            
+            return true;
         }
+        return false;
     }
     
     public String getClassID() { return classID; }
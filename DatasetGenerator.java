@@ -0,0 +1,365 @@
+import java.util.*;
+
+/**
+ * DatasetGenerator class - fills data/ with a large, realistic-looking
+ * dataset for load testing, benchmarks and tests
+ *
+ * Everything is written through FileManager.saveAll*, so the files are in
+ * exactly the format the app reads. The same size and seed always give the
+ * same files (dates are based on a fixed start date, not on today).
+ *
+ * Shape for N users:
+ *   - roles: ~88% students, ~9% lecturers, ~2% admin staff, ~1% academic
+ *     leaders; ~2% of accounts waiting for approval, ~1% deactivated
+ *   - one module per 150 users (at least 8), spread over 4 departments;
+ *     each lecturer teaches 1-3 modules of their department
+ *   - classes sized around 35 students (normal, 5 to capacity), enough of
+ *     them for every student to take about 4 classes
+ *   - 2-4 assessments per class; most are graded, with marks built from
+ *     assessment difficulty + student ability + noise, in half marks
+ *   - feedback on ~15% of marks, 1-5 sentences long
+ *   - a handful of announcements and the default grading system
+ *
+ * Usage (run from the folder whose data/ should be replaced):
+ *   java DatasetGenerator [users] [seed]      defaults: 1000 42
+ */
+public class DatasetGenerator {
+
+    private static final long START_MILLIS = 1767571200000L;   // 5 Jan 2026, start of the generated semester
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final String[] DEPARTMENTS = { "IT", "Engineering", "Business", "Design" };
+    private static final String[] FIRST_NAMES = {
+        "Aiden", "Aisha", "Amir", "Chen", "Daniel", "Farah", "Hafiz", "Isabel", "Jia Hui", "Kumar",
+        "Lina", "Mei Ling", "Muhammad", "Nur", "Priya", "Rahul", "Sarah", "Siti", "Wei Jie", "Zara"
+    };
+    private static final String[] LAST_NAMES = {
+        "Abdullah", "Chan", "Fernandez", "Goh", "Hassan", "Ibrahim", "Lee", "Lim", "Nair", "Ng",
+        "Ong", "Rahman", "Raj", "Tan", "Teo", "Wong", "Yap", "Yusof"
+    };
+    private static final String[] SUBJECTS = {
+        "Programming", "Databases", "Networks", "Statistics", "Software Engineering", "Operating Systems",
+        "Web Development", "Data Structures", "Digital Marketing", "Accounting", "Circuit Analysis",
+        "Mechanics", "User Experience", "Graphic Design", "Project Management", "Cyber Security"
+    };
+    private static final String[] LEVELS = { "Introduction to", "Fundamentals of", "Applied", "Advanced" };
+    private static final String[] DAYS = { "Monday", "Tuesday", "Wednesday", "Thursday", "Friday" };
+    private static final String[] TIMES = { "08:30", "10:45", "13:00", "15:15", "17:30" };
+    private static final int[] CAPACITIES = { 30, 40, 50, 60 };
+
+    // type, share of assessments (in percent), weightage, total marks
+    private static final AssessmentType.Type[] TYPES = {
+        AssessmentType.Type.ASSIGNMENT, AssessmentType.Type.CLASS_TEST, AssessmentType.Type.QUIZ,
+        AssessmentType.Type.PROJECT, AssessmentType.Type.PRESENTATION, AssessmentType.Type.FINAL_EXAM
+    };
+    private static final int[] TYPE_SHARE = { 35, 20, 15, 10, 10, 10 };
+    private static final double[] TYPE_WEIGHT = { 20, 15, 5, 30, 10, 40 };
+    private static final double[] TYPE_MARKS = { 100, 50, 20, 100, 30, 100 };
+
+    private static final String[] FEEDBACK_SENTENCES = {
+        "You showed a good understanding of the main concepts.",
+        "Some logical errors affected the functionality of the solution.",
+        "The report was well structured and easy to follow.",
+        "More explanation of your design decisions would improve the work.",
+        "Practise debugging techniques before the next submission.",
+        "Referencing needs to follow the APA format more closely.",
+        "The presentation was confident and well timed.",
+        "Test cases should cover the edge cases as well.",
+        "Good use of diagrams to support the explanation.",
+        "Please review the lecture notes on this topic again.",
+        "Excellent effort, keep it up.",
+        "The conclusion does not fully answer the question."
+    };
+    private static final String[] REPLIES = {
+        "Thank you for the feedback, I will work on it.",
+        "Noted, thank you.",
+        "Could we discuss this during consultation hours?"
+    };
+
+    private final Random random;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Student> students = new ArrayList<>();
+    private final List<Lecturer> lecturers = new ArrayList<>();
+    private final List<AcademicLeader> leaders = new ArrayList<>();
+    private final List<AdminStaff> admins = new ArrayList<>();
+    private final List<Module> modules = new ArrayList<>();
+    private final List<ClassModule> classes = new ArrayList<>();
+    private final List<Assessment> assessments = new ArrayList<>();
+    private final List<Feedback> feedback = new ArrayList<>();
+    private final List<Announcement> announcements = new ArrayList<>();
+    private final Map<String, Double> ability = new HashMap<>();   // studentID -> offset in percent
+    private int staffCount;
+
+    public DatasetGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        DatasetGenerator generator = new DatasetGenerator(seed);
+        generator.generate(size);
+        generator.write();
+        System.out.println(generator.summary());
+    }
+
+    /**
+     * Build a dataset of roughly this many users (in memory, nothing is written yet)
+     */
+    public DatasetGenerator generate(int userCount) {
+        int leaderCount = Math.max(1, userCount / 100);
+        int adminCount = Math.max(1, userCount / 50);
+        int lecturerCount = Math.max(2, userCount * 9 / 100);
+        int studentCount = Math.max(1, userCount - leaderCount - adminCount - lecturerCount);
+
+        for (int i = 1; i <= leaderCount; i++) addLeader(i);
+        for (int i = 1; i <= adminCount; i++) addAdmin(i);
+        for (int i = 1; i <= Math.max(8, userCount / 150); i++) addModule(i);
+        for (int i = 1; i <= lecturerCount; i++) addLecturer(i);
+        for (int i = 1; i <= studentCount; i++) addStudent(i);
+
+        // about 4 classes per student at an average of 35 students per class
+        int classCount = Math.max(1, studentCount * 4 / 35);
+        for (int i = 1; i <= classCount; i++) addClass(i);
+
+        for (int i = 1; i <= Math.max(3, userCount / 500); i++) addAnnouncement(i);
+        return this;
+    }
+
+    /**
+     * Replace the files in data/ with the generated dataset
+     */
+    public void write() {
+        FileManager.clearAllData();
+        FileManager.saveAllUsers(users);
+        FileManager.saveAllModules(modules);
+        FileManager.saveAllClasses(classes);
+        FileManager.saveAllAssessments(assessments);
+        FileManager.saveAllFeedback(feedback);
+        FileManager.saveAllAnnouncements(announcements);
+        FileManager.saveGradingSystem(new GradingSystem("GS001", "APU Grading System", 60));
+    }
+
+    public String summary() {
+        int marks = 0;
+        for (Assessment a : assessments) marks += a.getMarkedCount();
+        return "users=" + users.size() + " (students=" + students.size() + ", lecturers=" + lecturers.size()
+                + ", admins=" + admins.size() + ", leaders=" + leaders.size() + ")"
+                + " modules=" + modules.size() + " classes=" + classes.size()
+                + " assessments=" + assessments.size() + " marks=" + marks
+                + " feedback=" + feedback.size() + " announcements=" + announcements.size();
+    }
+
+    public List<User> getUsers() { return users; }
+    public List<Module> getModules() { return modules; }
+    public List<ClassModule> getClasses() { return classes; }
+    public List<Assessment> getAssessments() { return assessments; }
+    public List<Feedback> getFeedback() { return feedback; }
+    public List<Announcement> getAnnouncements() { return announcements; }
+
+    // ======================================================
+    // USERS
+    // ======================================================
+
+    private void addLeader(int n) {
+        String name = randomName();
+        String department = DEPARTMENTS[(n - 1) % DEPARTMENTS.length];
+        AcademicLeader leader = new AcademicLeader(id("ACL", n), username(name, n), password(), email(name, n, "apu.edu.my"),
+                name.toUpperCase(), phone(), department, id("ACL", n));
+        leader.setStaffID(id("STF", ++staffCount));
+        finishUser(leader, 30, 60);
+        leaders.add(leader);
+    }
+
+    private void addAdmin(int n) {
+        String name = randomName();
+        AdminStaff admin = new AdminStaff(id("ADM", n), username(name, n), password(), email(name, n, "apu.edu.my"),
+                name.toUpperCase(), phone(), "Administration", id("STF", ++staffCount));
+        finishUser(admin, 25, 60);
+        admins.add(admin);
+    }
+
+    private void addLecturer(int n) {
+        String name = randomName();
+        String department = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+        Lecturer lecturer = new Lecturer(id("LEC", n), username(name, n), password(), email(name, n, "mail.apu.edu.my"),
+                name.toUpperCase(), phone(), id("LEC", n), department);
+        lecturer.setStaffID(id("STF", ++staffCount));
+
+        AcademicLeader leader = pick(leadersIn(department), leaders);
+        lecturer.setAcademicLeaderID(random.nextInt(10) == 0 ? null : leader.getUserID());
+
+        List<Module> own = modulesIn(department);
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            Module m = pick(own, modules);
+            if (!lecturer.getAssignedModules().contains(m)) lecturer.getAssignedModules().add(m);
+        }
+        finishUser(lecturer, 27, 65);
+        lecturers.add(lecturer);
+    }
+
+    private void addStudent(int n) {
+        String name = randomName();
+        Student student = new Student(id("STU", n), username(name, n), password(), email(name, n, "mail.apu.edu.my"),
+                name.toUpperCase(), phone(), id("STU", n), String.valueOf(2022 + random.nextInt(5)));
+        finishUser(student, 18, 26);
+        students.add(student);
+        ability.put(student.getStudentID(), random.nextGaussian() * 10);
+    }
+
+    private void finishUser(User u, int minAge, int maxAge) {
+        u.setGender(random.nextBoolean() ? "Male" : "Female");
+        u.setAge(minAge + random.nextInt(maxAge - minAge + 1));
+        int status = random.nextInt(100);
+        u.setApproved(status >= 2);       // ~2% still pending
+        u.setActive(status != 2);         // ~1% deactivated
+        users.add(u);
+    }
+
+    // ======================================================
+    // MODULES, CLASSES, ASSESSMENTS
+    // ======================================================
+
+    private void addModule(int n) {
+        String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+        String level = LEVELS[random.nextInt(LEVELS.length)];
+        String code = initials(subject) + String.format("%03d", n);
+        int credits = random.nextInt(10) < 7 ? 3 : (random.nextBoolean() ? 2 : 4);
+        modules.add(new Module(id("MD", n), level + " " + subject, code, "No description", credits,
+                DEPARTMENTS[(n - 1) % DEPARTMENTS.length]));
+    }
+
+    private void addClass(int n) {
+        Lecturer lecturer = lecturers.get(random.nextInt(lecturers.size()));
+        Module module = lecturer.getAssignedModules().isEmpty()
+                ? modules.get(random.nextInt(modules.size()))
+                : lecturer.getAssignedModules().get(random.nextInt(lecturer.getAssignedModules().size()));
+        int capacity = CAPACITIES[random.nextInt(CAPACITIES.length)];
+        ClassModule cls = new ClassModule(id("CL", n), random.nextBoolean() ? "Lecture" : "Lab", module.getModuleID(),
+                capacity, DAYS[random.nextInt(DAYS.length)], TIMES[random.nextInt(TIMES.length)],
+                "Room " + (1 + random.nextInt(8)) + "-" + String.format("%02d", 1 + random.nextInt(20)), lecturer);
+        cls.setModule(module);
+
+        int size = (int) Math.round(35 + random.nextGaussian() * 10);
+        size = Math.max(5, Math.min(Math.min(capacity, students.size()), size));
+        Set<Integer> chosen = new LinkedHashSet<>();
+        while (chosen.size() < size) chosen.add(random.nextInt(students.size()));
+        for (int index : chosen) cls.enrollStudent(students.get(index));
+        classes.add(cls);
+
+        int count = 2 + random.nextInt(3);
+        for (int i = 0; i < count; i++) addAssessment(cls, module, lecturer);
+    }
+
+    private void addAssessment(ClassModule cls, Module module, Lecturer lecturer) {
+        int t = pickType();
+        AssessmentType type = new AssessmentType("AT" + (t + 1), TYPES[t], TYPE_WEIGHT[t], TYPE_MARKS[t]);
+        long created = START_MILLIS + random.nextInt(60) * DAY_MILLIS;
+        Date due = new Date(created + (7 + random.nextInt(28)) * DAY_MILLIS);
+        Assessment a = new Assessment(id("ASM", assessments.size() + 1), module.getModuleCode() + " " + type.getTypeName(),
+                type, module, lecturer, cls.getClassID(), due);
+        a.setCreatedDate(new Date(created));
+        assessments.add(a);
+
+        if (random.nextInt(5) == 0) return;   // ~20% not graded yet
+
+        double difficulty = 65 + random.nextGaussian() * 8;   // class average in percent
+        for (Student s : cls.getEnrolledStudents()) {
+            if (random.nextInt(10) == 0) continue;           // ~10% not marked (absent, late...)
+            double percent = difficulty + ability.get(s.getStudentID()) + random.nextGaussian() * 8;
+            double mark = Math.round(Math.max(0, Math.min(100, percent)) * TYPE_MARKS[t] / 50) / 2.0;
+            a.addStudentMark(s.getStudentID(), mark);
+
+            if (random.nextInt(100) < 15) addFeedback(a, s, lecturer, mark, due);
+        }
+    }
+
+    private void addFeedback(Assessment a, Student s, Lecturer lecturer, double mark, Date due) {
+        int sentences = 1 + Math.min(4, (int) Math.abs(random.nextGaussian() * 2));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) text.append(' ');
+            text.append(FEEDBACK_SENTENCES[random.nextInt(FEEDBACK_SENTENCES.length)]);
+        }
+        Feedback f = new Feedback(id("FB", feedback.size() + 1), a.getAssessmentID(), s.getStudentID(),
+                lecturer.getUserID(), text.toString(), mark);
+        f.setFeedbackDate(new Date(due.getTime() + (1 + random.nextInt(14)) * DAY_MILLIS));
+        if (random.nextInt(10) < 7) f.setDelivered(true);
+        if (f.isDelivered() && random.nextInt(5) == 0) f.setComments(REPLIES[random.nextInt(REPLIES.length)]);
+        feedback.add(f);
+    }
+
+    private void addAnnouncement(int n) {
+        String[] targets = { "ALL", "STUDENT", "LECTURER" };
+        User sender = random.nextBoolean() ? admins.get(random.nextInt(admins.size()))
+                                           : leaders.get(random.nextInt(leaders.size()));
+        Announcement ann = new Announcement(id("ANN", n), "Notice " + n,
+                "Please check the updated schedule for week " + (1 + random.nextInt(14)) + ".",
+                sender.getUserID(), targets[random.nextInt(targets.length)]);
+        ann.setCreatedDate(new Date(START_MILLIS + random.nextInt(100) * DAY_MILLIS));
+        announcements.add(ann);
+    }
+
+    // ======================================================
+    // HELPERS
+    // ======================================================
+
+    private static String id(String prefix, int n) {
+        return String.format("%s%03d", prefix, n);
+    }
+
+    private String randomName() {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    // the number keeps usernames and emails unique within a role
+    private static String username(String name, int n) {
+        return name.replace(" ", "") + n;
+    }
+
+    private static String email(String name, int n, String domain) {
+        return name.toLowerCase().replace(" ", ".") + n + "@" + domain;
+    }
+
+    private String password() {
+        return "pw" + (100000 + random.nextInt(900000));
+    }
+
+    private String phone() {
+        return "01" + (10000000 + random.nextInt(90000000));
+    }
+
+    private static String initials(String words) {
+        StringBuilder sb = new StringBuilder();
+        for (String w : words.split(" ")) sb.append(Character.toUpperCase(w.charAt(0)));
+        return sb.toString();
+    }
+
+    private int pickType() {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < TYPE_SHARE.length; i++) {
+            roll -= TYPE_SHARE[i];
+            if (roll < 0) return i;
+        }
+        return 0;
+    }
+
+    private <T> T pick(List<T> preferred, List<T> fallback) {
+        List<T> from = preferred.isEmpty() ? fallback : preferred;
+        return from.get(random.nextInt(from.size()));
+    }
+
+    private List<AcademicLeader> leadersIn(String department) {
+        List<AcademicLeader> result = new ArrayList<>();
+        for (AcademicLeader l : leaders) if (department.equals(l.getDepartment())) result.add(l);
+        return result;
+    }
+
+    private List<Module> modulesIn(String department) {
+        List<Module> result = new ArrayList<>();
+        for (Module m : modules) if (department.equals(m.getDepartment())) result.add(m);
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * DurableFiles class - crash-safe replacement and appending of data files
+ *
+ * replace() never opens the real file for writing. It writes the new
+ * contents to "<file>.tmp", forces them to disk and then renames the temp
+ * file over the original. A crash part way through leaves either the old
+ * file or the new one, never a truncated one. A stray .tmp file left by a
+ * crash is simply overwritten next time.
+ *
+ * append() adds lines to the end of a file (used for the change logs) and,
+ * in durable mode, forces them to disk before returning.
+ *
+ * Durable mode (the default) calls FileChannel.force() after every write and
+ * also syncs the directory after a rename, so a save that has returned
+ * survives a power cut. With -Dafs.durable=false the temp file and rename
+ * are kept (still no torn files if the program dies) but nothing is forced,
+ * so the last few saves may be lost if the whole machine goes down.
+ * bench/AfsBenchmarks has durable.* benchmarks comparing the two modes.
+ */
+public class DurableFiles {
+
+    private static volatile boolean durable =
+            !"false".equalsIgnoreCase(System.getProperty("afs.durable", "true"));
+
+    /** Writes the new contents of a file */
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public static boolean isDurable() {
+        return durable;
+    }
+
+    /**
+     * Switch between durable and non-durable mode at runtime (the benchmarks
+     * use this; normally the -Dafs.durable setting is left alone)
+     */
+    public static void setDurable(boolean value) {
+        durable = value;
+    }
+
+    /**
+     * Replace a text file with these lines, one per line, in the same
+     * encoding and line separator FileWriter/BufferedWriter used before
+     */
+    public static void replace(String file, Iterable<String> lines) throws IOException {
+        replace(file, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+            for (String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+        });
+    }
+
+    /**
+     * Replace a file with whatever body writes: temp file, force, atomic rename
+     */
+    public static void replace(String file, Body body) throws IOException {
+        Path target = Paths.get(file);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        boolean force = durable;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            body.writeTo(out);
+            out.flush();   // not closed here: closing it would close the channel before force()
+            if (force) channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (force) syncDirectory(target);
+    }
+
+    /**
+     * Append these lines to a file (created if missing)
+     */
+    public static void append(String file, List<String> lines) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), Charset.defaultCharset()));
+            for (String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+            if (durable) channel.force(false);   // contents and length; timestamps can wait
+        }
+    }
+
+    /**
+     * Make the rename itself durable by syncing the directory entry.
+     * Not every platform can open a directory (Windows cannot), and there
+     * the rename is already as durable as it gets, so failures are ignored.
+     */
+    private static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir == null) return;
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported here
+        }
+    }
+}
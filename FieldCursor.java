@@ -0,0 +1,253 @@
+/**
+ * FieldCursor class - reads the fields of one delimited line ("a|b|c")
+ * without String.split
+ *
+ * reset() copies the line into a reusable char buffer, scans it once and
+ * remembers where each field starts and ends. Fields are then read by index: numbers and booleans are parsed
+ * straight from the characters, and a String is only created when the
+ * caller really needs one. A cursor is reused for every line of a file,
+ * so parsing does not create arrays or substrings per line.
+ *
+ * A second cursor can walk a sub-list inside one field, e.g. the marks
+ * field "STU001=40.0,STU002=55.5" with ',' and then '='.
+ *
+ * A cursor can also be filled from a binary snapshot record (fields given
+ * as string table entries); string() then returns the shared table string.
+ *
+ * Not thread-safe - use one cursor per loading thread.
+ */
+public class FieldCursor {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private char[] own = new char[256];   // buffer for lines given to reset(String...)
+    private char[] buf = own;             // buffer being read (own, or a parent cursor's)
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+    private String[] table;   // set when filled from a snapshot string table
+    private int[] tableIDs;
+
+    /**
+     * Point the cursor at a whole line.
+     * keepTrailingEmpty = false behaves like split(regex): empty fields at
+     * the end are dropped. true behaves like split(regex, -1).
+     */
+    public FieldCursor reset(String line, char delimiter, boolean keepTrailingEmpty) {
+        int len = line.length();
+        if (own.length < len) {
+            own = new char[Math.max(len, own.length * 2)];
+        }
+        line.getChars(0, len, own, 0);
+        buf = own;
+        table = null;
+        return split(0, len, delimiter, keepTrailingEmpty);
+    }
+
+    /**
+     * Fill the cursor with fields that are already split, each given as an
+     * index into a string table (used by BinarySnapshot)
+     */
+    public FieldCursor reset(String[] table, int[] ids, int fieldCount) {
+        int len = 0;
+        for (int i = 0; i < fieldCount; i++) len += table[ids[i]].length();
+        if (own.length < len) {
+            own = new char[Math.max(len, own.length * 2)];
+        }
+        buf = own;
+        this.table = table;
+        this.tableIDs = ids;
+        this.count = 0;
+        int pos = 0;
+        for (int i = 0; i < fieldCount; i++) {
+            String field = table[ids[i]];
+            field.getChars(0, field.length(), own, pos);
+            add(pos, pos + field.length());
+            pos += field.length();
+        }
+        return this;
+    }
+
+    /**
+     * Point the cursor at one field of another cursor, e.g. to walk the
+     * comma separated list inside it. Shares the other cursor's buffer, so
+     * it is only valid until that cursor is reset.
+     */
+    public FieldCursor reset(FieldCursor parent, int field, char delimiter, boolean keepTrailingEmpty) {
+        this.buf = parent.buf;
+        this.table = null;
+        return split(parent.starts[field], parent.ends[field], delimiter, keepTrailingEmpty);
+    }
+
+    private FieldCursor split(int from, int to, char delimiter, boolean keepTrailingEmpty) {
+        char[] b = buf;
+        this.count = 0;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            if (b[i] == delimiter) {
+                add(start, i);
+                start = i + 1;
+            }
+        }
+        add(start, to);
+
+        return keepTrailingEmpty ? this : trimTrailingEmpty();
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            starts = java.util.Arrays.copyOf(starts, count * 2);
+            ends = java.util.Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * Drop empty fields at the end, turning split(regex, -1) results into
+     * split(regex) results
+     */
+    public FieldCursor trimTrailingEmpty() {
+        while (count > 0 && starts[count - 1] == ends[count - 1]) count--;
+        return this;
+    }
+
+    // ===== FIELD ACCESS =====
+
+    public int count() { return count; }
+
+    public boolean isEmpty(int field) {
+        return starts[field] == ends[field];
+    }
+
+    public String string(int field) {
+        if (table != null) return table[tableIDs[field]];
+        return new String(buf, starts[field], ends[field] - starts[field]);
+    }
+
+    /**
+     * Field text with the "\n" escapes written by FileManager.safe() turned
+     * back into real newlines
+     */
+    public String unescaped(int field) {
+        int s = starts[field], e = ends[field];
+        int backslash = s;
+        while (backslash < e && buf[backslash] != '\\') backslash++;
+        if (backslash == e) {
+            return string(field);
+        }
+        StringBuilder sb = new StringBuilder(e - s);
+        for (int i = s; i < e; i++) {
+            char c = buf[i];
+            if (c == '\\' && i + 1 < e && buf[i + 1] == 'n') {
+                sb.append('\n');
+                i++;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Same as string(field).equals(text), without creating the string
+     */
+    public boolean equals(int field, String text) {
+        int s = starts[field];
+        int len = ends[field] - s;
+        if (len != text.length()) return false;
+        for (int i = 0; i < len; i++) {
+            if (buf[s + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same result as Boolean.parseBoolean(string(field))
+     */
+    public boolean parseBoolean(int field) {
+        int s = starts[field];
+        return ends[field] - s == 4
+                && (buf[s] | 0x20) == 't' && (buf[s + 1] | 0x20) == 'r'
+                && (buf[s + 2] | 0x20) == 'u' && (buf[s + 3] | 0x20) == 'e';
+    }
+
+    /**
+     * Same result as Integer.parseInt(string(field)), including the
+     * NumberFormatException for bad input
+     */
+    public int parseInt(int field) {
+        long v = parseLong(field);
+        if (v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + string(field) + "\"");
+        }
+        return (int) v;
+    }
+
+    /**
+     * Same result as Long.parseLong(string(field))
+     */
+    public long parseLong(int field) {
+        int i = starts[field], e = ends[field];
+        if (i == e) throw new NumberFormatException("For input string: \"\"");
+        boolean negative = false;
+        char first = buf[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        // 18 digits always fit in a long; anything longer or odd goes the slow way
+        if (i == e || e - i > 18) return Long.parseLong(string(field));
+        long v = 0;
+        for (; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) return Long.parseLong(string(field));
+            v = v * 10 + d;
+        }
+        return negative ? -v : v;
+    }
+
+    /**
+     * Same result as Double.parseDouble(string(field)).
+     * Plain decimals such as "40.0" or "-12.75" are parsed in place; these are
+     * exact because both the digits and the power of ten are exact doubles.
+     * Anything else (exponents, long fractions, NaN...) falls back to
+     * Double.parseDouble.
+     */
+    public double parseDouble(int field) {
+        int i = starts[field], e = ends[field];
+        if (i == e) return Double.parseDouble("");
+        boolean negative = false;
+        char first = buf[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        for (; i < e; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                digitCount++;
+                if (seenDot) fractionDigits++;
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                return Double.parseDouble(string(field));
+            }
+        }
+        // 15 digits stay below 2^53, so the value is exact before dividing
+        if (digitCount == 0 || digitCount > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(string(field));
+        }
+        double v = digits / POWERS_OF_TEN[fractionDigits];
+        return negative ? -v : v;
+    }
+}
@@ -1,4 +1,5 @@
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.*;
 
 /**
@@ -14,6 +15,12 @@ import java.util.*;
  * - classes.txt    (class sections)
  * - assessments.txt (assignments, tests)
  * - feedback.txt   (teacher comments)
+ *
+ * Single-record changes are appended to a matching ".log" file (see ChangeLog)
+ * and folded back into the .txt file from time to time.
+ *
+ * A binary copy of those files (see BinarySnapshot) is read instead of the
+ * text when it is up to date, which makes startup faster.
  */
 public class FileManager {
 
@@ -26,6 +33,21 @@ public class FileManager {
     private static final String FEEDBACK_FILE = "data/feedback.txt"; // Feedback
     private static final String GRADING_FILE = "data/grading.txt";   // Grading system
     private static final String ANNOUNCEMENTS_FILE = "data/announcements.txt"; // Announcements
+    private static final String SEQUENCES_FILE = "data/sequences.txt"; // Last ID number used per prefix
+
+    // Background thread that appends change log lines (group commit), so saves do no I/O on the caller's thread
+    private static final PersistenceWriter WRITER = new PersistenceWriter();
+
+    // Change logs - single-record edits are appended here instead of rewriting the whole file
+    private static final ChangeLog USERS_LOG = new ChangeLog(USERS_FILE, 1, WRITER);        // key = userID
+    private static final ChangeLog MODULES_LOG = new ChangeLog(MODULES_FILE, 0, WRITER);    // key = moduleID
+    private static final ChangeLog CLASSES_LOG = new ChangeLog(CLASSES_FILE, 0, WRITER);    // key = classID
+    private static final ChangeLog ASSESSMENTS_LOG = new ChangeLog(ASSESSMENTS_FILE, 0, WRITER); // key = assessmentID
+    private static final ChangeLog FEEDBACK_LOG = new ChangeLog(FEEDBACK_FILE, 0, WRITER);  // key = feedbackID
+    private static final ChangeLog SEQUENCES_LOG = new ChangeLog(SEQUENCES_FILE, 0, WRITER); // key = ID prefix
+
+    // Set when a load had to read text because data/snapshot.bin was missing or stale
+    private static volatile boolean binarySnapshotStale = false;
 
     // Static block - runs once when class is first loaded
     static {
@@ -37,175 +59,113 @@ public class FileManager {
     }
 
     /**
-     * Save a single user to the users file
-     * Adds the user to the end of the file
+     * Save a single user (new or changed)
+     * Only appends one line to the users change log
      */
     public static void saveUser(User user) {
-        try (FileWriter fw = new FileWriter(USERS_FILE, true);  // "true" = append mode
-             BufferedWriter bw = new BufferedWriter(fw)) {
-
-            // Convert user object to text format and write to file
-            bw.write(serializeUser(user));
-            bw.newLine(); // Add newline after each user
-
-
-        } catch (IOException e) {
+        // Convert user object to text format and log it
+        USERS_LOG.put(serializeUser(user));
+    }
 
-        }
+    /**
+     * Delete a single user by ID (appends a delete entry to the change log)
+     */
+    public static void deleteUser(String userID) {
+        USERS_LOG.remove(userID);
     }
 
     /**
      * Save all users to file (overwrite existing file)
-     * Used when updating or deleting users
+     * Writes a fresh snapshot and empties the change log
      */
     public static void saveAllUsers(List<User> users) {
-        try (FileWriter fw = new FileWriter(USERS_FILE, false); // "false" = overwrite mode
-             BufferedWriter bw = new BufferedWriter(fw)) {
-
-            // Write each user on a separate line
-            for (User user : users) {
-                bw.write(serializeUser(user));
-                bw.newLine();
-            }
-
-
-        } catch (IOException e) {
-
+        List<String> lines = new ArrayList<>();
+        for (User user : users) {
+            lines.add(serializeUser(user));
         }
+        USERS_LOG.rewrite(lines);
     }
     
     /**
-     * Load all users from file
+     * Load all users from file (snapshot + change log)
      */
     public static List<User> loadAllUsers() {
         List<User> users = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(USERS_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                User user = deserializeUser(line);
-                if (user != null) {
-                    users.add(user);
-                }
+        FieldCursor cursor = new FieldCursor();
+        RecordSource records = recordsOf(USERS_LOG);
+        while (records.next(cursor)) {
+            User user = deserializeUser(cursor);
+            if (user != null) {
+                users.add(user);
             }
-        } catch (FileNotFoundException e) {
-
-        } catch (IOException e) {
-
         }
         return users;
     }
     
     /**
-     * Save module to file
+     * Save module (new or changed) to the modules change log
      */
     public static void saveModule(Module module) {
-        try (FileWriter fw = new FileWriter(MODULES_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(serializeModule(module));
-            bw.newLine();
-
-        } catch (IOException e) {
+        MODULES_LOG.put(serializeModule(module));
+    }
 
-        }
+    /**
+     * Delete a single module by ID
+     */
+    public static void deleteModule(String moduleID) {
+        MODULES_LOG.remove(moduleID);
     }
     
     /**
-     * Load all modules from file
+     * Load all modules from file (snapshot + change log)
      */
     public static List<Module> loadAllModules() {
         List<Module> modules = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(MODULES_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                Module module = deserializeModule(line);
-                if (module != null) {
-                    modules.add(module);
-                }
+        FieldCursor cursor = new FieldCursor();
+        RecordSource records = recordsOf(MODULES_LOG);
+        while (records.next(cursor)) {
+            Module module = deserializeModule(cursor);
+            if (module != null) {
+                modules.add(module);
             }
-        } catch (FileNotFoundException e) {
-
-        } catch (IOException e) {
-
         }
         return modules;
     }
 
     /**
-     * Generate next Module ID automatically
-     * Reads all existing modules from file and generates next ID in sequence
-     * Format: MD001, MD002, MD003, etc.
+     * Overwrite and save all modules
      */
-    public static String generateNextModuleID() {
-        List<Module> modules = loadAllModules();
-        
-        if (modules == null || modules.isEmpty()) {
-            return "MD001";
-        }
-        
-        // Find the highest number in existing module IDs
-        int maxNumber = 0;
+    public static void saveAllModules(List<Module> modules) {
+        List<String> lines = new ArrayList<>();
         for (Module module : modules) {
-            String moduleID = module.getModuleID();
-            if (moduleID != null && moduleID.startsWith("MD")) {
-                try {
-                    String numberPart = moduleID.substring(2); // Remove "MD" prefix
-                    int number = Integer.parseInt(numberPart);
-                    if (number > maxNumber) {
-                        maxNumber = number;
-                    }
-                } catch (NumberFormatException e) {
-                    
-                }
-            }
+            lines.add(serializeModule(module));
         }
-        
-        // Generate next ID
-        return String.format("MD%03d", maxNumber + 1);
+        MODULES_LOG.rewrite(lines);
     }
 
     /**
-     * Overwrite and save all modules
+     * Save a single class (new or changed) to the classes change log
      */
-    public static void saveAllModules(List<Module> modules) {
-        try (FileWriter fw = new FileWriter(MODULES_FILE, false);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            for (Module module : modules) {
-                bw.write(serializeModule(module));
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            // Optionally log error
-        }
+    public static void saveClass(ClassModule cls) {
+        CLASSES_LOG.put(serializeClass(cls));
     }
 
     /**
-     * Save a single class (append)
+     * Delete a single class by ID
      */
-    public static void saveClass(ClassModule cls) {
-        try (FileWriter fw = new FileWriter(CLASSES_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(serializeClass(cls));
-            bw.newLine();
-
-        } catch (IOException e) {
-
-        }
+    public static void deleteClass(String classID) {
+        CLASSES_LOG.remove(classID);
     }
 
     /**
      * Overwrite and save all classes
      */
     public static void saveAllClasses(List<ClassModule> classes) {
-        try (FileWriter fw = new FileWriter(CLASSES_FILE, false);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            for (ClassModule cls : classes) {
-                bw.write(serializeClass(cls));
-                bw.newLine();
-            }
-
-        } catch (IOException e) {
-
+        List<String> lines = new ArrayList<>();
+        for (ClassModule cls : classes) {
+            lines.add(serializeClass(cls));
         }
+        CLASSES_LOG.rewrite(lines);
     }
 
     /**
@@ -213,129 +173,183 @@ public class FileManager {
      */
     public static List<ClassModule> loadAllClasses(List<Module> modules, List<User> users) {
         List<ClassModule> classes = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(CLASSES_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                ClassModule cls = deserializeClass(line, modules, users);
-                if (cls != null) classes.add(cls);
-            }
-        } catch (FileNotFoundException e) {
-
-        } catch (IOException e) {
-
+        References refs = new References(modules, users);
+        FieldCursor cursor = new FieldCursor();
+        FieldCursor students = new FieldCursor();
+        RecordSource records = recordsOf(CLASSES_LOG);
+        while (records.next(cursor)) {
+            ClassModule cls = deserializeClass(cursor, refs, students);
+            if (cls != null) classes.add(cls);
         }
         return classes;
     }
     
     /**
-     * Save assessment to file
+     * Save assessment (new or changed) to the assessments change log
      */
     public static void saveAssessment(Assessment assessment) {
-        try (FileWriter fw = new FileWriter(ASSESSMENTS_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(serializeAssessment(assessment));
-            bw.newLine();
-
-        } catch (IOException e) {
-
-        }
+        ASSESSMENTS_LOG.put(serializeAssessment(assessment));
     }
 
     public static void saveAllAssessments(List<Assessment> assessments) {
-    try (FileWriter fw = new FileWriter(ASSESSMENTS_FILE, false);
-         BufferedWriter bw = new BufferedWriter(fw)) {
-
+        List<String> lines = new ArrayList<>();
         for (Assessment a : assessments) {
-            bw.write(serializeAssessment(a));
-            bw.newLine();
+            lines.add(serializeAssessment(a));
         }
-
-    } catch (IOException e) {
-        System.err.println("Error saving all assessments: " + e.getMessage());
+        ASSESSMENTS_LOG.rewrite(lines);
     }
-}
     
     /**
-     * Save feedback to file
+     * Save feedback (new or changed) to the feedback change log
      */
     public static void saveFeedback(Feedback feedback) {
-        try (FileWriter fw = new FileWriter(FEEDBACK_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(serializeFeedback(feedback));
-            bw.newLine();
-
-        } catch (IOException e) {
-
-        }
+        FEEDBACK_LOG.put(serializeFeedback(feedback));
     }
 
     /**
      * Save all feedback to file (overwrite)
      */
     public static void saveAllFeedback(List<Feedback> feedbackList) {
-        try (FileWriter fw = new FileWriter(FEEDBACK_FILE, false);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-
-            for (Feedback f : feedbackList) {
-                bw.write(serializeFeedback(f));
-                bw.newLine();
-            }
-
-        } catch (IOException e) {
-            System.err.println("Error saving all feedback: " + e.getMessage());
+        List<String> lines = new ArrayList<>();
+        for (Feedback f : feedbackList) {
+            lines.add(serializeFeedback(f));
         }
+        FEEDBACK_LOG.rewrite(lines);
     }
     
     /**
-     * Load all assessments from file
+     * Load all assessments from file (snapshot + change log)
      */
     public static List<Assessment> loadAllAssessments(List<Module> modules, List<User> users) {
         List<Assessment> assessments = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(ASSESSMENTS_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                Assessment assessment = deserializeAssessment(line, modules, users);
-                if (assessment != null) {
-                    assessments.add(assessment);
-                }
+        References refs = new References(modules, users);
+        FieldCursor cursor = new FieldCursor();
+        FieldCursor marks = new FieldCursor();
+        FieldCursor mark = new FieldCursor();
+        RecordSource records = recordsOf(ASSESSMENTS_LOG);
+        while (records.next(cursor)) {
+            Assessment assessment = deserializeAssessment(cursor, refs, marks, mark);
+            if (assessment != null) {
+                assessments.add(assessment);
             }
-        } catch (FileNotFoundException e) {
-
-        } catch (IOException e) {
-
         }
         return assessments;
     }
     
     /**
-     * Load all feedback from file
+     * Load all feedback from file (snapshot + change log)
      */
     public static List<Feedback> loadAllFeedback() {
         List<Feedback> feedbackList = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(FEEDBACK_FILE))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                Feedback feedback = deserializeFeedback(line);
-                if (feedback != null) {
-                    feedbackList.add(feedback);
-                }
+        FieldCursor cursor = new FieldCursor();
+        RecordSource records = recordsOf(FEEDBACK_LOG);
+        while (records.next(cursor)) {
+            Feedback feedback = deserializeFeedback(cursor);
+            if (feedback != null) {
+                feedbackList.add(feedback);
             }
-        } catch (FileNotFoundException e) {
+        }
+        return feedbackList;
+    }
 
-        } catch (IOException e) {
+    /**
+     * Where a loader gets its records from: the binary snapshot when it is
+     * up to date, otherwise the text file plus its change log
+     */
+    private interface RecordSource {
+        boolean next(FieldCursor cursor);
+    }
 
+    private static RecordSource recordsOf(ChangeLog log) {
+        log.flush();   // queued saves first, or the snapshot stamp would not see them
+        BinarySnapshot.Section section = BinarySnapshot.open(log);
+        if (section != null) {
+            return section::next;
         }
-        return feedbackList;
+        binarySnapshotStale = BinarySnapshot.isEnabled();
+        Iterator<String> lines = log.readAll().iterator();
+        return cursor -> {
+            if (!lines.hasNext()) return false;
+            cursor.reset(lines.next(), '|', true);
+            return true;
+        };
+    }
+
+    /**
+     * Rewrite data/snapshot.bin from the current text files
+     */
+    public static void writeBinarySnapshot() {
+        BinarySnapshot.write(Arrays.asList(USERS_LOG, MODULES_LOG, CLASSES_LOG, ASSESSMENTS_LOG, FEEDBACK_LOG));
+        binarySnapshotStale = false;
+    }
+
+    /**
+     * If the last load had to fall back to the text files, rebuild the
+     * binary snapshot on a background thread so the next start is fast
+     */
+    public static void rebuildBinarySnapshotIfStale() {
+        if (!binarySnapshotStale) return;
+        binarySnapshotStale = false;
+        Thread t = new Thread(FileManager::writeBinarySnapshot, "snapshot-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Wait until every queued save is written to its change log. Returns
+     * false if some could not be written (they are retried in the background).
+     */
+    public static boolean flush() {
+        return WRITER.flush();
+    }
+
+    /**
+     * Write all queued saves, fold the change logs into the data files and
+     * refresh the binary snapshot (on exit). Saves made after this are
+     * written straight away on the caller's thread. Returns false if some
+     * saves could not be written (each one is reported on System.err).
+     */
+    public static boolean shutdown() {
+        boolean written = WRITER.shutdown();
+        compactAll();
+        writeBinarySnapshot();
+        return written;
+    }
+
+    /**
+     * Fold every change log into its data file (e.g. on exit)
+     */
+    public static void compactAll() {
+        USERS_LOG.compact();
+        MODULES_LOG.compact();
+        CLASSES_LOG.compact();
+        ASSESSMENTS_LOG.compact();
+        FEEDBACK_LOG.compact();
+        SEQUENCES_LOG.compact();
+    }
+    
+    /**
+     * Save the last number used for an ID prefix ("PREFIX|number").
+     * Only queues one change log line; quick reservations of the same prefix
+     * are coalesced into one line by the writer thread.
+     */
+    public static void saveSequence(String prefix, int lastUsed) {
+        SEQUENCES_LOG.put(prefix + "|" + lastUsed);
+    }
+    
+    /**
+     * Load the saved ID counters as "PREFIX|number" lines (snapshot + change log)
+     */
+    public static List<String> loadSequences() {
+        return SEQUENCES_LOG.readAll();
     }
     
     /**
      * Save a single announcement to the announcements file (append)
      */
     public static void saveAnnouncement(Announcement ann) {
-        try (FileWriter fw = new FileWriter(ANNOUNCEMENTS_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(serializeAnnouncement(ann));
-            bw.newLine();
+        try {
+            DurableFiles.append(ANNOUNCEMENTS_FILE, Collections.singletonList(serializeAnnouncement(ann)));
         } catch (IOException e) {
             // Optionally log error
         }
@@ -345,12 +359,12 @@ public class FileManager {
      * Overwrite and save all announcements
      */
     public static void saveAllAnnouncements(List<Announcement> announcements) {
-        try (FileWriter fw = new FileWriter(ANNOUNCEMENTS_FILE, false);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            for (Announcement ann : announcements) {
-                bw.write(serializeAnnouncement(ann));
-                bw.newLine();
-            }
+        List<String> lines = new ArrayList<>(announcements.size());
+        for (Announcement ann : announcements) {
+            lines.add(serializeAnnouncement(ann));
+        }
+        try {
+            DurableFiles.replace(ANNOUNCEMENTS_FILE, lines);
         } catch (IOException e) {
             // Optionally log error
         }
@@ -361,10 +375,11 @@ public class FileManager {
      */
     public static List<Announcement> loadAllAnnouncements() {
         List<Announcement> announcements = new ArrayList<>();
+        FieldCursor cursor = new FieldCursor();
         try (BufferedReader br = new BufferedReader(new FileReader(ANNOUNCEMENTS_FILE))) {
             String line;
             while ((line = br.readLine()) != null) {
-                Announcement ann = deserializeAnnouncement(line);
+                Announcement ann = deserializeAnnouncement(line, cursor);
                 if (ann != null) announcements.add(ann);
             }
         } catch (FileNotFoundException e) {
@@ -375,6 +390,43 @@ public class FileManager {
         return announcements;
     }
     
+    /**
+     * ID -> object maps built once per load, so each line resolves its
+     * module, lecturer and students without scanning the full lists
+     */
+    private static class References {
+        private final Map<String, Module> modules = new HashMap<>();       // lower-case moduleID or moduleCode
+        private final Map<String, Lecturer> lecturers = new HashMap<>();   // userID
+        private final Map<String, Student> students = new HashMap<>();     // studentID
+
+        References(List<Module> moduleList, List<User> userList) {
+            // putIfAbsent keeps the first match, like the old "break" in the scans
+            for (Module m : moduleList) {
+                if (m.getModuleID() != null) modules.putIfAbsent(m.getModuleID().toLowerCase(), m);
+                if (m.getModuleCode() != null) modules.putIfAbsent(m.getModuleCode().toLowerCase(), m);
+            }
+            for (User u : userList) {
+                if (u instanceof Lecturer) {
+                    lecturers.putIfAbsent(u.getUserID(), (Lecturer) u);
+                } else if (u instanceof Student) {
+                    students.putIfAbsent(((Student) u).getStudentID(), (Student) u);
+                }
+            }
+        }
+
+        Module module(String id) {
+            return id == null ? null : modules.get(id.toLowerCase());
+        }
+
+        Lecturer lecturer(String userID) {
+            return userID == null || userID.isEmpty() ? null : lecturers.get(userID);
+        }
+
+        Student student(String studentID) {
+            return students.get(studentID);
+        }
+    }
+
     // Serialization methods
     private static String serializeUser(User user) {
         String role = user.getRole();
@@ -445,11 +497,10 @@ public class FileManager {
       .append(a.getClassID() != null ? a.getClassID() : "").append("|");
 
     // marks: studentID=mark,studentID=mark
-    int count = 0;
-    for (Map.Entry<String, Double> e : a.getStudentMarks().entrySet()) {
-        if (count > 0) sb.append(",");
-        sb.append(e.getKey()).append("=").append(e.getValue());
-        count++;
+    MarkStore marks = a.getMarkStore();
+    for (int i = 0; i < marks.size(); i++) {
+        if (i > 0) sb.append(",");
+        sb.append(marks.studentAt(i)).append("=").append(marks.markAt(i));
     }
 
     return sb.toString();
@@ -498,35 +549,36 @@ private static String safe(String s) {
     }
     
     // Deserialization methods
-    private static User deserializeUser(String data) {
-        String[] parts = data.split("\\|");
-        if (parts.length < 7) return null;
+    // Each reads a FieldCursor that the load loop has pointed at the next record
+    private static User deserializeUser(FieldCursor p) {
+        p.trimTrailingEmpty();
+        if (p.count() < 7) return null;
         
-        String role = parts[0];
-        String userID = parts[1];
-        String username = parts[2];
-        String password = parts[3];
-        String email = parts[4];
-        String fullName = parts[5];
-        String phoneNumber = parts[6];
+        String role = p.string(0);
+        String userID = p.string(1);
+        String username = p.string(2);
+        String password = p.string(3);
+        String email = p.string(4);
+        String fullName = p.string(5);
+        String phoneNumber = p.string(6);
         String gender = "N/A";
         int age = 0;
         boolean isActive = true;
         boolean isApproved = false;
-        boolean hasGenderAge = parts.length >= 9 && (
-            "Male".equals(parts[7]) || "Female".equals(parts[7]) || "N/A".equals(parts[7])
+        boolean hasGenderAge = p.count() >= 9 && (
+            p.equals(7, "Male") || p.equals(7, "Female") || p.equals(7, "N/A")
         );
         if (hasGenderAge) {
-            gender = parts[7];
-            try { age = Integer.parseInt(parts[8]); } catch (Exception ignored) {}
+            gender = p.string(7);
+            try { age = p.parseInt(8); } catch (Exception ignored) {}
         }
         int idx = hasGenderAge ? 9 : 7;
         
         // Check for isActive and isApproved fields (new format)
-        if (parts.length > idx && ("true".equals(parts[idx]) || "false".equals(parts[idx]))) {
-            try { isActive = Boolean.parseBoolean(parts[idx]); } catch (Exception ignored) {}
-            if (parts.length > idx + 1) {
-                try { isApproved = Boolean.parseBoolean(parts[idx + 1]); } catch (Exception ignored) {}
+        if (p.count() > idx && (p.equals(idx, "true") || p.equals(idx, "false"))) {
+            isActive = p.parseBoolean(idx);
+            if (p.count() > idx + 1) {
+                isApproved = p.parseBoolean(idx + 1);
                 idx += 2;
             } else {
                 idx += 1;
@@ -535,9 +587,9 @@ private static String safe(String s) {
         
         switch(role) {
             case "ADMIN_STAFF":
-                if (parts.length >= idx + 2) {
-                    String department = parts[idx];
-                    String staffID = parts[idx + 1];
+                if (p.count() >= idx + 2) {
+                    String department = p.string(idx);
+                    String staffID = p.string(idx + 1);
                     AdminStaff admin = new AdminStaff(userID, username, password, email, fullName, phoneNumber, department, staffID);
                     admin.setGender(gender);
                     admin.setAge(age);
@@ -547,9 +599,9 @@ private static String safe(String s) {
                 }
                 break;
             case "ACADEMIC_LEADER":
-                if (parts.length >= idx + 2) {
-                    String department = parts[idx];
-                    String staffID = parts[idx + 1];
+                if (p.count() >= idx + 2) {
+                    String department = p.string(idx);
+                    String staffID = p.string(idx + 1);
                     AcademicLeader leader = new AcademicLeader(userID, username, password, email, fullName, phoneNumber, department, userID);
                     leader.setStaffID(staffID);
                     leader.setGender(gender);
@@ -560,9 +612,9 @@ private static String safe(String s) {
                 }
                 break;
             case "LECTURER":
-                if (parts.length >= idx + 2) {
-                    String department = parts[idx];
-                    String staffID = parts[idx + 1];
+                if (p.count() >= idx + 2) {
+                    String department = p.string(idx);
+                    String staffID = p.string(idx + 1);
                     Lecturer lec = new Lecturer(userID, username, password, email, fullName, phoneNumber, userID, department);
                     lec.setStaffID(staffID);
                     lec.setGender(gender);
@@ -570,13 +622,12 @@ private static String safe(String s) {
                     lec.setActive(isActive);
                     lec.setApproved(isApproved);
                     // Handle academicLeaderID field (backward compatible)
-                    if (parts.length >= idx + 3 && !parts[idx + 2].equals("UNASSIGNED")) {
-                        lec.setAcademicLeaderID(parts[idx + 2]);
+                    if (p.count() >= idx + 3 && !p.equals(idx + 2, "UNASSIGNED")) {
+                        lec.setAcademicLeaderID(p.string(idx + 2));
                     }
                     // Handle assigned module IDs (optional, backward compatible)
-                    if (parts.length >= idx + 4 && parts[idx + 3] != null && !parts[idx + 3].isEmpty()) {
-                        String mods = parts[idx + 3];
-                        String[] mids = mods.split(",");
+                    if (p.count() >= idx + 4 && !p.isEmpty(idx + 3)) {
+                        String[] mids = p.string(idx + 3).split(",");
                         for (String mid : mids) {
                             if (mid != null && !mid.trim().isEmpty()) {
                                 // create placeholder Module with only ID; will be reconciled later
@@ -588,9 +639,9 @@ private static String safe(String s) {
                 }
                 break;
             case "STUDENT":
-                if (parts.length >= idx + 2) {
-                    String studentID = parts[idx];
-                    String enrollmentYear = parts[idx + 1];
+                if (p.count() >= idx + 2) {
+                    String studentID = p.string(idx);
+                    String enrollmentYear = p.string(idx + 1);
                     Student student = new Student(userID, username, password, email, fullName, phoneNumber, studentID, enrollmentYear);
                     student.setGender(gender);
                     student.setAge(age);
@@ -603,41 +654,46 @@ private static String safe(String s) {
         return null;
     }
     
-    private static Module deserializeModule(String data) {
-        String[] parts = data.split("\\|");
-        if (parts.length < 6) return null;
+    private static Module deserializeModule(FieldCursor p) {
+        p.trimTrailingEmpty();
+        if (p.count() < 6) return null;
         
-        return new Module(parts[0], parts[1], parts[2], parts[3], 
-                         Integer.parseInt(parts[4]), parts[5]);
+        return new Module(p.string(0), p.string(1), p.string(2), p.string(3), 
+                         p.parseInt(4), p.string(5));
     }
     
     public static Feedback deserializeFeedback(String line) {
+        return deserializeFeedback(new FieldCursor().reset(line, '|', true));
+    }
+
+    private static Feedback deserializeFeedback(FieldCursor p) {
     try {
-        String[] p = line.split("\\|", -1); 
 
-        String feedbackID = p[0];
-        String assessmentID = p[1];
-        String studentID = p[2];
-        String lecturerID = p[3];
-        String content = p[4].replace("\\n", "\n");
-        double suggestedMarks = Double.parseDouble(p[5]);
+        String feedbackID = p.string(0);
+        String assessmentID = p.string(1);
+        String studentID = p.string(2);
+        String lecturerID = p.string(3);
+        String content = p.unescaped(4);
+        // serializeFeedback writes the content twice (10 fields); older lines have it once
+        int m = p.count() >= 10 ? 6 : 5;
+        double suggestedMarks = p.parseDouble(m);
 
         Feedback f = new Feedback(feedbackID, assessmentID, studentID, lecturerID, content, suggestedMarks);
 
        
-        if (p.length > 6) {
-            long millis = Long.parseLong(p[6]);
+        if (p.count() > m + 1) {
+            long millis = p.parseLong(m + 1);
             f.setFeedbackDate(new Date(millis));
         }
 
         
-        if (p.length > 7) {
-            f.setDelivered(Boolean.parseBoolean(p[7]));
+        if (p.count() > m + 2) {
+            f.setDelivered(p.parseBoolean(m + 2));
         }
 
       
-        if (p.length > 8) {
-            f.setComments(p[8].replace("\\n", "\n"));
+        if (p.count() > m + 3) {
+            f.setComments(p.unescaped(m + 3));
         }
 
         return f;
@@ -647,66 +703,46 @@ private static String safe(String s) {
 }
 
     
-    private static Announcement deserializeAnnouncement(String data) {
+    private static Announcement deserializeAnnouncement(String data, FieldCursor p) {
         try {
-            String[] parts = data.split("\\|", -1);
-            if (parts.length < 6) return null;
-            String id = parts[0];
-            String title = parts[1];
-            String content = parts[2];
-            String senderID = parts[3];
-            String target = parts[4];
-            long millis = Long.parseLong(parts[5]);
+            p.reset(data, '|', true);
+            if (p.count() < 6) return null;
+            String id = p.string(0);
+            String title = p.string(1);
+            String content = p.string(2);
+            String senderID = p.string(3);
+            String target = p.string(4);
+            long millis = p.parseLong(5);
             Announcement ann = new Announcement(id, title, content, senderID, target);
-            java.lang.reflect.Field f = ann.getClass().getDeclaredField("createdDate");
-            f.setAccessible(true);
-            f.set(ann, new java.util.Date(millis));
+            ann.setCreatedDate(new java.util.Date(millis));
             return ann;
         } catch (Exception e) {
             return null;
         }
     }
     
-    private static Assessment deserializeAssessment(String data, List<Module> modules, List<User> users) {
+    private static Assessment deserializeAssessment(FieldCursor p, References refs,
+                                                    FieldCursor marks, FieldCursor mark) {
     try {
-        String[] parts = data.split("\\|", -1);
-        if (parts.length < 11) return null;
-
-        String assessmentID = parts[0];
-        String name = parts[1];
-        String typeName = parts[2];
-        double weightage = Double.parseDouble(parts[3]);
-        double totalMarks = Double.parseDouble(parts[4]);
-        String moduleID = parts[5];
-        String lecturerUserID = parts[6];
-        long createdMillis = Long.parseLong(parts[7]);
-        long dueMillis = Long.parseLong(parts[8]);
-        String classID = parts[9];
-        String marksCSV = parts[10];
-
-        // Find module
-       // Find module (support both moduleID and moduleCode)
-Module module = null;
-for (Module m : modules) {
-    if (m.getModuleID().equalsIgnoreCase(moduleID) ||
-        m.getModuleCode().equalsIgnoreCase(moduleID)) {
-        module = m;
-        break;
-    }
-}
-if (module == null) return null;
-
+        if (p.count() < 11) return null;
+
+        String assessmentID = p.string(0);
+        String name = p.string(1);
+        String typeName = p.string(2);
+        double weightage = p.parseDouble(3);
+        double totalMarks = p.parseDouble(4);
+        String moduleID = p.string(5);
+        String lecturerUserID = p.string(6);
+        long createdMillis = p.parseLong(7);
+        long dueMillis = p.parseLong(8);
+        String classID = p.string(9);
+
+        // Find module (support both moduleID and moduleCode)
+        Module module = refs.module(moduleID);
+        if (module == null) return null;
 
         // Find lecturer (createdBy)
-        Lecturer lecturer = null;
-        if (lecturerUserID != null && !lecturerUserID.isEmpty()) {
-            for (User u : users) {
-                if (u instanceof Lecturer && u.getUserID().equals(lecturerUserID)) {
-                    lecturer = (Lecturer) u;
-                    break;
-                }
-            }
-        }
+        Lecturer lecturer = refs.lecturer(lecturerUserID);
 
         AssessmentType at = new AssessmentType(
                 "ATX",
@@ -727,13 +763,13 @@ if (module == null) return null;
 
         a.setCreatedDate(createdMillis == 0 ? new Date() : new Date(createdMillis));
 
-        // Restore marks
-        if (marksCSV != null && !marksCSV.isEmpty()) {
-            String[] entries = marksCSV.split(",");
-            for (String entry : entries) {
-                String[] kv = entry.split("=");
-                if (kv.length == 2) {
-                    a.addStudentMark(kv[0], Double.parseDouble(kv[1]));
+        // Restore marks: studentID=mark,studentID=mark
+        if (!p.isEmpty(10)) {
+            marks.reset(p, 10, ',', false);
+            for (int i = 0; i < marks.count(); i++) {
+                mark.reset(marks, i, '=', false);
+                if (mark.count() == 2) {
+                    a.addStudentMark(mark.string(0), mark.parseDouble(1));
                 }
             }
         }
@@ -746,28 +782,29 @@ if (module == null) return null;
 }
 
     private static GradingSystem deserializeGradingSystem(String data) {
-        String[] parts = data.split("\\|");
-        if (parts.length < 3) return null;
+        FieldCursor p = new FieldCursor().reset(data, '|', false);
+        if (p.count() < 3) return null;
         
-        String systemID = parts[0];
-        String systemName = parts[1];
-        double passingPercentage = Double.parseDouble(parts[2]);
+        String systemID = p.string(0);
+        String systemName = p.string(1);
+        double passingPercentage = p.parseDouble(2);
         
         GradingSystem gs = new GradingSystem(systemID, systemName, passingPercentage);
         gs.getGrades().clear(); // Clear default grades
         
-        for (int i = 3; i < parts.length; i++) {
-            String[] gradeParts = parts[i].split(",");
-            if (gradeParts.length >= 5) {
-                String gradeID = gradeParts[0];
-                String gradeLetter = gradeParts[1];
-                double min = Double.parseDouble(gradeParts[2]);
-                double max = Double.parseDouble(gradeParts[3]);
-                String desc = gradeParts[4];
+        FieldCursor g = new FieldCursor();
+        for (int i = 3; i < p.count(); i++) {
+            g.reset(p, i, ',', false);
+            if (g.count() >= 5) {
+                String gradeID = g.string(0);
+                String gradeLetter = g.string(1);
+                double min = g.parseDouble(2);
+                double max = g.parseDouble(3);
+                String desc = g.string(4);
                 double gpa = 0.0;
-                if (gradeParts.length >= 6) {
+                if (g.count() >= 6) {
                     try {
-                        gpa = Double.parseDouble(gradeParts[5]);
+                        gpa = g.parseDouble(5);
                     } catch (Exception ignored) {}
                 }
                 gs.getGrades().add(new GradingScale(gradeID, gradeLetter, min, max, desc, gpa));
@@ -794,60 +831,45 @@ if (module == null) return null;
         return sb.toString();
     }
 
-   private static ClassModule deserializeClass(String data, List<Module> modules, List<User> users) {
+   private static ClassModule deserializeClass(FieldCursor p, References refs,
+                                               FieldCursor students) {
     try {
-        String[] parts = data.split("\\|", -1);
-        if (parts.length < 8) return null;
-
-        String classID = parts[0];
-        String className = parts[1];
-        String moduleID = parts[2];
-        String lecturerID = parts[3];
-        String day = parts[4];
-        String time = parts[5];
-        String location = parts[6];
-        int capacity = Integer.parseInt(parts[7]);
-        String studentCSV = parts.length > 8 ? parts[8] : "";
+        if (p.count() < 8) return null;
+
+        String classID = p.string(0);
+        String className = p.string(1);
+        String moduleID = p.string(2);
+        String lecturerID = p.string(3);
+        String day = p.string(4);
+        String time = p.string(5);
+        String location = p.string(6);
+        int capacity = p.parseInt(7);
 
         ClassModule cls = new ClassModule(
                 classID, className, moduleID,
                 capacity, day, time, location, null
         );
 
-                for (Module m : modules) {
-    if (m.getModuleID().equalsIgnoreCase(moduleID) ||
-        m.getModuleCode().equalsIgnoreCase(moduleID)) {
-        cls.setModule(m);
-        break;
-    }
-}
-
+        Module module = refs.module(moduleID);
+        if (module != null) {
+            cls.setModule(module);
+        }
 
         cls.setLecturerID(lecturerID);
 
         // assign lecturer
-        if (lecturerID != null && !lecturerID.isEmpty()) {
-            for (User u : users) {
-                if (u instanceof Lecturer &&
-                        u.getUserID().equals(lecturerID)) {
-                    cls.setLecturer((Lecturer) u);
-                    break;
-                }
-            }
-        }
-
-        // enrolled students
-        if (studentCSV != null && !studentCSV.isEmpty()) {
-            String[] ids = studentCSV.split(",");
-            for (String sid : ids) {
-                for (User u : users) {
-                    if (u instanceof Student) {
-                        Student s = (Student) u;
-                        if (s.getStudentID().equals(sid)) {
-                            cls.enrollStudent(s);
-                            break;
-                        }
-                    }
+        Lecturer lecturer = refs.lecturer(lecturerID);
+        if (lecturer != null) {
+            cls.setLecturer(lecturer);
+        }
+
+        // enrolled students (comma separated studentIDs)
+        if (p.count() > 8 && !p.isEmpty(8)) {
+            students.reset(p, 8, ',', false);
+            for (int i = 0; i < students.count(); i++) {
+                Student s = refs.student(students.string(i));
+                if (s != null) {
+                    cls.enrollStudent(s);
                 }
             }
         }
@@ -865,11 +887,13 @@ if (module == null) return null;
      * Save grading system to file
      */
     public static void saveGradingSystem(GradingSystem gradingSystem) {
-        try (FileWriter fw = new FileWriter(GRADING_FILE, false); // overwrite
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            bw.write(serializeGradingSystem(gradingSystem));
-            bw.flush();
-
+        try {
+            String text = serializeGradingSystem(gradingSystem);
+            DurableFiles.replace(GRADING_FILE, out -> {
+                Writer w = new OutputStreamWriter(out, Charset.defaultCharset());
+                w.write(text);
+                w.flush();
+            });
         } catch (IOException e) {
             System.err.println("Error saving grading system to file: " + e.getMessage());
             e.printStackTrace();
@@ -904,6 +928,12 @@ if (module == null) return null;
             new FileWriter(ASSESSMENTS_FILE).close();
             new FileWriter(FEEDBACK_FILE).close();
             new FileWriter(GRADING_FILE).close();
+            USERS_LOG.clearLog();
+            MODULES_LOG.clearLog();
+            CLASSES_LOG.clearLog();
+            ASSESSMENTS_LOG.clearLog();
+            FEEDBACK_LOG.clearLog();
+            SEQUENCES_LOG.clearLog();
 
         } catch (IOException e) {
 
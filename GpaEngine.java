@@ -0,0 +1,414 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GpaEngine class - works out each student's module results, GPA per term
+ * and CGPA from the recorded marks
+ *
+ * Module result: every assessment of the module the student has a mark in
+ * counts with its assessment type's weightage, as a percentage of its total
+ * marks (weights are rescaled over the assessments marked so far; if none
+ * has a weight they count equally). The result is graded through the
+ * current GradingSystem, and GPA is the credit-weighted mean of the grade
+ * points. Modules with no credits or no grade are listed but not counted.
+ * A module's term is the half-year of its latest due date, e.g. "2026-S1".
+ *
+ * Results are cached per student. The expensive part (finding and weighting
+ * the marks) only reruns for students whose inputs changed: SystemManager
+ * calls assessmentChanged/moduleChanged, and only students whose recorded
+ * mark, weight, total, due date or module actually differs are dropped. A
+ * grading scale change does not drop anything: the module percentages stay
+ * cached and are simply regraded on the next read. Each graded result
+ * remembers the live grading system it was graded with and that system's
+ * own revision (GradingSystem.getRevision), so only a change to the live
+ * scales, or a new live system, regrades; editing a what-if copy does not.
+ */
+public class GpaEngine {
+
+    private final SystemManager systemManager;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();   // bumped by every invalidation
+    private final Map<String, ModuleSketch> moduleSketches = new ConcurrentHashMap<>();
+
+    public GpaEngine(SystemManager systemManager) {
+        this.systemManager = systemManager;
+    }
+
+    // ======================================================
+    // RESULTS
+    // ======================================================
+
+    /** One module's result for one student */
+    public static final class ModuleResult {
+        private final String moduleID;
+        private final String moduleCode;
+        private final String moduleName;
+        private final int credits;
+        private final String term;
+        private final double percentage;
+        private final String gradeLetter;   // "N/A" if no band covers the percentage
+        private final double gradePoint;    // NaN if not graded
+
+        ModuleResult(ModulePart part, String gradeLetter, double gradePoint) {
+            this.moduleID = part.moduleID;
+            this.moduleCode = part.moduleCode;
+            this.moduleName = part.moduleName;
+            this.credits = part.credits;
+            this.term = part.term;
+            this.percentage = part.percentage;
+            this.gradeLetter = gradeLetter;
+            this.gradePoint = gradePoint;
+        }
+
+        public String getModuleID() { return moduleID; }
+        public String getModuleCode() { return moduleCode; }
+        public String getModuleName() { return moduleName; }
+        public int getCredits() { return credits; }
+        public String getTerm() { return term; }
+        public double getPercentage() { return percentage; }
+        public String getGradeLetter() { return gradeLetter; }
+        public double getGradePoint() { return gradePoint; }
+        public boolean isCounted() { return credits > 0 && !Double.isNaN(gradePoint); }
+    }
+
+    /** A student's module results, GPA per term and CGPA */
+    public static final class StudentGpa {
+        private final String studentID;
+        private final List<ModuleResult> modules;
+        private final Map<String, Double> gpaByTerm;
+        private final double cgpa;
+        private final int credits;
+
+        StudentGpa(String studentID, List<ModuleResult> modules) {
+            this.studentID = studentID;
+            this.modules = Collections.unmodifiableList(modules);
+
+            Map<String, double[]> terms = new TreeMap<>();   // term -> {points x credits, credits}
+            double points = 0;
+            int total = 0;
+            for (ModuleResult m : modules) {
+                if (!m.isCounted()) continue;
+                points += m.getGradePoint() * m.getCredits();
+                total += m.getCredits();
+                double[] t = terms.computeIfAbsent(m.getTerm(), k -> new double[2]);
+                t[0] += m.getGradePoint() * m.getCredits();
+                t[1] += m.getCredits();
+            }
+            Map<String, Double> byTerm = new LinkedHashMap<>();
+            for (Map.Entry<String, double[]> e : terms.entrySet()) {
+                byTerm.put(e.getKey(), e.getValue()[0] / e.getValue()[1]);
+            }
+            this.gpaByTerm = Collections.unmodifiableMap(byTerm);
+            this.cgpa = total == 0 ? 0.0 : points / total;
+            this.credits = total;
+        }
+
+        public String getStudentID() { return studentID; }
+        public List<ModuleResult> getModules() { return modules; }
+        public Map<String, Double> getGpaByTerm() { return gpaByTerm; }
+        public double getCgpa() { return cgpa; }
+        public int getCredits() { return credits; }
+        public boolean hasResults() { return credits > 0; }
+    }
+
+    /**
+     * A student's GPA, from the cache when nothing it depends on has changed
+     */
+    public StudentGpa getStudentGpa(String studentID) {
+        if (studentID == null) return null;
+        Entry entry = cache.get(studentID);
+        if (entry == null) {
+            long version = changes.get();
+            entry = build(studentID, collect(MarkStore.findIndex(studentID)));
+            store(studentID, entry, version);
+        }
+        return entry.result(systemManager.getGradingSystem());
+    }
+
+    /**
+     * GPAs for many students at once (e.g. term-end processing). Students
+     * not cached yet are built in one pass over all the marks instead of one
+     * pass per student.
+     */
+    public Map<String, StudentGpa> getStudentGpas(Collection<String> studentIDs) {
+        long version = changes.get();
+        Map<Integer, List<Input>> missing = new HashMap<>();
+        for (String id : studentIDs) {
+            if (id != null && !cache.containsKey(id)) missing.put(MarkStore.findIndex(id), new ArrayList<>());
+        }
+        missing.remove(-1);   // never marked: built empty below
+        if (!missing.isEmpty()) {
+            for (Assessment a : systemManager.getAllAssessments()) {
+                MarkStore store = a.getMarkStore();
+                for (int slot = 0; slot < store.size(); slot++) {
+                    List<Input> inputs = missing.get(store.studentIndexAt(slot));
+                    if (inputs != null) inputs.add(new Input(a, store.markAt(slot)));
+                }
+            }
+        }
+
+        GradingSystem grading = systemManager.getGradingSystem();
+        Map<String, StudentGpa> result = new LinkedHashMap<>();
+        for (String id : studentIDs) {
+            if (id == null) continue;
+            Entry entry = cache.get(id);
+            if (entry == null) {
+                List<Input> inputs = missing.get(MarkStore.findIndex(id));
+                // not collected above: dropped from the cache meanwhile, or never marked
+                entry = build(id, inputs != null ? inputs : collect(MarkStore.findIndex(id)));
+                store(id, entry, version);
+            }
+            result.put(id, entry.result(grading));
+        }
+        return result;
+    }
+
+    /**
+     * Sketch of the module results (ModuleResult.getPercentage) of every
+     * student with a mark in this module, so a student's module result can
+     * be ranked against the other students' module results rather than
+     * against single assessment marks. Rebuilt after any invalidation;
+     * returns a copy the caller may keep.
+     */
+    public QuantileSketch getModuleResultSketch(String moduleID) {
+        long version = changes.get();
+        ModuleSketch cached = moduleSketches.get(moduleID);
+        if (cached != null && cached.version == version) return cached.sketch.copy();
+
+        Set<String> studentIDs = new LinkedHashSet<>();
+        for (Assessment a : systemManager.getAllAssessments()) {
+            if (a.getModule() == null || !Objects.equals(a.getModule().getModuleID(), moduleID)) continue;
+            MarkStore store = a.getMarkStore();
+            for (int slot = 0; slot < store.size(); slot++) studentIDs.add(store.studentAt(slot));
+        }
+        QuantileSketch sketch = new QuantileSketch();
+        for (StudentGpa gpa : getStudentGpas(studentIDs).values()) {
+            for (ModuleResult m : gpa.getModules()) {
+                if (Objects.equals(m.getModuleID(), moduleID)) sketch.add(m.getPercentage());
+            }
+        }
+        moduleSketches.put(moduleID, new ModuleSketch(version, sketch));
+        return sketch.copy();
+    }
+
+    // ======================================================
+    // INVALIDATION (called by SystemManager)
+    // ======================================================
+
+    /**
+     * Marks, weight, total, due date or module of this assessment may have changed:
+     * drop only the students whose cached input for it is now different
+     */
+    public synchronized void assessmentChanged(Assessment a) {
+        if (a == null) return;
+        changes.incrementAndGet();
+        String assessmentID = a.getAssessmentID();
+        MarkStore store = a.getMarkStore();
+        for (int slot = 0; slot < store.size(); slot++) {
+            String studentID = store.studentAt(slot);
+            Entry entry = cache.get(studentID);
+            if (entry != null && !new Input(a, store.markAt(slot)).equals(entry.inputs.get(assessmentID))) {
+                cache.remove(studentID);
+            }
+        }
+    }
+
+    /**
+     * This assessment object was replaced by another: drop everyone it had marks for
+     */
+    public synchronized void assessmentReplaced(Assessment old) {
+        if (old == null) return;
+        changes.incrementAndGet();
+        MarkStore store = old.getMarkStore();
+        for (int slot = 0; slot < store.size(); slot++) {
+            cache.remove(store.studentAt(slot));
+        }
+    }
+
+    /**
+     * A module's credits or name may have changed, or it was deleted
+     */
+    public synchronized void moduleChanged(String moduleID) {
+        changes.incrementAndGet();
+        cache.values().removeIf(e -> e.moduleIDs.contains(moduleID));
+    }
+
+    public synchronized void clear() {
+        changes.incrementAndGet();
+        cache.clear();
+        moduleSketches.clear();
+    }
+
+    public int getCachedCount() {
+        return cache.size();
+    }
+
+    // ======================================================
+    // BUILDING
+    // ======================================================
+
+    /** What one mark contributed: enough to tell whether it changed */
+    private static final class Input {
+        final String assessmentID;
+        final String moduleID;
+        final double mark;
+        final double total;
+        final double weight;
+        final Date due;      // a copy: the term is derived from it, so a changed due date is a changed input
+        final Assessment assessment;
+
+        Input(Assessment a, double mark) {
+            this.assessmentID = a.getAssessmentID();
+            this.moduleID = a.getModule() != null ? a.getModule().getModuleID() : null;
+            this.mark = mark;
+            this.total = a.getAssessmentType() != null ? a.getAssessmentType().getTotalMarks() : 0;
+            this.weight = a.getAssessmentType() != null ? a.getAssessmentType().getWeightage() : 0;
+            Date dueDate = a.getDueDate();
+            this.due = dueDate != null ? new Date(dueDate.getTime()) : null;
+            this.assessment = a;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Input)) return false;
+            Input other = (Input) o;
+            return mark == other.mark && total == other.total && weight == other.weight
+                    && Objects.equals(moduleID, other.moduleID) && Objects.equals(assessmentID, other.assessmentID)
+                    && Objects.equals(due, other.due);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(assessmentID, moduleID, mark, total, weight, due);
+        }
+    }
+
+    /** A module's percentage for one student, before grading */
+    private static final class ModulePart {
+        String moduleID;
+        String moduleCode;
+        String moduleName;
+        int credits;
+        String term;
+        double percentage;
+    }
+
+    /** A module's result sketch and the invalidation count it was built at */
+    private static final class ModuleSketch {
+        final long version;
+        final QuantileSketch sketch;
+
+        ModuleSketch(long version, QuantileSketch sketch) {
+            this.version = version;
+            this.sketch = sketch;
+        }
+    }
+
+    /** Cached per student: the inputs, the module percentages and the last graded result */
+    private static final class Entry {
+        final String studentID;
+        final Map<String, Input> inputs;   // assessmentID -> input
+        final Set<String> moduleIDs;
+        final List<ModulePart> parts;
+
+        private GradingSystem gradedWith;   // the live system the result was graded with
+        private long gradedRevision;        // gradedWith's revision at the time
+        private StudentGpa result;
+
+        Entry(String studentID, Map<String, Input> inputs, List<ModulePart> parts) {
+            this.studentID = studentID;
+            this.inputs = inputs;
+            this.parts = parts;
+            this.moduleIDs = new HashSet<>();
+            for (ModulePart p : parts) moduleIDs.add(p.moduleID);
+        }
+
+        /**
+         * The graded result, regraded from the cached percentages if the
+         * grading system or its scales changed since last time
+         */
+        synchronized StudentGpa result(GradingSystem grading) {
+            long revision = grading.getRevision();
+            if (result == null || gradedWith != grading || gradedRevision != revision) {
+                List<ModuleResult> modules = new ArrayList<>(parts.size());
+                for (ModulePart p : parts) {
+                    int index = grading.getGradeIndex(p.percentage);
+                    if (index == GradingSystem.NOT_GRADED) {
+                        modules.add(new ModuleResult(p, "N/A", Double.NaN));
+                    } else {
+                        GradingScale scale = grading.getGrades().get(index);
+                        modules.add(new ModuleResult(p, scale.getGradeLetter(), scale.getGPA()));
+                    }
+                }
+                result = new StudentGpa(studentID, modules);
+                gradedWith = grading;
+                gradedRevision = revision;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Every mark this student has, by scanning the assessments once
+     */
+    private List<Input> collect(int studentIndex) {
+        List<Input> inputs = new ArrayList<>();
+        if (studentIndex < 0) return inputs;
+        for (Assessment a : systemManager.getAllAssessments()) {
+            double mark = a.getMarkOfIndex(studentIndex);
+            if (!Double.isNaN(mark)) inputs.add(new Input(a, mark));
+        }
+        return inputs;
+    }
+
+    private static Entry build(String studentID, List<Input> inputs) {
+        Map<String, Input> byAssessment = new HashMap<>();
+        Map<String, List<Input>> byModule = new LinkedHashMap<>();
+        for (Input in : inputs) {
+            byAssessment.put(in.assessmentID, in);
+            if (in.moduleID == null || in.total <= 0) continue;   // cannot be turned into a percentage
+            byModule.computeIfAbsent(in.moduleID, k -> new ArrayList<>()).add(in);
+        }
+
+        List<ModulePart> parts = new ArrayList<>();
+        for (List<Input> marks : byModule.values()) {
+            double weighted = 0, weights = 0, plain = 0;
+            Date latest = null;
+            for (Input in : marks) {
+                double pct = in.mark * 100.0 / in.total;
+                weighted += pct * in.weight;
+                weights += in.weight;
+                plain += pct;
+                if (in.due != null && (latest == null || in.due.after(latest))) latest = in.due;
+            }
+            Module module = marks.get(0).assessment.getModule();
+            ModulePart part = new ModulePart();
+            part.moduleID = module.getModuleID();
+            part.moduleCode = module.getModuleCode();
+            part.moduleName = module.getModuleName();
+            part.credits = module.getCreditHours();
+            part.term = termOf(latest);
+            part.percentage = weights > 0 ? weighted / weights : plain / marks.size();
+            parts.add(part);
+        }
+        return new Entry(studentID, byAssessment, parts);
+    }
+
+    /**
+     * Keep a freshly built entry only if nothing was invalidated while it was
+     * being built (it may have read data from before that change)
+     */
+    private synchronized void store(String studentID, Entry entry, long version) {
+        if (changes.get() == version) {
+            cache.putIfAbsent(studentID, entry);
+        }
+    }
+
+    private static String termOf(Date date) {
+        if (date == null) return "Unscheduled";
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        return cal.get(Calendar.YEAR) + (cal.get(Calendar.MONTH) < Calendar.JULY ? "-S1" : "-S2");
+    }
+}
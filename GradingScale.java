@@ -12,6 +12,11 @@ public class GradingScale implements Serializable {
     private double maxPercentage;
     private String description;
     private double gpa;
+
+    // The system whose scale list this scale is in. A change to its range,
+    // letter or GPA bumps that system's revision (and no other system's), so
+    // it can tell that what it compiled from the scales is out of date
+    private transient GradingSystem owner;
     
     // Original constructor
     public GradingScale(String gradeID, String gradeLetter, double minPercentage, 
@@ -45,6 +50,19 @@ public class GradingScale implements Serializable {
         this.description = "Default grading scale";
     }
     
+    void setOwner(GradingSystem owner) {
+        this.owner = owner;
+    }
+
+    GradingSystem getOwner() {
+        return owner;
+    }
+
+    private void edited() {
+        GradingSystem o = owner;
+        if (o != null) o.scaleChanged();
+    }
+
     public boolean isInRange(double percentage) {
         return percentage >= minPercentage && percentage <= maxPercentage;
     }
@@ -61,6 +79,7 @@ public class GradingScale implements Serializable {
     }
     public void setGradeLetter(String gradeLetter) { 
         this.gradeLetter = gradeLetter; 
+        edited();
     }
     
     public double getMinPercentage() { 
@@ -68,6 +87,7 @@ public class GradingScale implements Serializable {
     }
     public void setMinPercentage(double minPercentage) { 
         this.minPercentage = minPercentage; 
+        edited();
     }
     
     public double getMaxPercentage() { 
@@ -75,6 +95,7 @@ public class GradingScale implements Serializable {
     }
     public void setMaxPercentage(double maxPercentage) { 
         this.maxPercentage = maxPercentage; 
+        edited();
     }
     
     public String getDescription() { 
@@ -89,6 +110,7 @@ public class GradingScale implements Serializable {
     }
     public void setGPA(double gpa) { 
         this.gpa = gpa; 
+        edited();
     }
     
     public double getAMarkPercentage() { 
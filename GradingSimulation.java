@@ -0,0 +1,288 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * GradingSimulation class - what-if grading: regrades every recorded mark
+ * under a candidate GradingSystem without saving anything, so an admin can
+ * see the effect of a scale change before committing it
+ *
+ * All marks are first copied into flat arrays (percentage, module, student).
+ * The arrays are then cut into fixed-size chunks that are graded under both
+ * systems on the common fork-join pool (a parallel stream); each chunk
+ * writes only its own range of the grade arrays and fills its own
+ * counters, which are added together at the end, so the workers never
+ * contend while they run.
+ *
+ * A mark passes when its percentage reaches the system's passing
+ * percentage (GradingSystem.isPassed), the same rule as the rest of the
+ * system; the band's letter or grade point does not decide it (a D or an
+ * F- with a grade point can be either side of the line).
+ */
+public class GradingSimulation {
+
+    private static final int CHUNK = 64 * 1024;   // marks per parallel task
+
+    private GradingSimulation() {
+    }
+
+    // ======================================================
+    // RESULTS
+    // ======================================================
+
+    /** How many marks get one grade letter before and after */
+    public static final class GradeCount {
+        private final String gradeLetter;
+        private final long before;
+        private final long after;
+
+        GradeCount(String gradeLetter, long before, long after) {
+            this.gradeLetter = gradeLetter;
+            this.before = before;
+            this.after = after;
+        }
+
+        public String getGradeLetter() { return gradeLetter; }
+        public long getBefore() { return before; }
+        public long getAfter() { return after; }
+        public long getDelta() { return after - before; }
+    }
+
+    /** One module's pass rate before and after */
+    public static final class ModuleDelta {
+        private final String moduleCode;
+        private final String moduleName;
+        private final long marks;
+        private final long passedBefore;
+        private final long passedAfter;
+
+        ModuleDelta(String moduleCode, String moduleName, long marks, long passedBefore, long passedAfter) {
+            this.moduleCode = moduleCode;
+            this.moduleName = moduleName;
+            this.marks = marks;
+            this.passedBefore = passedBefore;
+            this.passedAfter = passedAfter;
+        }
+
+        public String getModuleCode() { return moduleCode; }
+        public String getModuleName() { return moduleName; }
+        public long getMarks() { return marks; }
+        public long getPassedBefore() { return passedBefore; }
+        public long getPassedAfter() { return passedAfter; }
+        public double getPassRateBefore() { return marks == 0 ? 0.0 : passedBefore * 100.0 / marks; }
+        public double getPassRateAfter() { return marks == 0 ? 0.0 : passedAfter * 100.0 / marks; }
+        public double getPassRateChange() { return getPassRateAfter() - getPassRateBefore(); }
+    }
+
+    /** Everything the preview shows */
+    public static final class Result {
+        private final long totalMarks;
+        private final long changedMarks;
+        private final int studentsAffected;
+        private final List<GradeCount> distribution;
+        private final List<ModuleDelta> modules;
+        private final long elapsedMillis;
+
+        Result(long totalMarks, long changedMarks, int studentsAffected,
+               List<GradeCount> distribution, List<ModuleDelta> modules, long elapsedMillis) {
+            this.totalMarks = totalMarks;
+            this.changedMarks = changedMarks;
+            this.studentsAffected = studentsAffected;
+            this.distribution = Collections.unmodifiableList(distribution);
+            this.modules = Collections.unmodifiableList(modules);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getTotalMarks() { return totalMarks; }
+        /** Marks whose grade letter or grade point would change */
+        public long getChangedMarks() { return changedMarks; }
+        /** Students with at least one changed mark */
+        public int getStudentsAffected() { return studentsAffected; }
+        /** Candidate letters in scale order, then letters only the current system has, then "N/A" */
+        public List<GradeCount> getDistribution() { return distribution; }
+        /** Modules whose pass count changes, biggest pass-rate change first */
+        public List<ModuleDelta> getModuleDeltas() { return modules; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    // ======================================================
+    // SIMULATION
+    // ======================================================
+
+    /**
+     * Grade every mark of these assessments under both systems and compare.
+     * Assessments without a positive total mark are skipped, as they are
+     * everywhere else marks are turned into percentages.
+     */
+    public static Result run(GradingSystem current, GradingSystem candidate, Collection<Assessment> assessments) {
+        long start = System.nanoTime();
+
+        // ===== FLATTEN =====
+        // each store is copied once, so marks recorded meanwhile cannot change it under us
+        List<Assessment> graded = new ArrayList<>();
+        List<MarkStore> stores = new ArrayList<>();
+        int count = 0;
+        for (Assessment a : assessments) {
+            Double max = a.getAssessmentType() != null ? a.getTotalMarks() : null;
+            if (max == null || max <= 0) continue;
+            MarkStore store = a.getMarkStore();
+            if (store.isEmpty()) continue;
+            graded.add(a);
+            stores.add(store);
+            count += store.size();
+        }
+        int total = count;
+        double[] pct = new double[total];
+        int[] module = new int[total];
+        int[] student = new int[total];
+        Map<Module, Integer> moduleIndex = new LinkedHashMap<>();
+        int n = 0;
+        for (int g = 0; g < graded.size(); g++) {
+            Assessment a = graded.get(g);
+            MarkStore store = stores.get(g);
+            double scale = 100.0 / a.getTotalMarks();
+            int m = moduleIndex.computeIfAbsent(a.getModule(), k -> moduleIndex.size());
+            for (int slot = 0; slot < store.size(); slot++, n++) {
+                pct[n] = store.markAt(slot) * scale;
+                module[n] = m;
+                student[n] = store.studentIndexAt(slot);
+            }
+        }
+
+        // ===== LETTERS =====
+        // both systems' grade indices mapped onto one list of letters, so
+        // counts can be compared letter by letter
+        List<String> letters = new ArrayList<>();
+        Map<String, Integer> letterIndex = new HashMap<>();
+        Scales after = new Scales(candidate, letters, letterIndex);
+        Scales before = new Scales(current, letters, letterIndex);
+        int notGraded = letterIndex.computeIfAbsent("N/A", k -> { letters.add(k); return letters.size() - 1; });
+        before.notGraded = notGraded;
+        after.notGraded = notGraded;
+
+        // ===== GRADE IN PARALLEL =====
+        int modules = moduleIndex.size();
+        int chunks = (total + CHUNK - 1) / CHUNK;
+        int[] gradeWas = new int[total];
+        int[] gradeNow = new int[total];
+        Tally tally = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    int from = c * CHUNK;
+                    int to = Math.min(total, from + CHUNK);
+                    Tally t = new Tally(letters.size(), modules);
+                    t.count(pct, module, student, gradeWas, gradeNow, from, to, before, after);
+                    return t;
+                })
+                .reduce(Tally::add)
+                .orElseGet(() -> new Tally(letters.size(), modules));
+
+        // ===== RESULT =====
+        List<GradeCount> distribution = new ArrayList<>();
+        for (int l = 0; l < letters.size(); l++) {
+            if (l == notGraded && tally.before[l] == 0 && tally.after[l] == 0) continue;
+            distribution.add(new GradeCount(letters.get(l), tally.before[l], tally.after[l]));
+        }
+        List<ModuleDelta> deltas = new ArrayList<>();
+        for (Map.Entry<Module, Integer> e : moduleIndex.entrySet()) {
+            int m = e.getValue();
+            if (tally.passedBefore[m] == tally.passedAfter[m]) continue;
+            Module mod = e.getKey();
+            deltas.add(new ModuleDelta(mod != null ? mod.getModuleCode() : "", mod != null ? mod.getModuleName() : "(no module)",
+                    tally.moduleMarks[m], tally.passedBefore[m], tally.passedAfter[m]));
+        }
+        deltas.sort(Comparator.comparingDouble((ModuleDelta d) -> -Math.abs(d.getPassRateChange()))
+                .thenComparing(ModuleDelta::getModuleCode));
+
+        return new Result(total, tally.changed, tally.students.cardinality(), distribution, deltas,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * One system's bands as seen by the simulation: letter number and grade
+     * point for each grade index, and the passing percentage
+     */
+    private static final class Scales {
+        final GradingSystem system;
+        final int[] letter;
+        final double[] points;
+        final double passingPercentage;
+        int notGraded;
+
+        Scales(GradingSystem system, List<String> letters, Map<String, Integer> letterIndex) {
+            this.system = system;
+            List<GradingScale> grades = system.getGrades();
+            letter = new int[grades.size()];
+            points = new double[grades.size()];
+            for (int i = 0; i < grades.size(); i++) {
+                GradingScale s = grades.get(i);
+                letter[i] = letterIndex.computeIfAbsent(s.getGradeLetter(), k -> { letters.add(k); return letters.size() - 1; });
+                points[i] = s.getGPA();
+            }
+            passingPercentage = system.getPassingPercentage();
+        }
+    }
+
+    /** Counters for one chunk of marks; chunks are added together at the end */
+    private static final class Tally {
+        final long[] before;
+        final long[] after;
+        final long[] moduleMarks;
+        final long[] passedBefore;
+        final long[] passedAfter;
+        final BitSet students = new BitSet();
+        long changed;
+
+        Tally(int letters, int modules) {
+            before = new long[letters];
+            after = new long[letters];
+            moduleMarks = new long[modules];
+            passedBefore = new long[modules];
+            passedAfter = new long[modules];
+        }
+
+        /**
+         * Grade marks [from..to) under both systems (into this chunk's part
+         * of the shared grade arrays) and count them
+         */
+        void count(double[] pct, int[] module, int[] student, int[] gradeWas, int[] gradeNow,
+                   int from, int to, Scales was, Scales now) {
+            was.system.getGradeIndices(pct, from, to, gradeWas);
+            now.system.getGradeIndices(pct, from, to, gradeNow);
+
+            for (int i = from; i < to; i++) {
+                int g0 = gradeWas[i];
+                int g1 = gradeNow[i];
+                int l0 = g0 == GradingSystem.NOT_GRADED ? was.notGraded : was.letter[g0];
+                int l1 = g1 == GradingSystem.NOT_GRADED ? now.notGraded : now.letter[g1];
+                before[l0]++;
+                after[l1]++;
+
+                int m = module[i];
+                moduleMarks[m]++;
+                if (pct[i] >= was.passingPercentage) passedBefore[m]++;
+                if (pct[i] >= now.passingPercentage) passedAfter[m]++;
+
+                double p0 = g0 == GradingSystem.NOT_GRADED ? Double.NaN : was.points[g0];
+                double p1 = g1 == GradingSystem.NOT_GRADED ? Double.NaN : now.points[g1];
+                if (l0 != l1 || Double.compare(p0, p1) != 0) {
+                    changed++;
+                    if (student[i] >= 0) students.set(student[i]);
+                }
+            }
+        }
+
+        Tally add(Tally other) {
+            for (int i = 0; i < before.length; i++) {
+                before[i] += other.before[i];
+                after[i] += other.after[i];
+            }
+            for (int m = 0; m < moduleMarks.length; m++) {
+                moduleMarks[m] += other.moduleMarks[m];
+                passedBefore[m] += other.passedBefore[m];
+                passedAfter[m] += other.passedAfter[m];
+            }
+            students.or(other.students);
+            changed += other.changed;
+            return this;
+        }
+    }
+}
@@ -1,8 +1,18 @@
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * GradingSystem class - manages the grading scales and grade calculations
+ *
+ * Grading does not walk the scales. They are compiled into a sorted array of
+ * boundaries (see Table) and each percentage is found by binary search.
+ * The table is rebuilt on the next lookup after the scale list or any
+ * scale's range changes (see getRevision). Bands are treated as
+ * continuous: with integer bands such as 80-89 and 90-100, 89.5 is an A,
+ * not "N/A". Only a real hole (nothing between one band's max and the
+ * next band's min, a gap of more than one mark) or a value outside all
+ * bands is ungraded.
  */
 public class GradingSystem implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -11,11 +21,17 @@ public class GradingSystem implements Serializable {
     private String systemName;
     private List<GradingScale> grades;
     private double passingPercentage;
+
+    /** Returned by the index methods for a percentage no band covers */
+    public static final int NOT_GRADED = -1;
+
+    private transient volatile Table table;
+    private final AtomicInteger revision = new AtomicInteger();   // bumped by every scale or list change
     
     public GradingSystem(String systemID, String systemName, double passingPercentage) {
         this.systemID = systemID;
         this.systemName = systemName;
-        this.grades = new ArrayList<>();
+        this.grades = new ScaleList(this);
         this.passingPercentage = passingPercentage;
         initializeDefaultGrades();
     }
@@ -33,21 +49,76 @@ public class GradingSystem implements Serializable {
     }
     
     public String getGradeLetterByPercentage(double percentage) {
-        for (GradingScale grade : grades) {
-            if (grade.isInRange(percentage)) {
-                return grade.getGradeLetter();
-            }
-        }
-        return "N/A";
+        int index = getGradeIndex(percentage);
+        return index == NOT_GRADED ? "N/A" : grades.get(index).getGradeLetter();
     }
     
     public String getGradeDescriptionByPercentage(double percentage) {
-        for (GradingScale grade : grades) {
-            if (grade.isInRange(percentage)) {
-                return grade.getDescription();
-            }
+        int index = getGradeIndex(percentage);
+        return index == NOT_GRADED ? "Not Graded" : grades.get(index).getDescription();
+    }
+
+    /**
+     * Position in getGrades() of the band this percentage falls in, or NOT_GRADED
+     */
+    public int getGradeIndex(double percentage) {
+        return table().lookup(percentage);
+    }
+
+    /**
+     * Grade a whole batch: out[i] = getGradeIndex(percentages[i]).
+     * The table is fetched once, so this is one tight loop for any size.
+     */
+    public void getGradeIndices(double[] percentages, int[] out) {
+        if (out.length < percentages.length) {
+            throw new IllegalArgumentException("out is shorter than percentages");
+        }
+        getGradeIndices(percentages, 0, percentages.length, out);
+    }
+
+    /**
+     * Grade percentages[from..to) into out[from..to), e.g. one chunk of a
+     * batch split across threads
+     */
+    public void getGradeIndices(double[] percentages, int from, int to, int[] out) {
+        Table t = table();
+        for (int i = from; i < to; i++) {
+            out[i] = t.lookup(percentages[i]);
+        }
+    }
+
+    public int[] getGradeIndices(double[] percentages) {
+        int[] out = new int[percentages.length];
+        getGradeIndices(percentages, out);
+        return out;
+    }
+
+    /**
+     * Changes whenever this system's scale list or any scale in it changes,
+     * so callers caching grades (e.g. GpaEngine) can tell when to regrade.
+     * Each system counts its own changes: editing another system's scales,
+     * e.g. a what-if copy, leaves this one alone.
+     */
+    public long getRevision() {
+        return revision.get();
+    }
+
+    /** Called by a scale in this system's list when it is edited */
+    void scaleChanged() {
+        revision.incrementAndGet();
+    }
+
+    /**
+     * The compiled table, rebuilt if the scales changed since it was made
+     */
+    private Table table() {
+        Table t = table;
+        int current = revision.get();   // read first: a change during the build makes the next call rebuild
+        if (t == null || t.revision != current) {
+            t = new Table(grades, current);
+            table = t;
         }
-        return "Not Graded";
+        return t;
     }
     
     public boolean isPassed(double percentage) {
@@ -83,6 +154,165 @@ public class GradingSystem implements Serializable {
         this.passingPercentage = passingPercentage; 
     }
     
+    // ======================================================
+    // COMPILED LOOKUP
+    // ======================================================
+
+    /**
+     * The scales as sorted half-open intervals: from[k] up to (not including)
+     * from[k + 1] is graded grade[k], an index into the scale list, or
+     * NOT_GRADED for a hole. Everything below from[0] is NOT_GRADED, and
+     * the last entry is always the NOT_GRADED interval above the top band.
+     *
+     * For speed there is also one entry per whole percent (bucket): the
+     * interval that percent falls in. A lookup starts there and moves on
+     * at most past the boundaries inside that one percent, which is
+     * almost always none, so batch grading barely branches.
+     */
+    private static final class Table {
+        private static final int MAX_BUCKETS = 100_000;
+
+        final double[] from;
+        final int[] grade;
+        final double bucketBase;   // percentage of bucket 0
+        final int[] bucket;        // interval index for each whole percent from bucketBase
+        final int revision;        // the system's revision the table was built from
+
+        Table(List<GradingScale> scales, int revision) {
+            this.revision = revision;
+
+            // bands in order of their minimum (a stable sort, so on equal
+            // minimums the one listed first wins)
+            Integer[] order = new Integer[scales.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingDouble(i -> scales.get(i).getMinPercentage()));
+
+            double[] f = new double[order.length * 2 + 1];
+            int[] g = new int[order.length * 2 + 1];
+            int n = 0;
+            double coveredTo = Double.NEGATIVE_INFINITY;   // highest max so far
+            for (int k = 0; k < order.length; k++) {
+                GradingScale s = scales.get(order[k]);
+                double min = s.getMinPercentage();
+                double max = s.getMaxPercentage();
+                if (max < min || max <= coveredTo) continue;   // empty, or inside a lower band
+
+                double start = min;
+                if (n > 0 && min > coveredTo + 1) {
+                    // a real hole between the previous band and this one
+                    f[n] = Math.nextUp(coveredTo);
+                    g[n++] = NOT_GRADED;
+                } else if (n > 0) {
+                    // adjacent: the band below runs up to this minimum;
+                    // overlapping: the band below keeps its whole range
+                    start = Math.max(min, Math.nextUp(coveredTo));
+                }
+                f[n] = start;
+                g[n++] = order[k];
+                coveredTo = max;
+            }
+            if (n > 0) {
+                f[n] = Math.nextUp(coveredTo);   // above the top band
+                g[n++] = NOT_GRADED;
+            }
+            this.from = Arrays.copyOf(f, n);
+            this.grade = Arrays.copyOf(g, n);
+
+            double span = n > 0 ? Math.floor(from[n - 1]) - Math.floor(from[0]) + 1 : 0;
+            if (n > 0 && span <= MAX_BUCKETS) {
+                bucketBase = Math.floor(from[0]);
+                bucket = new int[(int) span];
+                for (int b = 0; b < bucket.length; b++) bucket[b] = search(bucketBase + b);
+            } else {
+                bucketBase = 0;
+                bucket = new int[0];
+            }
+        }
+
+        int lookup(double percentage) {
+            double offset = percentage - bucketBase;
+            if (offset >= 0 && offset < bucket.length) {
+                int k = bucket[(int) offset];
+                while (k + 1 < from.length && from[k + 1] <= percentage) k++;
+                return k < 0 ? NOT_GRADED : grade[k];
+            }
+            int k = search(percentage);   // outside the buckets (or NaN)
+            return k < 0 ? NOT_GRADED : grade[k];
+        }
+
+        /**
+         * Index of the last interval starting at or below the percentage, or -1
+         */
+        private int search(double percentage) {
+            // last interval starting at or below the percentage
+            int lo = 0, hi = from.length - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (from[mid] <= percentage) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;   // NaN never compares <=, so it gets -1
+        }
+    }
+
+    /**
+     * The scale list handed out by getGrades(). Callers add, remove and
+     * clear it directly, so every change bumps the owning system's revision,
+     * which tells table() to recompile. A scale added here belongs to this
+     * system (its edits bump this revision) until it is removed again.
+     */
+    private static final class ScaleList extends AbstractList<GradingScale> implements RandomAccess, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<GradingScale> items = new ArrayList<>();
+        private final GradingSystem owner;
+
+        ScaleList(GradingSystem owner) {
+            this.owner = owner;
+        }
+
+        @Override public GradingScale get(int index) { return items.get(index); }
+        @Override public int size() { return items.size(); }
+
+        @Override
+        public GradingScale set(int index, GradingScale scale) {
+            GradingScale old = items.set(index, scale);
+            release(old);
+            claim(scale);
+            owner.scaleChanged();
+            return old;
+        }
+
+        @Override
+        public void add(int index, GradingScale scale) {
+            modCount++;
+            items.add(index, scale);
+            claim(scale);
+            owner.scaleChanged();
+        }
+
+        @Override
+        public GradingScale remove(int index) {
+            modCount++;
+            GradingScale old = items.remove(index);
+            release(old);
+            owner.scaleChanged();
+            return old;
+        }
+
+        private void claim(GradingScale scale) {
+            if (scale != null) scale.setOwner(owner);
+        }
+
+        private void release(GradingScale scale) {
+            if (scale != null && scale.getOwner() == owner && !items.contains(scale)) scale.setOwner(null);
+        }
+    }
+
     @Override
     public String toString() {
         return "GradingSystem{" +
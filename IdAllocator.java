@@ -0,0 +1,78 @@
+import java.util.*;
+
+/**
+ * IdAllocator class - hands out IDs like "STU012" or "ASM105" from a
+ * per-prefix counter instead of scanning every existing ID
+ *
+ * The last number used for each prefix is kept in data/sequences.txt
+ * ("PREFIX|number" per line) and its change log. On load the counters are
+ * also raised to the highest ID found in the data files, so an old or
+ * missing sequences file can never cause a duplicate.
+ *
+ * peek() shows the ID the next record would get (for forms) without using
+ * it up; reserve() is for the moment a record is actually created, so two
+ * admins creating records at the same time always get different IDs. A
+ * reservation only queues one change log line (coalesced per prefix by the
+ * writer thread), not a rewrite of the whole file. If the program dies
+ * before that line is written, the number is recovered from the saved
+ * record on the next load, or was never used by one.
+ */
+public class IdAllocator {
+
+    private final Map<String, Integer> lastUsed = new HashMap<>();
+
+    /**
+     * Read the saved counters (missing file = start from zero)
+     */
+    public synchronized void load() {
+        for (String line : FileManager.loadSequences()) {
+            int bar = line.indexOf('|');
+            if (bar <= 0) continue;
+            try {
+                raise(line.substring(0, bar), Integer.parseInt(line.substring(bar + 1).trim()));
+            } catch (NumberFormatException ignored) {}
+        }
+    }
+
+    /**
+     * Make sure an existing ID (e.g. "LEC004") is never handed out again.
+     * The prefix is the leading letters, the number is the rest.
+     */
+    public synchronized void observe(String id) {
+        if (id == null) return;
+        int i = 0;
+        while (i < id.length() && Character.isLetter(id.charAt(i))) i++;
+        if (i == 0 || i == id.length()) return;
+        try {
+            raise(id.substring(0, i), Integer.parseInt(id.substring(i)));
+        } catch (NumberFormatException ignored) {}
+    }
+
+    /**
+     * The ID reserve() would return now, e.g. peek("CL") -> "CL006".
+     * Uses nothing up, so it is only a preview: someone else may take it first.
+     */
+    public synchronized String peek(String prefix) {
+        return format(prefix, lastUsed.getOrDefault(prefix, 0) + 1);
+    }
+
+    /**
+     * Reserve and return the next ID for this prefix, e.g. reserve("CL") -> "CL006"
+     */
+    public synchronized String reserve(String prefix) {
+        int value = lastUsed.getOrDefault(prefix, 0) + 1;
+        lastUsed.put(prefix, value);
+        FileManager.saveSequence(prefix, value);
+        return format(prefix, value);
+    }
+
+    private void raise(String prefix, int value) {
+        if (value > lastUsed.getOrDefault(prefix, 0)) {
+            lastUsed.put(prefix, value);
+        }
+    }
+
+    private static String format(String prefix, int value) {
+        return String.format("%s%03d", prefix, value);
+    }
+}
@@ -88,35 +88,28 @@ public class Lecturer extends User implements Serializable {
     }
     
     public void viewAssessmentSummary(Assessment assessment, GradingSystem gradingSystem) {
-    if (assessment.getStudentMarks().isEmpty()) {
+    MarkStore marks = assessment.getMarkStore();
+    if (marks.isEmpty()) {
         System.out.println("No marks entered yet.");
         return;
     }
 
-    double total = 0;
-    double max = Double.MIN_VALUE;
-    double min = Double.MAX_VALUE;
-    int passCount = 0;
+    // running statistics: nothing here walks the marks
+    MarkStats stats = assessment.getStats(gradingSystem);
+    long passCount = stats.getPassCount();
 
-    for (double mark : assessment.getStudentMarks().values()) {
-        total += mark;
-        max = Math.max(max, mark);
-        min = Math.min(min, mark);
-
-        double percentage = (mark / assessment.getTotalMarks()) * 100;
-        if (percentage >= gradingSystem.getPassingPercentage()) {
-            passCount++;
-        }
-    }
-
-    int totalStudents = assessment.getStudentMarks().size();
-    double average = total / totalStudents;
+    int totalStudents = marks.size();
+    double average = marks.average();
+    double max = marks.max();
+    double min = marks.min();
+    double stdDev = stats.getStdDev() * assessment.getTotalMarks() / 100;
 
     System.out.println("*** Assessment Summary ***");
     System.out.println("Assessment: " + assessment.getAssessmentName());
     System.out.println("Average Marks: " + average);
     System.out.println("Highest Marks: " + max);
     System.out.println("Lowest Marks: " + min);
+    System.out.println("Standard Deviation: " + stdDev);
 System.out.println("Pass Rate: " + passCount + "/" + totalStudents);
 }
     
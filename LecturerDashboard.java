@@ -144,14 +144,20 @@ tabbedPane.addTab("View Feedback", viewFeedbackPanel);
         JPanel btnRow = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton saveBtn = new JButton("Save Changes");
         saveBtn.addActionListener(e -> {
-            lecturer.setFullName(nameField.getText());
-            lecturer.setEmail(emailField.getText());
-            lecturer.setDepartment(departmentField.getText());
-            lecturer.setGender((String) genderBox.getSelectedItem());
-            lecturer.setAge((Integer) ageSpinner.getValue());
-
-            
-            systemManager.updateUser(lecturer);
+            String name = nameField.getText();
+            String email = emailField.getText();
+            String department = departmentField.getText();
+            String newGender = (String) genderBox.getSelectedItem();
+            int age = (Integer) ageSpinner.getValue();
+
+            systemManager.editUser(lecturer.getUserID(), u -> {
+                Lecturer l = (Lecturer) u;
+                l.setFullName(name);
+                l.setEmail(email);
+                l.setDepartment(department);
+                l.setGender(newGender);
+                l.setAge(age);
+            });
 
             JOptionPane.showMessageDialog(this, "✓ Profile updated and saved!");
         });
@@ -367,8 +373,7 @@ private Date parseDate(String yyyyMmDd) {
             double marks = Double.parseDouble(marksField.getText().trim());
 
             
-            assessmentObj.recordMarks(studentObj, marks);
-            boolean ok = systemManager.updateAssessment(assessmentObj);
+            boolean ok = systemManager.recordMarks(assessmentObj.getAssessmentID(), studentObj.getStudentID(), marks);
 
             if (ok) {
                 JOptionPane.showMessageDialog(this,
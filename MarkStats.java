@@ -0,0 +1,168 @@
+/**
+ * MarkStats class - running statistics of a set of marks, as percentages
+ * of the assessment's total
+ *
+ * Count, mean and variance are kept with Welford's method, so adding or
+ * removing one mark is O(1) and numerically stable (no sum of squares).
+ * Min and max are exact; removing the current min or max marks the range
+ * stale and the owner rebuilds (see Assessment.getStats). There is also a
+ * histogram of 20 fixed 5% buckets (0-4.99 ... 95-100) and the number of
+ * marks at or above the pass percentage the stats were built for.
+ *
+ * Stats of different assessments combine with merge() (Chan's parallel
+ * formula), which is how module statistics are made without reading any
+ * marks.
+ */
+public class MarkStats {
+
+    public static final int BUCKETS = 20;
+    public static final double BUCKET_WIDTH = 100.0 / BUCKETS;
+
+    private final double passPercentage;
+    private long count;
+    private double mean;
+    private double m2;   // sum of squared differences from the mean
+    private double min;
+    private double max;
+    private boolean rangeStale;
+    private long passCount;
+    private final long[] histogram = new long[BUCKETS];
+
+    public MarkStats(double passPercentage) {
+        this.passPercentage = passPercentage;
+    }
+
+    // ======================================================
+    // UPDATES
+    // ======================================================
+
+    public void add(double percentage) {
+        count++;
+        double delta = percentage - mean;
+        mean += delta / count;
+        m2 += delta * (percentage - mean);
+        if (count == 1) {
+            min = percentage;
+            max = percentage;
+        } else {
+            if (percentage < min) min = percentage;
+            if (percentage > max) max = percentage;
+        }
+        histogram[bucketOf(percentage)]++;
+        if (percentage >= passPercentage) passCount++;
+    }
+
+    /**
+     * Take out a mark that was added before (e.g. the old value of an
+     * overwritten mark)
+     */
+    public void remove(double percentage) {
+        if (count == 0) return;
+        histogram[bucketOf(percentage)]--;
+        if (percentage >= passPercentage) passCount--;
+        if (count == 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            rangeStale = false;
+            return;
+        }
+        double oldMean = mean;
+        count--;
+        mean = (oldMean * (count + 1) - percentage) / count;
+        m2 = Math.max(0.0, m2 - (percentage - oldMean) * (percentage - mean));
+        if (percentage <= min || percentage >= max) rangeStale = true;
+    }
+
+    /**
+     * These stats and another set together, as if every mark had been added
+     * to one. The pass count is only meaningful if both used the same pass
+     * percentage (this one's is kept).
+     */
+    public MarkStats merge(MarkStats other) {
+        MarkStats result = copy();
+        result.include(other);
+        return result;
+    }
+
+    /**
+     * Add another set of stats into this one (merge without the copy, for
+     * callers accumulating many)
+     */
+    public void include(MarkStats other) {
+        if (other == null || other.count == 0) return;
+        if (count == 0) {
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+        } else {
+            long n = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / n;
+            m2 += other.m2 + delta * delta * count * other.count / n;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        count += other.count;
+        rangeStale |= other.rangeStale;
+        passCount += other.passCount;
+        for (int b = 0; b < BUCKETS; b++) histogram[b] += other.histogram[b];
+    }
+
+    public MarkStats copy() {
+        MarkStats c = new MarkStats(passPercentage);
+        c.count = count;
+        c.mean = mean;
+        c.m2 = m2;
+        c.min = min;
+        c.max = max;
+        c.rangeStale = rangeStale;
+        c.passCount = passCount;
+        System.arraycopy(histogram, 0, c.histogram, 0, BUCKETS);
+        return c;
+    }
+
+    // ======================================================
+    // READING
+    // ======================================================
+
+    public long getCount() { return count; }
+    public boolean isEmpty() { return count == 0; }
+    public double getMean() { return count == 0 ? 0.0 : mean; }
+
+    /** Population variance of the percentages */
+    public double getVariance() { return count == 0 ? 0.0 : m2 / count; }
+
+    public double getStdDev() { return Math.sqrt(getVariance()); }
+    public double getMin() { return count == 0 ? 0.0 : min; }
+    public double getMax() { return count == 0 ? 0.0 : max; }
+
+    /** True after the min or max was removed; min/max may then be too wide */
+    public boolean isRangeStale() { return rangeStale; }
+
+    public double getPassPercentage() { return passPercentage; }
+    public long getPassCount() { return passCount; }
+
+    /** Share of marks that pass, 0-100 */
+    public double getPassRate() { return count == 0 ? 0.0 : passCount * 100.0 / count; }
+
+    /** Marks per 5% bucket; bucket b covers b*5 up to (b+1)*5, the last one includes 100 */
+    public long[] getHistogram() { return histogram.clone(); }
+
+    public static String bucketLabel(int bucket) {
+        int from = (int) (bucket * BUCKET_WIDTH);
+        return from + "-" + (bucket == BUCKETS - 1 ? 100 : (int) ((bucket + 1) * BUCKET_WIDTH) - 1);
+    }
+
+    private static int bucketOf(double percentage) {
+        if (!(percentage > 0)) return 0;   // also NaN
+        return Math.min(BUCKETS - 1, (int) (percentage / BUCKET_WIDTH));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MarkStats{count=%d, mean=%.2f, sd=%.2f, min=%.2f, max=%.2f, pass=%d}",
+                count, getMean(), getStdDev(), getMin(), getMax(), passCount);
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * MarkStore class - the marks of one assessment, kept in primitive arrays
+ *
+ * Every student ID is given a small dense number once for the whole program
+ * (see indexOf). A store then keeps, per marked student, that number in an
+ * int[] and the mark in a double[] next to it, plus a tiny open-addressing
+ * table (int[]) to find a student's slot. No Double objects and no String keys
+ * are kept per assessment, so 500 marks take a few KB.
+ *
+ * Count, sum, min and max are updated as marks are added, so the average
+ * and the range are O(1). When an existing mark is overwritten with a new
+ * value the sum is corrected straight away; min/max are only recomputed on
+ * the next read if the old value was the min or the max.
+ *
+ * Marks are kept in the order they were first entered.
+ *
+ * A store is not thread-safe. Assessment only changes and reads its own
+ * store under its monitor and hands out copies (see copy()).
+ */
+public class MarkStore implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // ===== program-wide student ID <-> dense index =====
+    private static final Map<String, Integer> INDEX_BY_ID = new HashMap<>();
+    private static String[] idByIndex = new String[1024];
+
+    /**
+     * Dense number for a student ID, assigned on first use
+     */
+    public static synchronized int indexOf(String studentID) {
+        Integer index = INDEX_BY_ID.get(studentID);
+        if (index != null) return index;
+        int next = INDEX_BY_ID.size();
+        if (next == idByIndex.length) {
+            idByIndex = Arrays.copyOf(idByIndex, next * 2);
+        }
+        idByIndex[next] = studentID;
+        INDEX_BY_ID.put(studentID, next);
+        return next;
+    }
+
+    /**
+     * Dense number for a student ID, or -1 if it has never been seen
+     */
+    public static synchronized int findIndex(String studentID) {
+        Integer index = INDEX_BY_ID.get(studentID);
+        return index != null ? index : -1;
+    }
+
+    public static synchronized String idOf(int index) {
+        return idByIndex[index];
+    }
+
+    // ===== per-assessment storage =====
+    private transient int[] students = new int[4];   // dense student index per slot
+    private transient double[] marks = new double[4]; // mark per slot
+    private transient int[] table = new int[8];       // slot + 1 by hash of student index, 0 = free
+    private transient int size;
+
+    private transient double sum;
+    private transient double min;
+    private transient double max;
+    private transient boolean rangeStale;             // min/max need recomputing
+
+    /**
+     * Set (or replace) a student's mark. Returns the mark it replaced, or
+     * NaN if the student had none.
+     */
+    public double put(String studentID, double mark) {
+        int student = indexOf(studentID);
+        int slot = slotOf(student);
+        if (slot >= 0) {
+            double old = marks[slot];
+            marks[slot] = mark;
+            sum += mark - old;
+            if (old == min || old == max) rangeStale = true;
+            else widenRange(mark);
+            return old;
+        }
+
+        if (size == students.length) {
+            students = Arrays.copyOf(students, size * 2);
+            marks = Arrays.copyOf(marks, size * 2);
+        }
+        students[size] = student;
+        marks[size] = mark;
+        size++;
+        if ((size << 1) > table.length) rehash(table.length << 1);
+        else insert(student, size - 1);
+
+        sum += mark;
+        if (size == 1) {
+            min = mark;
+            max = mark;
+        } else {
+            widenRange(mark);
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * An independent copy of this store, e.g. for walking every mark while
+     * the original keeps changing
+     */
+    public MarkStore copy() {
+        MarkStore c = new MarkStore();
+        c.students = Arrays.copyOf(students, Math.max(4, size));
+        c.marks = Arrays.copyOf(marks, Math.max(4, size));
+        c.table = table.clone();
+        c.size = size;
+        c.sum = sum;
+        c.min = min;
+        c.max = max;
+        c.rangeStale = rangeStale;
+        return c;
+    }
+
+    /**
+     * A student's mark, or null if the student has no mark
+     */
+    public Double get(String studentID) {
+        int student = findIndex(studentID);
+        if (student < 0) return null;
+        int slot = slotOf(student);
+        return slot >= 0 ? marks[slot] : null;
+    }
+
+    public boolean contains(String studentID) {
+        int student = findIndex(studentID);
+        return student >= 0 && slotOf(student) >= 0;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public double sum() { return sum; }
+
+    public double average() {
+        return size == 0 ? 0.0 : sum / size;
+    }
+
+    public double min() {
+        refreshRange();
+        return size == 0 ? 0.0 : min;
+    }
+
+    public double max() {
+        refreshRange();
+        return size == 0 ? 0.0 : max;
+    }
+
+    // slot-based access, for walking every mark without creating objects
+    public String studentAt(int slot) { return idOf(students[slot]); }
+    public double markAt(int slot) { return marks[slot]; }
+
+    // dense-index access, for callers that look the student up once (see findIndex)
+    public int studentIndexAt(int slot) { return students[slot]; }
+    public int slotOfIndex(int student) { return student < 0 ? -1 : slotOf(student); }
+
+    /**
+     * Number of marks >= threshold
+     */
+    public int countAtLeast(double threshold) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (marks[i] >= threshold) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Read-only Map view (studentID -> mark), for code that still wants a Map
+     */
+    public Map<String, Double> asMap() {
+        return new AbstractMap<String, Double>() {
+            @Override public int size() { return size; }
+            @Override public boolean containsKey(Object key) {
+                return key instanceof String && MarkStore.this.contains((String) key);
+            }
+            @Override public Double get(Object key) {
+                return key instanceof String ? MarkStore.this.get((String) key) : null;
+            }
+            @Override public Set<Map.Entry<String, Double>> entrySet() {
+                return new AbstractSet<Map.Entry<String, Double>>() {
+                    @Override public int size() { return size; }
+                    @Override public Iterator<Map.Entry<String, Double>> iterator() {
+                        return new Iterator<Map.Entry<String, Double>>() {
+                            private int next = 0;
+                            @Override public boolean hasNext() { return next < size; }
+                            @Override public Map.Entry<String, Double> next() {
+                                if (next >= size) throw new NoSuchElementException();
+                                int slot = next++;
+                                return new AbstractMap.SimpleImmutableEntry<>(studentAt(slot), marks[slot]);
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    // ======================================================
+    // HELPERS
+    // ======================================================
+
+    private int slotOf(int student) {
+        int mask = table.length - 1;
+        for (int i = hash(student) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0) return -1;
+            if (students[entry - 1] == student) return entry - 1;
+        }
+    }
+
+    private void insert(int student, int slot) {
+        int mask = table.length - 1;
+        int i = hash(student) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = slot + 1;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        for (int slot = 0; slot < size; slot++) insert(students[slot], slot);
+    }
+
+    private static int hash(int student) {
+        return student * 0x9E3779B9 >>> 16 ^ student;
+    }
+
+    private void widenRange(double mark) {
+        if (rangeStale) return;
+        if (mark < min) min = mark;
+        if (mark > max) max = mark;
+    }
+
+    private void refreshRange() {
+        if (!rangeStale || size == 0) return;
+        min = marks[0];
+        max = marks[0];
+        for (int i = 1; i < size; i++) {
+            if (marks[i] < min) min = marks[i];
+            if (marks[i] > max) max = marks[i];
+        }
+        rangeStale = false;
+    }
+
+    // dense indexes only mean something inside this program, so store IDs
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(studentAt(i));
+            out.writeDouble(marks[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        students = new int[4];
+        marks = new double[4];
+        table = new int[8];
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) put(in.readUTF(), in.readDouble());
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PersistenceWriter class - writes change log entries on a background thread
+ *
+ * ChangeLog.put/remove only queue their line here, so the thread that made
+ * the change (usually the Swing EDT) does no file I/O. The "persistence"
+ * thread takes everything that is waiting, groups it by log file and writes
+ * each file once (group commit). Entries for the same record in one batch
+ * are coalesced: only the last one is written, because replay keeps the
+ * last entry per ID anyway. So 300 quick updates to one assessment become
+ * one line, not 300.
+ *
+ * If a log file cannot be written (disk full, permissions, ...) its entries
+ * are kept and tried again with the next batch, or after RETRY_DELAY_MS if
+ * nothing else arrives. Entries made obsolete by a full rewrite of their
+ * log in the meantime are dropped (see ChangeLog.appendBatch).
+ *
+ * The queue is bounded; when it is full, callers wait for room.
+ * flush() waits until everything queued so far is written and says whether
+ * it was: it returns false instead of waiting while writes are failing or
+ * if the thread has died. shutdown() drains the queue and stops the thread;
+ * after that entries are written straight away on the caller's thread.
+ */
+public class PersistenceWriter {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    /** One queued log line */
+    private static class Entry {
+        final ChangeLog log;
+        final String key;    // record ID, or null if it cannot be coalesced
+        final String line;
+        final long rewrites; // the log's rewrite count when the change was made
+        final long seq;
+
+        Entry(ChangeLog log, String key, String line, long rewrites, long seq) {
+            this.log = log;
+            this.key = key;
+            this.line = line;
+            this.rewrites = rewrites;
+            this.seq = seq;
+        }
+    }
+
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Object submitLock = new Object();  // keeps queue order = seq order
+    private final Object progress = new Object();    // guards written and failing
+    private volatile long enqueued;   // seq of the last queued entry
+    private long written;             // every entry up to this seq is written
+    private boolean failing;          // some entries could not be written and are kept
+    private volatile boolean running = true;
+    private volatile boolean dead;    // the thread has stopped (shut down, or died)
+    private final List<Entry> retry = new ArrayList<>();   // failed entries, oldest first
+    private final Thread thread;
+
+    public PersistenceWriter() {
+        thread = new Thread(this::run, "persistence");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue one line for a change log. key is the record ID used for coalescing.
+     */
+    public void submit(ChangeLog log, String key, String line) {
+        long rewrites = log.getRewrites();
+        synchronized (submitLock) {
+            if (running && !dead) {
+                Entry entry = new Entry(log, key, line, rewrites, enqueued + 1);
+                boolean interrupted = false;
+                boolean queued = false;
+                while (!dead) {
+                    try {
+                        if (queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                            queued = true;
+                            break;
+                        }
+                    } catch (InterruptedException e) {
+                        interrupted = true;   // keep waiting, the change must not be lost
+                    }
+                }
+                if (interrupted) Thread.currentThread().interrupt();
+                if (queued) {
+                    enqueued = entry.seq;
+                    return;
+                }
+            }
+        }
+        // shut down (or the thread died) - write it on this thread instead
+        try {
+            log.appendBatch(Collections.singletonList(line), rewrites);
+        } catch (IOException e) {
+            System.err.println("Error appending to " + log.getLogFile() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wait until every entry queued before this call is written to its log file.
+     * Returns false if some of them are not written: writing them failed (they
+     * are kept and retried), the writer thread has died, or the wait was
+     * interrupted.
+     */
+    public boolean flush() {
+        if (Thread.currentThread() == thread) return true;   // the writer never waits for itself
+        long target = enqueued;
+        synchronized (progress) {
+            while (written < target) {
+                if (failing || dead) return false;
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write everything still queued and stop the thread. Returns false if some
+     * entries could still not be written (they are reported on System.err).
+     */
+    public boolean shutdown() {
+        synchronized (submitLock) {
+            running = false;
+        }
+        flush();
+        thread.interrupt();
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            System.err.println("Persistence writer did not stop; queued changes may not be written");
+            return false;
+        }
+
+        // the thread is gone: one last try at whatever it left behind, on this thread
+        List<Entry> left = new ArrayList<>(retry);
+        retry.clear();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            write(left);
+        }
+        for (Entry e : retry) {
+            System.err.println("Change not written to " + e.log.getLogFile() + ": " + e.line);
+        }
+        return retry.isEmpty();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>();
+        try {
+            while (true) {
+                Entry first;
+                try {
+                    first = retry.isEmpty() ? queue.take() : queue.poll(RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    if (!running && queue.isEmpty()) return;
+                    continue;
+                }
+                batch.addAll(retry);   // failed entries go first, so per log the order is kept
+                retry.clear();
+                if (first != null) batch.add(first);
+                queue.drainTo(batch);
+                write(batch);
+                markWritten(batch.get(batch.size() - 1).seq);
+                batch.clear();
+            }
+        } finally {
+            // also when an Error kills the thread: keep what was in hand for shutdown()
+            if (!batch.isEmpty()) {
+                retry.removeAll(batch);
+                retry.addAll(batch);
+                retry.sort(Comparator.comparingLong(entry -> entry.seq));
+            }
+            dead = true;
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Write one batch: per log file, the last entry for each record, in order.
+     * Entries of a log that could not be written are moved to retry.
+     */
+    private void write(List<Entry> batch) {
+        Map<ChangeLog, Map<Object, Entry>> byLog = new LinkedHashMap<>();
+        for (Entry e : batch) {
+            Map<Object, Entry> entries = byLog.computeIfAbsent(e.log, k -> new LinkedHashMap<>());
+            Object key = e.key != null ? e.key : new Object();   // unkeyed lines are never merged
+            entries.remove(key);   // re-insert so the line keeps the position of its latest change
+            entries.put(key, e);
+        }
+        for (Map.Entry<ChangeLog, Map<Object, Entry>> e : byLog.entrySet()) {
+            ChangeLog log = e.getKey();
+            List<Entry> entries = new ArrayList<>(e.getValue().values());
+            try {
+                // entries from before and after a rewrite of the log are appended separately
+                int from = 0;
+                for (int i = 1; i <= entries.size(); i++) {
+                    if (i == entries.size() || entries.get(i).rewrites != entries.get(from).rewrites) {
+                        List<String> lines = new ArrayList<>(i - from);
+                        for (Entry entry : entries.subList(from, i)) lines.add(entry.line);
+                        log.appendBatch(lines, entries.get(from).rewrites);
+                        from = i;
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                System.err.println("Error writing " + log.getLogFile() + " (will retry): " + ex.getMessage());
+                retry.addAll(entries);   // a group already appended is appended again; replay keeps the last
+            }
+        }
+        retry.sort(Comparator.comparingLong(entry -> entry.seq));
+    }
+
+    /**
+     * Everything up to lastSeq is written, except what is waiting in retry
+     */
+    private void markWritten(long lastSeq) {
+        synchronized (progress) {
+            long upTo = retry.isEmpty() ? lastSeq : retry.get(0).seq - 1;
+            if (upTo > written) written = upTo;
+            failing = !retry.isEmpty();
+            progress.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.*;
+
+/**
+ * QuantileSketch class - median, quartiles and percentile ranks of a set of
+ * marks (as percentages) without keeping or sorting every mark
+ *
+ * This is a KLL sketch. Values go into level 0; when the levels together
+ * hold more than their capacity, the lowest full level is sorted and every
+ * other value (starting at a random one of the first two) moves up a
+ * level, where each value stands for twice as many marks. Capacities
+ * shrink by 2/3 per level below the top, so a sketch holds about 3 x k values
+ * whatever the number of marks, and the rank error is around 1.7/k of the
+ * count (about 1% with the default k of 200).
+ *
+ * Until the first compaction nothing has been thrown away and answers are
+ * exact (isExact()), so small classes - up to k marks - get exact
+ * medians and ranks. Sketches merge (merge/include), so assessment sketches
+ * combine into module and department sketches with the same error bound.
+ * A sketch cannot take a value back out; Assessment rebuilds its sketch
+ * when a mark is overwritten.
+ */
+public class QuantileSketch {
+
+    public static final int DEFAULT_K = 200;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int[] capacities;   // per level, recomputed when a level is added
+    private int retained;       // values held over all levels
+    private int room;           // sum of capacities
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean exact = true;
+    private final Random random = new Random(0x5EED);   // repeatable compactions
+
+    // sorted (value, weight) view for queries, dropped on every change
+    private double[] sortedValues;
+    private long[] cumulative;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+        this.k = k;
+        levels[0] = new double[MIN_CAPACITY];   // grows as needed, so small sketches stay small
+        updateCapacities();
+    }
+
+    // ======================================================
+    // UPDATES
+    // ======================================================
+
+    public void add(double percentage) {
+        if (Double.isNaN(percentage)) return;
+        append(0, percentage);
+        count++;
+        if (count == 1 || percentage < min) min = percentage;
+        if (count == 1 || percentage > max) max = percentage;
+        sortedValues = null;
+        compress();
+    }
+
+    /**
+     * These marks and another sketch's together
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        QuantileSketch result = copy();
+        result.include(other);
+        return result;
+    }
+
+    /**
+     * Add another sketch into this one (merge without the copy)
+     */
+    public void include(QuantileSketch other) {
+        if (other == null || other.count == 0) return;
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) append(h, other.levels[h][i]);
+        }
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        count += other.count;
+        exact &= other.exact;
+        sortedValues = null;
+        compress();
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch c = new QuantileSketch(k);
+        c.levels = new double[levels.length][];
+        for (int h = 0; h < levels.length; h++) c.levels[h] = levels[h].clone();
+        c.sizes = sizes.clone();
+        c.capacities = capacities.clone();
+        c.retained = retained;
+        c.room = room;
+        c.count = count;
+        c.min = min;
+        c.max = max;
+        c.exact = exact;
+        return c;
+    }
+
+    // ======================================================
+    // QUERIES
+    // ======================================================
+
+    public long getCount() { return count; }
+    public boolean isEmpty() { return count == 0; }
+
+    /** True while every mark is still held, i.e. answers are exact */
+    public boolean isExact() { return exact; }
+
+    public double getMin() { return count == 0 ? Double.NaN : min; }
+    public double getMax() { return count == 0 ? Double.NaN : max; }
+
+    /**
+     * The value at this fraction of the marks (0 = min, 0.5 = median,
+     * 1 = max): the smallest value with at least q of the marks at or
+     * below it. NaN if empty.
+     */
+    public double getQuantile(double q) {
+        if (count == 0) return Double.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+        prepare();
+        long target = Math.max(1, (long) Math.ceil(q * count - 1e-9));   // 0.1 * 150 is 15.000000000000002
+        int i = Arrays.binarySearch(cumulative, target);
+        if (i < 0) i = -i - 1;
+        return sortedValues[Math.min(i, sortedValues.length - 1)];
+    }
+
+    public double getMedian() { return getQuantile(0.5); }
+    public double getLowerQuartile() { return getQuantile(0.25); }
+    public double getUpperQuartile() { return getQuantile(0.75); }
+
+    /**
+     * Share of marks (0-100) below this value, counting marks equal to it
+     * as half below: a value in the middle of the cohort ranks about 50
+     */
+    public double getPercentileRank(double percentage) {
+        if (count == 0 || Double.isNaN(percentage)) return Double.NaN;
+        prepare();
+        long below = weightBelow(percentage, false);
+        long atOrBelow = weightBelow(percentage, true);
+        return (below + (atOrBelow - below) / 2.0) * 100.0 / count;
+    }
+
+    /** Values held right now (for sizing and tests); about 3 x k at most */
+    public int getRetainedCount() {
+        return retained;
+    }
+
+    // total weight of retained values < x (or <= x)
+    private long weightBelow(double x, boolean inclusive) {
+        int lo = 0, hi = sortedValues.length;   // first index past x
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedValues[mid] < x || (inclusive && sortedValues[mid] == x)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo == 0 ? 0 : cumulative[lo - 1];
+    }
+
+    /**
+     * Sort the retained values once, with running weights, for queries
+     */
+    private void prepare() {
+        if (sortedValues != null) return;
+        int n = getRetainedCount();
+        double[] values = new double[n];
+        long[] weights = new long[n];
+        int j = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++, j++) {
+                values[j] = levels[h][i];
+                weights[j] = 1L << h;
+            }
+        }
+        // sort by value, carrying the weights along
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> values[i]));
+        double[] sorted = new double[n];
+        long[] running = new long[n];
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sorted[i] = values[order[i]];
+            sum += weights[order[i]];
+            running[i] = sum;
+        }
+        cumulative = running;
+        sortedValues = sorted;
+    }
+
+    // ======================================================
+    // COMPACTION
+    // ======================================================
+
+    private void append(int level, double value) {
+        while (level >= levels.length) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+            levels[levels.length - 1] = new double[MIN_CAPACITY];
+            updateCapacities();
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, sizes[level] * 2));
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    // capacity shrinks by 2/3 per level below the top one
+    private void updateCapacities() {
+        capacities = new int[levels.length];
+        room = 0;
+        for (int h = 0; h < levels.length; h++) {
+            int depth = levels.length - 1 - h;
+            capacities[h] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3.0, depth)));
+            room += capacities[h];
+        }
+    }
+
+    /**
+     * Compact the lowest over-full level until everything fits
+     */
+    private void compress() {
+        while (retained > room) {
+            int h = 0;
+            while (sizes[h] < capacities[h]) h++;
+            compact(h);
+        }
+    }
+
+    private void compact(int h) {
+        double[] values = levels[h];
+        int n = sizes[h];
+        Arrays.sort(values, 0, n);
+        int keep = n % 2;          // an odd one out stays behind
+        int offset = random.nextBoolean() ? 1 : 0;
+        // appending to h + 1 may grow the level array, so copy the survivors out first
+        double[] up = new double[(n - keep) / 2];
+        for (int i = 0; i < up.length; i++) up[i] = values[keep + 2 * i + offset];
+        double leftover = keep == 1 ? values[0] : 0;
+        sizes[h] = 0;
+        retained -= n;
+        if (keep == 1) {
+            levels[h][sizes[h]++] = leftover;
+            retained++;
+        }
+        for (double v : up) append(h + 1, v);
+        exact = false;
+    }
+}
@@ -0,0 +1,287 @@
+import javax.swing.*;
+import javax.swing.table.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * RecordTableModel class - read-only table over a list of records (users,
+ * classes, ...) that works out cell values only when the table asks
+ *
+ * The model holds the record list itself (normally a SystemManager
+ * snapshot, shared, not copied) and a function per column, so no row
+ * arrays are built: only the rows on screen are ever read. Each record
+ * has an ID, which setRows() uses to compare the new list with the old
+ * one: the unchanged rows at the start and end are kept and only the rows
+ * between them are reported as inserted, deleted or updated, along with
+ * any kept row whose record object was replaced. A record edited in place
+ * is reported with rowChanged(id). Selection and scroll position survive
+ * all of these.
+ *
+ * createSorter() gives a TableRowSorter that sorts on keys rather than
+ * cell values: each column's keys are worked out once (text lowercased,
+ * so no Collator) and kept until their rows change, and re-sorts when rows
+ * are updated. rowFilter() filters on the records themselves.
+ */
+public class RecordTableModel<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final Object NULL_KEY = new Object();   // a key that was worked out as null
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Object> KEY_ORDER = Comparator.nullsFirst((Comparator) Comparator.naturalOrder());
+
+    private static final class Column<T> {
+        final String name;
+        final Class<?> type;
+        final Function<? super T, ?> value;
+        final Function<? super T, ?> key;
+
+        Column(String name, Class<?> type, Function<? super T, ?> value, Function<? super T, ?> key) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+            this.key = key;
+        }
+    }
+
+    private final Function<? super T, ?> idOf;
+    private final List<Column<T>> columns = new ArrayList<>();
+    private List<T> rows = Collections.emptyList();
+    private Object[][] keys = new Object[0][];   // per column, per row; null = not worked out yet
+
+    public RecordTableModel(Function<? super T, ?> idOf) {
+        this.idOf = idOf;
+    }
+
+    // ======================================================
+    // COLUMNS
+    // ======================================================
+
+    /**
+     * Add a column; text columns sort by their lowercased value, others by
+     * the value itself (which must then be Comparable)
+     */
+    public RecordTableModel<T> addColumn(String name, Class<?> type, Function<? super T, ?> value) {
+        Function<? super T, ?> key = type == String.class
+                ? record -> {
+                    Object v = value.apply(record);
+                    return v == null ? null : v.toString().toLowerCase(Locale.ROOT);
+                }
+                : value;
+        return addColumn(name, type, value, key);
+    }
+
+    /** Add a column with its own sort key */
+    public RecordTableModel<T> addColumn(String name, Class<?> type, Function<? super T, ?> value,
+                                         Function<? super T, ?> key) {
+        columns.add(new Column<>(name, type, value, key));
+        keys = new Object[columns.size()][];
+        fireTableStructureChanged();
+        return this;
+    }
+
+    // ======================================================
+    // TABLE MODEL
+    // ======================================================
+
+    @Override
+    public int getRowCount() { return rows.size(); }
+
+    @Override
+    public int getColumnCount() { return columns.size(); }
+
+    @Override
+    public String getColumnName(int column) { return columns.get(column).name; }
+
+    @Override
+    public Class<?> getColumnClass(int column) { return columns.get(column).type; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return columns.get(column).value.apply(rows.get(row));
+    }
+
+    /** The record shown in this row (a model row; convert view rows first) */
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    // ======================================================
+    // CHANGES
+    // ======================================================
+
+    /**
+     * Show these records instead, reporting only what differs from the
+     * current list
+     */
+    public void setRows(List<T> newRows) {
+        List<T> old = rows;
+        if (newRows == old) return;
+        int oldSize = old.size();
+        int newSize = newRows.size();
+
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && sameID(old.get(prefix), newRows.get(prefix))) prefix++;
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && sameID(old.get(oldSize - 1 - suffix), newRows.get(newSize - 1 - suffix))) suffix++;
+        int removed = oldSize - prefix - suffix;
+        int added = newSize - prefix - suffix;
+
+        rows = newRows;
+        if (removed > 0 && added > 0 && removed != added) {
+            // rows both came and went (e.g. a new search): start over
+            keys = new Object[columns.size()][];
+            fireTableDataChanged();
+            return;
+        }
+        if (removed > 0 && added == 0) {
+            resizeKeys(prefix, oldSize, -removed);
+            fireTableRowsDeleted(prefix, prefix + removed - 1);
+        } else if (added > 0 && removed == 0) {
+            resizeKeys(prefix, oldSize, added);
+            fireTableRowsInserted(prefix, prefix + added - 1);
+        } else if (added > 0) {
+            clearKeys(prefix, prefix + added - 1);
+            fireTableRowsUpdated(prefix, prefix + added - 1);
+        }
+
+        // kept rows whose record was replaced by another object
+        for (int i = 0; i < prefix; i++) {
+            if (old.get(i) != newRows.get(i)) updated(i);
+        }
+        for (int s = 0; s < suffix; s++) {
+            if (old.get(oldSize - 1 - s) != newRows.get(newSize - 1 - s)) updated(newSize - 1 - s);
+        }
+    }
+
+    /**
+     * The record with this ID was edited in place; re-key, redraw and
+     * re-sort its row. Call it before anything else that makes the sorter
+     * sort (setRows, a new row filter), or that sort uses the old key.
+     */
+    public void rowChanged(Object id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (Objects.equals(idOf.apply(rows.get(i)), id)) {
+                updated(i);
+                return;
+            }
+        }
+    }
+
+    private void updated(int row) {
+        clearKeys(row, row);
+        fireTableRowsUpdated(row, row);
+    }
+
+    private boolean sameID(T a, T b) {
+        return a == b || Objects.equals(idOf.apply(a), idOf.apply(b));
+    }
+
+    // ======================================================
+    // SORT KEYS
+    // ======================================================
+
+    private Object sortKey(int row, int column) {
+        Object[] columnKeys = keys[column];
+        if (columnKeys == null || columnKeys.length != rows.size()) {
+            columnKeys = new Object[rows.size()];
+            keys[column] = columnKeys;
+        }
+        Object key = columnKeys[row];
+        if (key == null) {
+            key = columns.get(column).key.apply(rows.get(row));
+            columnKeys[row] = key == null ? NULL_KEY : key;
+        }
+        return key == NULL_KEY ? null : key;
+    }
+
+    private void clearKeys(int first, int last) {
+        for (Object[] columnKeys : keys) {
+            if (columnKeys != null) Arrays.fill(columnKeys, first, last + 1, null);
+        }
+    }
+
+    // open (delta > 0) or close (delta < 0) a gap at row `at`, keeping the other keys
+    private void resizeKeys(int at, int oldSize, int delta) {
+        for (int c = 0; c < keys.length; c++) {
+            Object[] columnKeys = keys[c];
+            if (columnKeys == null || columnKeys.length != oldSize) {
+                keys[c] = null;
+                continue;
+            }
+            Object[] resized = new Object[oldSize + delta];
+            System.arraycopy(columnKeys, 0, resized, 0, at);
+            int tail = delta > 0 ? at : at - delta;
+            System.arraycopy(columnKeys, tail, resized, tail + delta, oldSize - tail);
+            keys[c] = resized;
+        }
+    }
+
+    // ======================================================
+    // SORTING AND FILTERING
+    // ======================================================
+
+    public TableRowSorter<RecordTableModel<T>> createSorter() {
+        return new Sorter<>(this);
+    }
+
+    /** A filter that keeps the rows whose record passes the test */
+    public RowFilter<RecordTableModel<T>, Integer> rowFilter(Predicate<? super T> test) {
+        return new RowFilter<RecordTableModel<T>, Integer>() {
+            @Override
+            public boolean include(Entry<? extends RecordTableModel<T>, ? extends Integer> entry) {
+                return test.test(entry.getModel().getRow(entry.getIdentifier()));
+            }
+        };
+    }
+
+    /**
+     * TableRowSorter that reads the model's cached keys instead of cell
+     * values and compares them directly
+     */
+    private static final class Sorter<T> extends TableRowSorter<RecordTableModel<T>> {
+
+        Sorter(RecordTableModel<T> model) {
+            super(model);
+            setModelWrapper(new Keys(model));
+            setSortsOnUpdates(true);   // an edited record may belong somewhere else now
+        }
+
+        @Override
+        public Comparator<?> getComparator(int column) {
+            return KEY_ORDER;
+        }
+
+        @Override
+        protected boolean useToString(int column) {
+            return false;
+        }
+
+        private final class Keys extends DefaultRowSorter.ModelWrapper<RecordTableModel<T>, Integer> {
+            private final RecordTableModel<T> model;
+
+            Keys(RecordTableModel<T> model) {
+                this.model = model;
+            }
+
+            @Override
+            public RecordTableModel<T> getModel() { return model; }
+
+            @Override
+            public int getColumnCount() { return model.getColumnCount(); }
+
+            @Override
+            public int getRowCount() { return model.getRowCount(); }
+
+            @Override
+            public Object getValueAt(int row, int column) { return model.sortKey(row, column); }
+
+            @Override
+            public Integer getIdentifier(int row) { return row; }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * ReportCache class - keeps already built report sections until the data
+ * they were built from changes
+ *
+ * SystemManager owns one cache and calls invalidate(kind) whenever it
+ * creates, updates or deletes a record of that kind. Each kind has a
+ * version number; a cached section remembers the versions of the kinds it
+ * was built from and is only reused while they are unchanged. So a class
+ * change rebuilds the class and enrolment sections but not the user list.
+ *
+ * Versions are read before a section is built, so a change made while a
+ * report is being built (reports run on a background thread) makes that
+ * result stale straight away instead of caching old data.
+ */
+public class ReportCache {
+
+    /** The kinds of data a report section can depend on */
+    public enum Data { USERS, MODULES, CLASSES, ASSESSMENTS, FEEDBACK, GRADING }
+
+    private static class Entry {
+        final Data[] dependsOn;
+        final long[] versions;
+        final String text;
+
+        Entry(Data[] dependsOn, long[] versions, String text) {
+            this.dependsOn = dependsOn;
+            this.versions = versions;
+            this.text = text;
+        }
+    }
+
+    private final long[] versions = new long[Data.values().length];
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Cached text for this key, or build it now if anything it depends on
+     * has changed. A null result (e.g. a cancelled report) is not cached.
+     */
+    public String get(String key, Supplier<String> builder, Data... dependsOn) {
+        long[] before;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            before = versionsOf(dependsOn);
+            if (entry != null && Arrays.equals(entry.versions, before)) {
+                return entry.text;
+            }
+        }
+
+        // built outside the lock so other reports are not held up
+        String text = builder.get();
+        if (text == null) return null;
+
+        synchronized (this) {
+            // keep it only if nothing changed while it was being built
+            if (Arrays.equals(before, versionsOf(dependsOn))) {
+                entries.put(key, new Entry(dependsOn, before, text));
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Drop every section built from this kind of data
+     */
+    public synchronized void invalidate(Data kind) {
+        versions[kind.ordinal()]++;
+        entries.values().removeIf(e -> Arrays.asList(e.dependsOn).contains(kind));
+    }
+
+    /**
+     * Current version of this kind of data; it goes up on every change
+     */
+    public synchronized long getVersion(Data kind) {
+        return versions[kind.ordinal()];
+    }
+
+    public synchronized void invalidateAll() {
+        for (Data kind : Data.values()) versions[kind.ordinal()]++;
+        entries.clear();
+    }
+
+    private long[] versionsOf(Data[] kinds) {
+        long[] result = new long[kinds.length];
+        for (int i = 0; i < kinds.length; i++) result[i] = versions[kinds[i].ordinal()];
+        return result;
+    }
+}
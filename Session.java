@@ -0,0 +1,37 @@
+import java.util.Date;
+
+/**
+ * Session class - one logged-in user of a shared SystemManager
+ *
+ * Several people can be logged in through the same SystemManager at once
+ * (e.g. lab kiosks running in one process), so "who is logged in" belongs
+ * to each login, not to SystemManager. Created by SystemManager.login and
+ * ended by SystemManager.logout, or by SystemManager itself when the
+ * session has been idle too long or its user is deleted, rejected,
+ * deactivated or converted to another role.
+ */
+public class Session {
+    private final String sessionID;
+    private volatile User user;
+    private final Date loginTime;
+    private volatile long lastUsed;   // System.currentTimeMillis() of the last findSession
+
+    Session(String sessionID, User user) {
+        this.sessionID = sessionID;
+        this.user = user;
+        this.loginTime = new Date();
+        this.lastUsed = loginTime.getTime();
+    }
+
+    public String getSessionID() { return sessionID; }
+    public User getUser() { return user; }
+    public Date getLoginTime() { return loginTime; }
+    public Date getLastUsed() { return new Date(lastUsed); }
+
+    /** Follow the stored user when updateUser replaced the object */
+    void setUser(User user) { this.user = user; }
+
+    void touch(long now) { lastUsed = now; }
+
+    boolean isIdle(long now, long idleMillis) { return now - lastUsed > idleMillis; }
+}
@@ -3,6 +3,7 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 public class StudentDashboard extends JFrame {
     private final SystemManager systemManager;
@@ -144,14 +145,19 @@ public class StudentDashboard extends JFrame {
 
         JButton saveBtn = new JButton("Save Changes");
         saveBtn.addActionListener(e -> {
-            student.setFullName(nameField.getText().trim());
-            student.setEmail(emailField.getText().trim());
-            student.setPhoneNumber(phoneField.getText().trim());
-            student.setGender((String) genderBox.getSelectedItem());
-            student.setAge((Integer) ageSpinner.getValue());
-
-            
-            systemManager.updateUser(student);
+            String name = nameField.getText().trim();
+            String email = emailField.getText().trim();
+            String phone = phoneField.getText().trim();
+            String gender = (String) genderBox.getSelectedItem();
+            int age = (Integer) ageSpinner.getValue();
+
+            systemManager.editUser(student.getUserID(), u -> {
+                u.setFullName(name);
+                u.setEmail(email);
+                u.setPhoneNumber(phone);
+                u.setGender(gender);
+                u.setAge(age);
+            });
 
             JOptionPane.showMessageDialog(this, "✓ Profile updated and saved!");
         });
@@ -251,11 +257,9 @@ public class StudentDashboard extends JFrame {
         ClassModule selectedClass = allClasses.get(selectedRow);
 
         // This code is to check if the student has already been registered 
-        for (Student s : selectedClass.getEnrolledStudents()) {
-            if (s.getStudentID().equals(student.getStudentID())) {
-                JOptionPane.showMessageDialog(this, "You are already registered in this class.");
-                return;
-            }
+        if (systemManager.isEnrolled(student.getStudentID(), selectedClass.getClassID())) {
+            JOptionPane.showMessageDialog(this, "You are already registered in this class.");
+            return;
         }
 
         
@@ -264,8 +268,7 @@ public class StudentDashboard extends JFrame {
             return;
         }
 
-        selectedClass.enrollStudent(student);
-        systemManager.updateClass(selectedClass);
+        systemManager.enrollStudent(selectedClass.getClassID(), student);
 
         JOptionPane.showMessageDialog(this, "Registered successfully!");
         refreshAll();
@@ -373,17 +376,7 @@ public class StudentDashboard extends JFrame {
     }
 
     private List<ClassModule> getMyClasses() {
-        List<ClassModule> mine = new ArrayList<>();
-        for (ClassModule c : systemManager.getAllClasses()) {
-            
-            for (Student s : c.getEnrolledStudents()) {
-                if (s.getStudentID().equals(student.getStudentID())){
-                    mine.add(c);
-                    break;
-                }
-            }
-        }
-        return mine;
+        return systemManager.getClassesForStudent(student.getStudentID());
     }
 
     private void refreshClasses() {
@@ -458,6 +451,28 @@ for (Assessment a : systemManager.getAllAssessments()) {
             sb.append("Once your lecturer keys in marks, they will appear here.\n");
         }
 
+        GpaEngine.StudentGpa gpa = systemManager.getGpaEngine().getStudentGpa(sid);
+        if (gpa != null && !gpa.getModules().isEmpty()) {
+            sb.append("\nModule Results\n\n");
+            for (GpaEngine.ModuleResult m : gpa.getModules()) {
+                // where the module result sits among the module results of everyone marked in it
+                double rank = systemManager.getGpaEngine().getModuleResultSketch(m.getModuleID())
+                        .getPercentileRank(m.getPercentage());
+                sb.append("- ").append(m.getModuleCode()).append(" ").append(m.getModuleName())
+                  .append(" | ").append(String.format("%.1f%%", m.getPercentage()))
+                  .append(" | Grade: ").append(m.getGradeLetter())
+                  .append(" | Credits: ").append(m.getCredits());
+                if (!Double.isNaN(rank)) sb.append(String.format(" | Percentile: %.0f", rank));
+                sb.append("\n");
+            }
+            for (Map.Entry<String, Double> t : gpa.getGpaByTerm().entrySet()) {
+                sb.append(String.format("GPA %s: %.2f%n", t.getKey(), t.getValue()));
+            }
+            if (gpa.hasResults()) {
+                sb.append(String.format("CGPA: %.2f (%d credits)%n", gpa.getCgpa(), gpa.getCredits()));
+            }
+        }
+
         resultsArea.setText(sb.toString());
     }
 
@@ -507,8 +522,7 @@ for (Assessment a : systemManager.getAllAssessments()) {
             return;
         }
 
-        selected.addStudentComment(comment);
-        systemManager.updateFeedback(selected);
+        systemManager.editFeedback(selected.getFeedbackID(), f -> f.addStudentComment(comment));
 
         JOptionPane.showMessageDialog(this, "Comment saved.\n");
         showSelectedFeedbackDetails();
@@ -1,6 +1,34 @@
 import java.util.*;
-
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * SystemManager class - the in-memory store behind every dashboard
+ *
+ * One SystemManager can be shared by several logged-in sessions at once
+ * (see Session), so every method is thread-safe. Lookups and getAll* take
+ * the read lock and run in parallel; anything that changes the lists or
+ * indexes takes the write lock, so each create/update/delete (including its
+ * index updates and change log entry) happens as one step that readers see
+ * either completely or not at all. The lock is reentrant, so a locked
+ * method may call other public methods. Writes to disk are only queued
+ * here (see PersistenceWriter), so the write lock is held briefly.
+ *
+ * getAll* and getUsersByRole return shared read-only snapshots instead of a
+ * fresh copy per call. A snapshot is built on first use and then handed to
+ * every caller, without locking or copying, until that kind of data next
+ * changes (its version in the ReportCache goes up, see getDataVersion).
+ * A caller keeps a consistent list for as long as it holds on to it, so a
+ * whole report sees one state of the data even while others make changes.
+ *
+ * Objects handed out are the stored ones and other sessions may be reading
+ * them: change them with editUser, editModule, editClass, editFeedback and
+ * recordMarks, which make the change under the write lock, rather than
+ * calling setters and then an update* method.
+ */
 public class SystemManager {
 
     private List<User> users;
@@ -10,7 +38,78 @@ public class SystemManager {
     private List<Feedback> feedbackList;
     private List<Announcement> announcements;
     private GradingSystem gradingSystem;
-    private User currentUser;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    // Logged-in sessions by session ID
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    // A session not used for this long is ended (-Dafs.session.idleMinutes, default 30)
+    private static final long SESSION_IDLE_MILLIS = Long.getLong("afs.session.idleMinutes", 30) * 60_000;
+
+    // Primary-key indexes over the lists above, kept in step by every create/update/delete
+    private final Map<String, User> usersByID = new HashMap<>();
+    private final Map<String, User> usersByUsername = new HashMap<>();
+    private final Map<String, String> indexedUsernames = new HashMap<>();   // userID -> username it is indexed under
+    private final UserSearchIndex userSearch = new UserSearchIndex();       // substring search over ID/username/name/email
+    private final Map<String, Module> modulesByID = new HashMap<>();
+    private final Map<String, Module> modulesByCode = new HashMap<>();      // lower-case moduleID/moduleCode
+    private final Map<String, ClassModule> classesByID = new HashMap<>();
+    private final Map<String, Assessment> assessmentsByID = new HashMap<>();
+    private final Map<String, Feedback> feedbackByID = new HashMap<>();
+
+    // Enrolment index: studentID -> IDs of the classes they are enrolled in
+    private final Map<String, Set<String>> classIDsByStudent = new HashMap<>();
+    private final Map<String, List<String>> indexedEnrolments = new HashMap<>();   // classID -> studentIDs it is indexed under
+
+    // Per-prefix ID counters (STU, LEC, STF, MD, CL, ASM, FB, ...)
+    private final IdAllocator idAllocator = new IdAllocator();
+
+    // Built report sections, invalidated below whenever the data they use changes
+    private final ReportCache reportCache = new ReportCache();
+
+    // Cached per-student GPA, told below about the changes that affect it
+    private final GpaEngine gpaEngine = new GpaEngine(this);
+
+    // Read-only snapshots for getAll*, dropped by changed() (see the class comment)
+    private final Snapshot<User> usersSnapshot = new Snapshot<>();
+    private final Snapshot<Module> modulesSnapshot = new Snapshot<>();
+    private final Snapshot<ClassModule> classesSnapshot = new Snapshot<>();
+    private final Snapshot<Assessment> assessmentsSnapshot = new Snapshot<>();
+    private final Snapshot<Feedback> feedbackSnapshot = new Snapshot<>();
+    private final Snapshot<Announcement> announcementsSnapshot = new Snapshot<>();
+    private final Map<String, Snapshot<User>> usersByRoleSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * One shared read-only copy of a list. Built under the read lock, so it
+     * never sees a half-made change; cleared under the write lock, so a
+     * snapshot built before a change can never be stored after it.
+     */
+    private final class Snapshot<T> {
+        private volatile List<T> items;
+
+        List<T> get(Supplier<List<T>> source) {
+            List<T> current = items;
+            if (current != null) return current;
+            readLock.lock();
+            try {
+                current = items;
+                if (current == null) {
+                    current = Collections.unmodifiableList(new ArrayList<>(source.get()));
+                    items = current;
+                }
+                return current;
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        void clear() {
+            items = null;
+        }
+    }
 
     public SystemManager() {
         this.users = new ArrayList<>();
@@ -21,7 +120,6 @@ public class SystemManager {
 
         this.announcements = new ArrayList<>();
         this.gradingSystem = new GradingSystem("GS001", "APU Grading System", 60);
-        this.currentUser = null;
 
         loadAllData();
     }
@@ -37,11 +135,9 @@ public class SystemManager {
                     if (m == null) continue;
                     String mid = m.getModuleID();
                     if (mid == null) continue;
-                    for (Module real : modules) {
-                        if (mid.equalsIgnoreCase(real.getModuleID()) || mid.equalsIgnoreCase(real.getModuleCode())) {
-                            resolved.add(real);
-                            break;
-                        }
+                    Module real = findModuleByID(mid);
+                    if (real != null) {
+                        resolved.add(real);
                     }
                 }
                 lec.getAssignedModules().clear();
@@ -51,195 +147,874 @@ public class SystemManager {
     }
 
     public void loadAllData() {
+        writeLock.lock();
+        try {
+            loadAllDataLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void loadAllDataLocked() {
         users = FileManager.loadAllUsers();
         modules = FileManager.loadAllModules();
+        rebuildUserIndex();
+        rebuildModuleIndex();
         // reconcile lecturer assigned modules (placeholders -> actual Module objects)
         reconcileLecturerAssignedModules();
         classes = FileManager.loadAllClasses(modules, users);
         assessments = FileManager.loadAllAssessments(modules, users);
         feedbackList = FileManager.loadAllFeedback();
         announcements = FileManager.loadAllAnnouncements();
+        rebuildClassIndex();
+        rebuildAssessmentIndex();
+        rebuildFeedbackIndex();
+        recoverIdSequences();
+        reportCache.invalidateAll();
+        for (ReportCache.Data kind : ReportCache.Data.values()) dropSnapshots(kind);
+        announcementsSnapshot.clear();
+        gpaEngine.clear();
+        FileManager.rebuildBinarySnapshotIfStale();
 
         GradingSystem loadedGrading = FileManager.loadGradingSystem();
         if (loadedGrading != null) {
             this.gradingSystem = loadedGrading;
         }
     }
+
+    // ======== INDEX MAINTENANCE ========
+
+    private void rebuildUserIndex() {
+        usersByID.clear();
+        usersByUsername.clear();
+        indexedUsernames.clear();
+        for (User u : users) {
+            usersByID.putIfAbsent(u.getUserID(), u);
+            indexUsername(u);
+        }
+        userSearch.rebuild(users);
+    }
+
+    /**
+     * (Re)index a user's username, dropping the old key if it was renamed
+     */
+    private void indexUsername(User u) {
+        String oldName = indexedUsernames.get(u.getUserID());
+        if (oldName != null && usersByUsername.get(oldName) == u) {
+            usersByUsername.remove(oldName);
+        }
+        if (u.getUsername() != null) {
+            // first account wins for duplicate usernames, same as the old linear scan
+            usersByUsername.putIfAbsent(u.getUsername(), u);
+            indexedUsernames.put(u.getUserID(), u.getUsername());
+        }
+    }
+
+    private void unindexUser(User u) {
+        if (usersByID.get(u.getUserID()) == u) usersByID.remove(u.getUserID());
+        String oldName = indexedUsernames.remove(u.getUserID());
+        if (oldName != null && usersByUsername.get(oldName) == u) {
+            usersByUsername.remove(oldName);
+        }
+        userSearch.remove(u);
+    }
+
+    private void rebuildModuleIndex() {
+        modulesByID.clear();
+        modulesByCode.clear();
+        for (Module m : modules) {
+            indexModule(m);
+        }
+    }
+
+    private void indexModule(Module m) {
+        modulesByID.putIfAbsent(m.getModuleID(), m);
+        if (m.getModuleID() != null) modulesByCode.putIfAbsent(m.getModuleID().toLowerCase(), m);
+        if (m.getModuleCode() != null) modulesByCode.putIfAbsent(m.getModuleCode().toLowerCase(), m);
+    }
+
+    private void rebuildClassIndex() {
+        classesByID.clear();
+        classIDsByStudent.clear();
+        indexedEnrolments.clear();
+        for (ClassModule c : classes) {
+            if (classesByID.putIfAbsent(c.getClassID(), c) == null) indexEnrolments(c);
+        }
+    }
+
+    /**
+     * (Re)index the students enrolled in a class, dropping the ones that
+     * were indexed for it before
+     */
+    private void indexEnrolments(ClassModule c) {
+        unindexEnrolments(c.getClassID());
+        List<String> studentIDs = new ArrayList<>();
+        for (Student s : c.getEnrolledStudents()) {
+            if (s == null || s.getStudentID() == null) continue;
+            classIDsByStudent.computeIfAbsent(s.getStudentID(), k -> new LinkedHashSet<>()).add(c.getClassID());
+            studentIDs.add(s.getStudentID());
+        }
+        indexedEnrolments.put(c.getClassID(), studentIDs);
+    }
+
+    private void unindexEnrolments(String classID) {
+        List<String> studentIDs = indexedEnrolments.remove(classID);
+        if (studentIDs == null) return;
+        for (String studentID : studentIDs) {
+            Set<String> ids = classIDsByStudent.get(studentID);
+            if (ids == null) continue;
+            ids.remove(classID);
+            if (ids.isEmpty()) classIDsByStudent.remove(studentID);
+        }
+    }
+
+    private void rebuildAssessmentIndex() {
+        assessmentsByID.clear();
+        for (Assessment a : assessments) assessmentsByID.putIfAbsent(a.getAssessmentID(), a);
+    }
+
+    private void rebuildFeedbackIndex() {
+        feedbackByID.clear();
+        for (Feedback f : feedbackList) feedbackByID.putIfAbsent(f.getFeedbackID(), f);
+    }
+
+    /**
+     * Raise every ID counter past the IDs already in use (once per load)
+     */
+    private void recoverIdSequences() {
+        idAllocator.load();
+        for (User u : users) {
+            idAllocator.observe(u.getUserID());
+            idAllocator.observe(staffIDOf(u));
+        }
+        for (Module m : modules) idAllocator.observe(m.getModuleID());
+        for (ClassModule c : classes) idAllocator.observe(c.getClassID());
+        for (Assessment a : assessments) idAllocator.observe(a.getAssessmentID());
+        for (Feedback f : feedbackList) idAllocator.observe(f.getFeedbackID());
+    }
+
+    private static String staffIDOf(User u) {
+        if (u instanceof AdminStaff) return ((AdminStaff) u).getStaffID();
+        if (u instanceof Lecturer) return ((Lecturer) u).getStaffID();
+        if (u instanceof AcademicLeader) return ((AcademicLeader) u).getStaffID();
+        return null;
+    }
+
+    /**
+     * Called after every change (with the write lock held): bumps the data
+     * version, which drops cached report sections, and the getAll* snapshots
+     */
+    private void changed(ReportCache.Data kind) {
+        reportCache.invalidate(kind);
+        dropSnapshots(kind);
+    }
+
+    private void dropSnapshots(ReportCache.Data kind) {
+        switch (kind) {
+            case USERS:
+                usersSnapshot.clear();
+                usersByRoleSnapshots.clear();
+                break;
+            case MODULES: modulesSnapshot.clear(); break;
+            case CLASSES: classesSnapshot.clear(); break;
+            case ASSESSMENTS: assessmentsSnapshot.clear(); break;
+            case FEEDBACK: feedbackSnapshot.clear(); break;
+        }
+    }
+
+    /**
+     * Put the updated object in place of the old one in a list
+     * (nothing to do when the caller edited the stored object directly)
+     */
+    private static <T> void replaceInList(List<T> list, T old, T updated) {
+        if (old == updated) return;
+        int i = list.indexOf(old);
+        if (i >= 0) list.set(i, updated);
+    }
+
     public List<Announcement> getAllAnnouncements() {
-        return new ArrayList<>(announcements);
+        return announcementsSnapshot.get(() -> announcements);
     }
 
     public void addAnnouncement(Announcement ann) {
-        announcements.add(ann);
-        FileManager.saveAnnouncement(ann);
+        writeLock.lock();
+        try {
+            announcements.add(ann);
+            announcementsSnapshot.clear();
+            FileManager.saveAnnouncement(ann);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public boolean registerUser(User user) {
-        for (User existingUser : users) {
-            if (existingUser.getUsername().equals(user.getUsername())) {
+        writeLock.lock();
+        try {
+            if (usersByUsername.containsKey(user.getUsername())) {
                 return false;
             }
+            users.add(user);
+            usersByID.putIfAbsent(user.getUserID(), user);
+            indexUsername(user);
+            userSearch.add(user);
+            idAllocator.observe(user.getUserID());
+            idAllocator.observe(staffIDOf(user));
+            FileManager.saveUser(user);
+            changed(ReportCache.Data.USERS);
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        users.add(user);
-        FileManager.saveUser(user);
-        return true;
     }
 
     public User authenticateUser(String username, String password) {
-        for (User user : users) {
-            if (user.getUsername().equals(username) &&
-                user.getPassword().equals(password)) {
+        readLock.lock();
+        try {
+            User user = usersByUsername.get(username);
+            if (user != null && user.getPassword().equals(password)) {
 
                 if (!user.isApproved()) return null;
                 if (!user.isActive()) return null;
 
-                currentUser = user;
                 return user;
             }
+            return null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public User findUserByUsername(String username) {
+        readLock.lock();
+        try {
+            return usersByUsername.get(username);
+        } finally {
+            readLock.unlock();
         }
-        return null;
     }
 
     public void createModule(Module module) {
-        modules.add(module);
-        FileManager.saveModule(module);
+        writeLock.lock();
+        try {
+            modules.add(module);
+            indexModule(module);
+            idAllocator.observe(module.getModuleID());
+            FileManager.saveModule(module);
+            changed(ReportCache.Data.MODULES);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Find a module by its moduleID, falling back to a case-insensitive
+     * match on moduleID or moduleCode
+     */
+    public Module findModuleByID(String moduleID) {
+        readLock.lock();
+        try {
+            if (moduleID == null) return null;
+            Module m = modulesByID.get(moduleID);
+            return m != null ? m : modulesByCode.get(moduleID.toLowerCase());
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public boolean updateModule(Module updated) {
-        if (updated == null) return false;
+        writeLock.lock();
+        try {
+            if (updated == null) return false;
 
-        for (int i = 0; i < modules.size(); i++) {
-            if (modules.get(i).getModuleID().equals(updated.getModuleID())) {
-                modules.set(i, updated);
-                FileManager.saveAllModules(modules);
-                return true;
-            }
+            Module old = modulesByID.get(updated.getModuleID());
+            if (old == null) return false;
+
+            replaceInList(modules, old, updated);
+            // the code may have been edited in place, so re-key the (small) module index
+            rebuildModuleIndex();
+            FileManager.saveModule(updated);
+            changed(ReportCache.Data.MODULES);
+            gpaEngine.moduleChanged(updated.getModuleID());
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Change a stored module in place under the write lock, then save and
+     * re-index it as updateModule does (see editUser)
+     */
+    public boolean editModule(String moduleID, Consumer<? super Module> edit) {
+        writeLock.lock();
+        try {
+            Module module = moduleID == null ? null : modulesByID.get(moduleID);
+            if (module == null) return false;
+            edit.accept(module);
+            return updateModule(module);
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public boolean deleteModule(String moduleID) {
-        for (int i = 0; i < modules.size(); i++) {
-            if (modules.get(i).getModuleID().equals(moduleID)) {
-                modules.remove(i);
-                FileManager.saveAllModules(modules);
-                return true;
-            }
+        writeLock.lock();
+        try {
+            Module old = modulesByID.get(moduleID);
+            if (old == null) return false;
+
+            modules.remove(old);
+            rebuildModuleIndex();
+            FileManager.deleteModule(moduleID);
+            changed(ReportCache.Data.MODULES);
+            gpaEngine.moduleChanged(moduleID);
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public void createClass(ClassModule classModule) {
-        classes.add(classModule);
-        FileManager.saveClass(classModule);
+        writeLock.lock();
+        try {
+            classes.add(classModule);
+            if (classesByID.putIfAbsent(classModule.getClassID(), classModule) == null) {
+                indexEnrolments(classModule);
+            }
+            idAllocator.observe(classModule.getClassID());
+            FileManager.saveClass(classModule);
+            changed(ReportCache.Data.CLASSES);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public ClassModule findClassByID(String classID) {
+        readLock.lock();
+        try {
+            return classID == null ? null : classesByID.get(classID);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Classes a student is enrolled in, in the order they were enrolled
+     */
+    public List<ClassModule> getClassesForStudent(String studentID) {
+        readLock.lock();
+        try {
+            List<ClassModule> result = new ArrayList<>();
+            Set<String> ids = studentID == null ? null : classIDsByStudent.get(studentID);
+            if (ids == null) return result;
+            for (String classID : ids) {
+                ClassModule c = classesByID.get(classID);
+                if (c != null) result.add(c);
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public int countClassesForStudent(String studentID) {
+        readLock.lock();
+        try {
+            Set<String> ids = studentID == null ? null : classIDsByStudent.get(studentID);
+            return ids == null ? 0 : ids.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public boolean isEnrolled(String studentID, String classID) {
+        readLock.lock();
+        try {
+            Set<String> ids = studentID == null ? null : classIDsByStudent.get(studentID);
+            return ids != null && ids.contains(classID);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Enrol a student in a class and save the class.
+     * Returns false if the class does not exist, is full or already has the student.
+     */
+    public boolean enrollStudent(String classID, Student student) {
+        writeLock.lock();
+        try {
+            ClassModule c = findClassByID(classID);
+            if (c == null || student == null || isEnrolled(student.getStudentID(), classID)) return false;
+            if (!c.enrollStudent(student)) return false;
+
+            indexEnrolments(c);
+            FileManager.saveClass(c);
+            changed(ReportCache.Data.CLASSES);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public boolean updateClass(ClassModule updated) {
-    if (updated == null) return false;
+        writeLock.lock();
+        try {
+            if (updated == null) return false;
 
-    for (int i = 0; i < classes.size(); i++) {
-        if (classes.get(i).getClassID().equals(updated.getClassID())) {
-            classes.set(i, updated);
-            FileManager.saveAllClasses(classes);
+            ClassModule old = classesByID.get(updated.getClassID());
+            if (old == null) return false;
+
+            replaceInList(classes, old, updated);
+            classesByID.put(updated.getClassID(), updated);
+            indexEnrolments(updated);
+            FileManager.saveClass(updated);
+            changed(ReportCache.Data.CLASSES);
             return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Change a stored class in place under the write lock, then save and
+     * re-index it as updateClass does (see editUser)
+     */
+    public boolean editClass(String classID, Consumer<? super ClassModule> edit) {
+        writeLock.lock();
+        try {
+            ClassModule c = classID == null ? null : classesByID.get(classID);
+            if (c == null) return false;
+            edit.accept(c);
+            return updateClass(c);
+        } finally {
+            writeLock.unlock();
         }
     }
-    return false;
-}
 
     public void saveAllClasses() {
-        FileManager.saveAllClasses(this.classes);
+        readLock.lock();
+        try {
+            FileManager.saveAllClasses(this.classes);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public List<Module> getAllModules() {
-        return new ArrayList<>(modules);
+        return modulesSnapshot.get(() -> modules);
     }
 
     public List<User> getUsersByRole(String role) {
-        List<User> result = new ArrayList<>();
-        for (User user : users) {
-            if (user.getRole().equals(role)) {
-                result.add(user);
+        return usersByRoleSnapshots.computeIfAbsent(role, k -> new Snapshot<>()).get(() -> {
+            List<User> result = new ArrayList<>();
+            for (User user : users) {
+                if (user.getRole().equals(role)) {
+                    result.add(user);
+                }
             }
-        }
-        return result;
+            return result;
+        });
     }
 
     public void createAssessment(Assessment assessment) {
-        assessments.add(assessment);
-        FileManager.saveAssessment(assessment);
+        writeLock.lock();
+        try {
+            assessments.add(assessment);
+            assessmentsByID.putIfAbsent(assessment.getAssessmentID(), assessment);
+            idAllocator.observe(assessment.getAssessmentID());
+            FileManager.saveAssessment(assessment);
+            changed(ReportCache.Data.ASSESSMENTS);
+            gpaEngine.assessmentChanged(assessment);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Assessment findAssessmentByID(String assessmentID) {
+        readLock.lock();
+        try {
+            return assessmentID == null ? null : assessmentsByID.get(assessmentID);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public void createFeedback(Feedback feedback) {
-        feedbackList.add(feedback);
-        FileManager.saveFeedback(feedback);
+        writeLock.lock();
+        try {
+            feedbackList.add(feedback);
+            feedbackByID.putIfAbsent(feedback.getFeedbackID(), feedback);
+            idAllocator.observe(feedback.getFeedbackID());
+            FileManager.saveFeedback(feedback);
+            changed(ReportCache.Data.FEEDBACK);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Feedback findFeedbackByID(String feedbackID) {
+        readLock.lock();
+        try {
+            return feedbackID == null ? null : feedbackByID.get(feedbackID);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public List<Feedback> getStudentFeedback(String studentID) {
-        List<Feedback> studentFeedback = new ArrayList<>();
-        for (Feedback f : feedbackList) {
-            if (f.getStudentID().equals(studentID)) {
-                studentFeedback.add(f);
+        readLock.lock();
+        try {
+            List<Feedback> studentFeedback = new ArrayList<>();
+            for (Feedback f : feedbackList) {
+                if (f.getStudentID().equals(studentID)) {
+                    studentFeedback.add(f);
+                }
             }
+            return studentFeedback;
+        } finally {
+            readLock.unlock();
         }
-        return studentFeedback;
-
     }
 
     public boolean updateFeedback(Feedback updated) {
-    if (updated == null) return false;
+        writeLock.lock();
+        try {
+            if (updated == null) return false;
 
-    for (int i = 0; i < feedbackList.size(); i++) {
-        if (feedbackList.get(i).getFeedbackID().equals(updated.getFeedbackID())) {
-            feedbackList.set(i, updated);
-            FileManager.saveAllFeedback(feedbackList);
+            Feedback old = feedbackByID.get(updated.getFeedbackID());
+            if (old == null) return false;
+
+            replaceInList(feedbackList, old, updated);
+            feedbackByID.put(updated.getFeedbackID(), updated);
+            FileManager.saveFeedback(updated);
+            changed(ReportCache.Data.FEEDBACK);
             return true;
+        } finally {
+            writeLock.unlock();
         }
     }
-    return false;
-}
 
+    /**
+     * Change stored feedback in place under the write lock, then save it as
+     * updateFeedback does (see editUser)
+     */
+    public boolean editFeedback(String feedbackID, Consumer<? super Feedback> edit) {
+        writeLock.lock();
+        try {
+            Feedback f = feedbackID == null ? null : feedbackByID.get(feedbackID);
+            if (f == null) return false;
+            edit.accept(f);
+            return updateFeedback(f);
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-    public User getCurrentUser() { return currentUser; }
-    public void setCurrentUser(User user) { this.currentUser = user; }
 
-    public GradingSystem getGradingSystem() { return gradingSystem; }
+    // ======== SESSIONS ========
 
-    public List<User> getAllUsers() { return new ArrayList<>(users); }
-    public List<ClassModule> getAllClasses() { return new ArrayList<>(classes); }
-    public List<Assessment> getAllAssessments() { return new ArrayList<>(assessments); }
-    public List<Feedback> getAllFeedback() { return new ArrayList<>(feedbackList); }
+    /**
+     * Check the credentials and start a session for the user, or return null
+     * when they do not match an approved, active account
+     */
+    public Session login(String username, String password) {
+        User user = authenticateUser(username, password);
+        if (user == null) return null;
+        // random, so a session ID can be handed out as a bearer token (see ApiServer)
+        Session session = new Session(UUID.randomUUID().toString(), user);
+        sessions.put(session.getSessionID(), session);
+        return session;
+    }
+
+    public void logout(Session session) {
+        if (session != null) sessions.remove(session.getSessionID());
+    }
+
+    /**
+     * The session with this ID, or null if there is none or it has ended:
+     * idle for longer than afs.session.idleMinutes, or its user is no longer
+     * a stored, approved and active account. An ended session is removed,
+     * so its ID cannot be used again.
+     */
+    public Session findSession(String sessionID) {
+        Session session = sessionID == null ? null : sessions.get(sessionID);
+        if (session == null) return null;
+        long now = System.currentTimeMillis();
+        if (session.isIdle(now, SESSION_IDLE_MILLIS) || !refreshUser(session)) {
+            sessions.remove(sessionID, session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    public List<Session> getActiveSessions() {
+        List<Session> active = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            if (findSession(session.getSessionID()) != null) active.add(session);
+        }
+        return active;
+    }
+
+    /**
+     * Point the session at the stored user with its ID; false if that user
+     * is gone or may no longer log in
+     */
+    private boolean refreshUser(Session session) {
+        readLock.lock();
+        try {
+            User current = usersByID.get(session.getUser().getUserID());
+            if (current == null || !current.isApproved() || !current.isActive()) return false;
+            if (current != session.getUser()) session.setUser(current);
+            return true;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /** End every session of this user (deleted, rejected or given a new ID) */
+    private void endSessions(String userID) {
+        sessions.values().removeIf(s -> s.getUser().getUserID().equals(userID));
+    }
+
+    public GradingSystem getGradingSystem() {
+        readLock.lock();
+        try {
+            return gradingSystem;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public ReportCache getReportCache() { return reportCache; }
+
+    public GpaEngine getGpaEngine() { return gpaEngine; }
+
+    /**
+     * Install and save a new (or edited) grading system. Cached GPAs are
+     * regraded on their next read; nothing else has to be recomputed.
+     */
+    public void updateGradingSystem(GradingSystem updated) {
+        if (updated == null) return;
+        writeLock.lock();
+        try {
+            gradingSystem = updated;
+            FileManager.saveGradingSystem(updated);
+            changed(ReportCache.Data.GRADING);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Mark statistics per module ID, merged from each assessment's running
+     * statistics (no marks are read unless an assessment's stats need a
+     * rebuild). Pass counts use the current grading system.
+     */
+    public Map<String, MarkStats> getModuleStats() {
+        readLock.lock();
+        try {
+            Map<String, MarkStats> result = new LinkedHashMap<>();
+            for (Assessment a : assessments) {
+                Module module = a.getModule();
+                if (module == null) continue;
+                result.computeIfAbsent(module.getModuleID(), k -> new MarkStats(gradingSystem.getPassingPercentage()))
+                        .include(a.getStats(gradingSystem));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Quantile sketch per module ID, merged from the assessments' sketches
+     */
+    public Map<String, QuantileSketch> getModuleSketches() {
+        readLock.lock();
+        try {
+            Map<String, QuantileSketch> result = new LinkedHashMap<>();
+            for (Assessment a : assessments) {
+                Module module = a.getModule();
+                if (module == null) continue;
+                a.addSketchTo(result.computeIfAbsent(module.getModuleID(), k -> new QuantileSketch()));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public QuantileSketch getModuleSketch(String moduleID) {
+        readLock.lock();
+        try {
+            QuantileSketch result = new QuantileSketch();
+            for (Assessment a : assessments) {
+                Module module = a.getModule();
+                if (module != null && Objects.equals(module.getModuleID(), moduleID)) {
+                    a.addSketchTo(result);
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * One sketch for every module of a department (Module.getDepartment)
+     */
+    public QuantileSketch getDepartmentSketch(String department) {
+        readLock.lock();
+        try {
+            QuantileSketch result = new QuantileSketch();
+            for (Assessment a : assessments) {
+                Module module = a.getModule();
+                if (module != null && department != null && department.equalsIgnoreCase(module.getDepartment())) {
+                    a.addSketchTo(result);
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public MarkStats getModuleStats(String moduleID) {
+        readLock.lock();
+        try {
+            MarkStats result = new MarkStats(gradingSystem.getPassingPercentage());
+            for (Assessment a : assessments) {
+                Module module = a.getModule();
+                if (module != null && Objects.equals(module.getModuleID(), moduleID)) {
+                    result.include(a.getStats(gradingSystem));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Version of one kind of data; a getAll* snapshot stays the same object
+     * until this changes
+     */
+    public long getDataVersion(ReportCache.Data kind) { return reportCache.getVersion(kind); }
+
+    public List<User> getAllUsers() {
+        return usersSnapshot.get(() -> users);
+    }
+
+    public List<ClassModule> getAllClasses() {
+        return classesSnapshot.get(() -> classes);
+    }
+
+    public List<Assessment> getAllAssessments() {
+        return assessmentsSnapshot.get(() -> assessments);
+    }
+
+    public List<Feedback> getAllFeedback() {
+        return feedbackSnapshot.get(() -> feedbackList);
+    }
 
     public User findUserByID(String userID) {
-        for (User u : users) {
-            if (u.getUserID().equals(userID)) return u;
+        readLock.lock();
+        try {
+            return userID == null ? null : usersByID.get(userID);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Users whose ID, username, full name or email contains the query,
+     * ignoring case (an empty query matches everyone), at most limit of
+     * them (limit <= 0: all). Served from a trigram index, so it is fast
+     * enough to run on every keystroke.
+     */
+    public List<User> searchUsers(String query, int limit) {
+        readLock.lock();
+        try {
+            return userSearch.search(query, limit);
+        } finally {
+            readLock.unlock();
         }
-        return null;
     }
 
     public boolean updateUser(User updated) {
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getUserID().equals(updated.getUserID())) {
-                users.set(i, updated);
-                FileManager.saveAllUsers(users);
-                return true;
+        writeLock.lock();
+        try {
+            User old = usersByID.get(updated.getUserID());
+            if (old == null) return false;
+
+            if (old != updated) {
+                replaceInList(users, old, updated);
+                unindexUser(old);
+                usersByID.put(updated.getUserID(), updated);
             }
+            indexUsername(updated); // username may have been edited in place
+            userSearch.add(updated);  // as may the name and email
+            FileManager.saveUser(updated);
+            changed(ReportCache.Data.USERS);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Change a user in place under the write lock, then save and re-index it
+     * as updateUser does. Use this rather than calling setters on a shared
+     * User and then updateUser: readers may be looking at that object.
+     */
+    public boolean editUser(String userID, Consumer<? super User> edit) {
+        writeLock.lock();
+        try {
+            User user = usersByID.get(userID);
+            if (user == null) return false;
+            edit.accept(user);
+            return updateUser(user);
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public boolean deleteUser(String userID) {
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getUserID().equals(userID)) {
-                users.remove(i);
-                FileManager.saveAllUsers(users);
-                return true;
-            }
+        writeLock.lock();
+        try {
+            User old = usersByID.get(userID);
+            if (old == null) return false;
+
+            users.remove(old);
+            unindexUser(old);
+            FileManager.deleteUser(userID);
+            endSessions(userID);
+            changed(ReportCache.Data.USERS);
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
+    /**
+     * Reserve the next user ID for this role (call when the user is
+     * actually created; use peekUserID for display)
+     */
     public String generateUserID(String role) {
+        return idAllocator.reserve(userIDPrefix(role));
+    }
+
+    /**
+     * The ID the next user of this role would get, without using it up
+     * (for forms that show it before anything is saved)
+     */
+    public String peekUserID(String role) {
+        return idAllocator.peek(userIDPrefix(role));
+    }
+
+    private static String userIDPrefix(String role) {
         String prefix = "USR";
 
         switch (role.toLowerCase()) {
@@ -256,141 +1031,91 @@ public class SystemManager {
             case "student":
                 prefix = "STU"; break;
         }
-
-        int max = 0;
-        for (User u : users) {
-            if (u.getUserID() != null && u.getUserID().startsWith(prefix)) {
-                try {
-                    int v = Integer.parseInt(u.getUserID().substring(prefix.length()));
-                    if (v > max) max = v;
-                } catch (Exception ignored) {}
-            }
-        }
-
-        return String.format("%s%03d", prefix, max + 1);
+        return prefix;
     }
 
     public String generateStaffID() {
-        String prefix = "STF";
-        int max = 0;
-
-        for (User u : users) {
-            String staffId = null;
-
-            if (u instanceof AdminStaff)
-                staffId = ((AdminStaff) u).getStaffID();
-            else if (u instanceof Lecturer)
-                staffId = ((Lecturer) u).getStaffID();
-            else if (u instanceof AcademicLeader)
-                staffId = ((AcademicLeader) u).getStaffID();
-
-            if (staffId != null && staffId.startsWith(prefix)) {
-                try {
-                    int v = Integer.parseInt(staffId.substring(prefix.length()));
-                    if (v > max) max = v;
-                } catch (Exception ignored) {}
-            }
-        }
+        return idAllocator.reserve("STF");
+    }
 
-        return String.format("%s%03d", prefix, max + 1);
+    public String peekStaffID() {
+        return idAllocator.peek("STF");
     }
 
     public String generateModuleID() {
-        String prefix = "MOD";
-        int max = 0;
-
-        for (Module m : modules) {
-            if (m.getModuleID() != null && m.getModuleID().startsWith(prefix)) {
-                try {
-                    int v = Integer.parseInt(m.getModuleID().substring(prefix.length()));
-                    if (v > max) max = v;
-                } catch (Exception ignored) {}
-            }
-        }
+        return idAllocator.reserve("MD");
+    }
 
-        return String.format("%s%03d", prefix, max + 1);
+    public String peekModuleID() {
+        return idAllocator.peek("MD");
     }
 
     public String generateClassID() {
-        String prefix = "CL";
-        int max = 0;
-
-        for (ClassModule c : classes) {
-            if (c.getClassID() != null && c.getClassID().startsWith(prefix)) {
-                try {
-                    int v = Integer.parseInt(c.getClassID().substring(prefix.length()));
-                    if (v > max) max = v;
-                } catch (Exception ignored) {}
-            }
-        }
+        return idAllocator.reserve("CL");
+    }
 
-        return String.format("%s%03d", prefix, max + 1);
+    public String peekClassID() {
+        return idAllocator.peek("CL");
     }
 
     public String generateAssessmentID() {
-        String prefix = "ASM";
-        int max = 0;
-
-        for (Assessment a : assessments) {
-            if (a.getAssessmentID() != null && a.getAssessmentID().startsWith(prefix)) {
-                try {
-                    int v = Integer.parseInt(a.getAssessmentID().substring(prefix.length()));
-                    if (v > max) max = v;
-                } catch (Exception ignored) {}
-            }
-        }
-
-        return String.format("%s%03d", prefix, max + 1);
+        return idAllocator.reserve("ASM");
     }
 
     public String generateFeedbackID() {
-        String prefix = "FB";
-        int max = 0;
-
-        for (Feedback f : feedbackList) {
-            if (f.getFeedbackID() != null && f.getFeedbackID().startsWith(prefix)) {
-                try {
-                    int v = Integer.parseInt(f.getFeedbackID().substring(prefix.length()));
-                    if (v > max) max = v;
-                } catch (Exception ignored) {}
-            }
-        }
-
-        return String.format("%s%03d", prefix, max + 1);
+        return idAllocator.reserve("FB");
     }
 
     // ======== RESTORED MISSING METHODS ========
 
     public boolean deleteClass(String classID) {
-        for (int i = 0; i < classes.size(); i++) {
-            if (classes.get(i).getClassID().equals(classID)) {
-                classes.remove(i);
-                FileManager.saveAllClasses(classes);
-                return true;
-            }
+        writeLock.lock();
+        try {
+            ClassModule old = classesByID.remove(classID);
+            if (old == null) return false;
+
+            classes.remove(old);
+            unindexEnrolments(classID);
+            FileManager.deleteClass(classID);
+            changed(ReportCache.Data.CLASSES);
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public boolean approveUser(String userID) {
-        User user = findUserByID(userID);
-        if (user != null) {
-            user.setApproved(true);
-            FileManager.saveAllUsers(users);
-            return true;
+        writeLock.lock();
+        try {
+            User user = findUserByID(userID);
+            if (user != null) {
+                user.setApproved(true);
+                FileManager.saveUser(user);
+                changed(ReportCache.Data.USERS);
+                return true;
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public boolean rejectUser(String userID) {
-        User user = findUserByID(userID);
-        if (user != null) {
-            user.setActive(false);
-            user.setApproved(false);
-            FileManager.saveAllUsers(users);
-            return true;
+        writeLock.lock();
+        try {
+            User user = findUserByID(userID);
+            if (user != null) {
+                user.setActive(false);
+                user.setApproved(false);
+                FileManager.saveUser(user);
+                endSessions(userID);
+                changed(ReportCache.Data.USERS);
+                return true;
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public String generateAssessmentTypeID() {
@@ -406,13 +1131,18 @@ public class SystemManager {
     }
 
     public List<User> getPendingUsers() {
-        List<User> pending = new ArrayList<>();
-        for (User user : users) {
-            if (!user.isApproved()) {
-                pending.add(user);
+        readLock.lock();
+        try {
+            List<User> pending = new ArrayList<>();
+            for (User user : users) {
+                if (!user.isApproved()) {
+                    pending.add(user);
+                }
             }
+            return pending;
+        } finally {
+            readLock.unlock();
         }
-        return pending;
     }
 
     public List<User> getAllLecturers() {
@@ -428,51 +1158,96 @@ public class SystemManager {
     }
 
     public boolean assignLecturerToLeader(String lecturerID, String leaderID) {
-        User lecturer = findUserByID(lecturerID);
-        User leader = findUserByID(leaderID);
-
-        if (lecturer instanceof Lecturer && leader instanceof AcademicLeader) {
-            Lecturer lec = (Lecturer) lecturer;
-            lec.setAcademicLeaderID(leaderID);
-            FileManager.saveAllUsers(users);
-            return true;
+        writeLock.lock();
+        try {
+            User lecturer = findUserByID(lecturerID);
+            User leader = findUserByID(leaderID);
+
+            if (lecturer instanceof Lecturer && leader instanceof AcademicLeader) {
+                Lecturer lec = (Lecturer) lecturer;
+                lec.setAcademicLeaderID(leaderID);
+                FileManager.saveUser(lec);
+                changed(ReportCache.Data.USERS);
+                return true;
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public boolean isLecturerAlreadyAssigned(String lecturerID) {
-        User lecturer = findUserByID(lecturerID);
-        if (lecturer instanceof Lecturer) {
-            String leaderID = ((Lecturer) lecturer).getAcademicLeaderID();
-            return leaderID != null && !leaderID.isEmpty();
+        readLock.lock();
+        try {
+            User lecturer = findUserByID(lecturerID);
+            if (lecturer instanceof Lecturer) {
+                String leaderID = ((Lecturer) lecturer).getAcademicLeaderID();
+                return leaderID != null && !leaderID.isEmpty();
+            }
+            return false;
+        } finally {
+            readLock.unlock();
         }
-        return false;
     }
 
     public boolean unassignLecturerFromLeader(String lecturerID) {
-        User lecturer = findUserByID(lecturerID);
+        writeLock.lock();
+        try {
+            User lecturer = findUserByID(lecturerID);
 
-        if (lecturer instanceof Lecturer) {
-            ((Lecturer) lecturer).setAcademicLeaderID(null);
-            FileManager.saveAllUsers(users);
-            return true;
+            if (lecturer instanceof Lecturer) {
+                ((Lecturer) lecturer).setAcademicLeaderID(null);
+                FileManager.saveUser(lecturer);
+                changed(ReportCache.Data.USERS);
+                return true;
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     public boolean updateAssessment(Assessment updated) {
-        if (updated == null) return false;
+        writeLock.lock();
+        try {
+            if (updated == null) return false;
 
-        for (int i = 0; i < assessments.size(); i++) {
-            if (assessments.get(i).getAssessmentID()
-                    .equals(updated.getAssessmentID())) {
+            Assessment old = assessmentsByID.get(updated.getAssessmentID());
+            if (old == null) return false;
 
-                assessments.set(i, updated);
-                FileManager.saveAllAssessments(assessments);
-                return true;
-            }
+            replaceInList(assessments, old, updated);
+            assessmentsByID.put(updated.getAssessmentID(), updated);
+            FileManager.saveAssessment(updated);
+            changed(ReportCache.Data.ASSESSMENTS);
+            if (old != updated) gpaEngine.assessmentReplaced(old);
+            gpaEngine.assessmentChanged(updated);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Record one student's marks for an assessment and save it. The mark is
+     * written under the write lock, so readers (reports, GPA, statistics)
+     * never see an assessment half-way through a change. Returns false if
+     * the assessment does not exist or the marks are outside 0..total marks.
+     */
+    public boolean recordMarks(String assessmentID, String studentID, double marks) {
+        writeLock.lock();
+        try {
+            Assessment assessment = assessmentID == null ? null : assessmentsByID.get(assessmentID);
+            if (assessment == null || studentID == null) return false;
+            if (assessment.getAssessmentType() == null || marks < 0 || marks > assessment.getTotalMarks()) return false;
+
+            assessment.addStudentMark(studentID, marks);
+            FileManager.saveAssessment(assessment);
+            changed(ReportCache.Data.ASSESSMENTS);
+            gpaEngine.assessmentChanged(assessment);
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        return false;
     }
 
     /**
@@ -480,97 +1255,119 @@ public class SystemManager {
      * Updates all references in assessments, feedback, and classes
      */
     public boolean convertUserRole(String oldUserID, String newRole, String department, String staffID) {
-        User existingUser = findUserByID(oldUserID);
-        if (existingUser == null) {
-            return false;
-        }
-
-        // Generate new userID with correct prefix for new role
-        String newUserID = generateUserID(newRole);
-
-        try {
-            User newUser = null;
-
-            // Create new user object based on new role
-            if (newRole.equals("Student")) {
-                newUser = new Student(newUserID, existingUser.getUsername(),
-                        existingUser.getPassword(), existingUser.getEmail(),
-                        existingUser.getFullName(), existingUser.getPhoneNumber(),
-                        newUserID, "2026");
-            } else if (newRole.equals("Lecturer")) {
-                Lecturer lec = new Lecturer(newUserID, existingUser.getUsername(),
-                        existingUser.getPassword(), existingUser.getEmail(),
-                        existingUser.getFullName(), existingUser.getPhoneNumber(),
-                        newUserID, department);
-                lec.setStaffID(staffID);
-                newUser = lec;
-            } else if (newRole.equals("Academic Leader")) {
-                AcademicLeader leader = new AcademicLeader(newUserID,
-                        existingUser.getUsername(), existingUser.getPassword(),
-                        existingUser.getEmail(), existingUser.getFullName(),
-                        existingUser.getPhoneNumber(), department, newUserID);
-                leader.setStaffID(staffID);
-                newUser = leader;
-            } else if (newRole.equals("Admin Staff")) {
-                newUser = new AdminStaff(newUserID, existingUser.getUsername(),
-                        existingUser.getPassword(), existingUser.getEmail(),
-                        existingUser.getFullName(), existingUser.getPhoneNumber(),
-                        department, staffID);
+        writeLock.lock();
+        try {
+            User existingUser = findUserByID(oldUserID);
+            if (existingUser == null) {
+                return false;
             }
 
-            // Copy properties from existing user
-            if (newUser != null) {
-                newUser.setGender(existingUser.getGender());
-                newUser.setAge(existingUser.getAge());
-                newUser.setActive(existingUser.isActive());
-                newUser.setApproved(existingUser.isApproved());
-
-                // Update all assessments that reference this user
-                for (Assessment a : assessments) {
-                    // If lecturer created this assessment, update lecturer ID
-                    if (a.getLecturerID() != null && a.getLecturerID().equals(oldUserID)) {
-                        a.setLecturerID(newUserID);
-                    }
+            // Generate new userID with correct prefix for new role
+            String newUserID = generateUserID(newRole);
+
+            try {
+                User newUser = null;
+
+                // Create new user object based on new role
+                if (newRole.equals("Student")) {
+                    newUser = new Student(newUserID, existingUser.getUsername(),
+                            existingUser.getPassword(), existingUser.getEmail(),
+                            existingUser.getFullName(), existingUser.getPhoneNumber(),
+                            newUserID, "2026");
+                } else if (newRole.equals("Lecturer")) {
+                    Lecturer lec = new Lecturer(newUserID, existingUser.getUsername(),
+                            existingUser.getPassword(), existingUser.getEmail(),
+                            existingUser.getFullName(), existingUser.getPhoneNumber(),
+                            newUserID, department);
+                    lec.setStaffID(staffID);
+                    newUser = lec;
+                } else if (newRole.equals("Academic Leader")) {
+                    AcademicLeader leader = new AcademicLeader(newUserID,
+                            existingUser.getUsername(), existingUser.getPassword(),
+                            existingUser.getEmail(), existingUser.getFullName(),
+                            existingUser.getPhoneNumber(), department, newUserID);
+                    leader.setStaffID(staffID);
+                    newUser = leader;
+                } else if (newRole.equals("Admin Staff")) {
+                    newUser = new AdminStaff(newUserID, existingUser.getUsername(),
+                            existingUser.getPassword(), existingUser.getEmail(),
+                            existingUser.getFullName(), existingUser.getPhoneNumber(),
+                            department, staffID);
                 }
 
-                // Update all feedback that references this user
-                for (Feedback f : feedbackList) {
-                    // If this user gave feedback, update their ID
-                    if (f.getLecturerID() != null && f.getLecturerID().equals(oldUserID)) {
-                        f.setLecturerID(newUserID);
-                    }
-                    // If this user received feedback (as student), update their ID
-                    if (f.getStudentID() != null && f.getStudentID().equals(oldUserID)) {
-                        f.setStudentID(newUserID);
+                // Copy properties from existing user
+                if (newUser != null) {
+                    newUser.setGender(existingUser.getGender());
+                    newUser.setAge(existingUser.getAge());
+                    newUser.setActive(existingUser.isActive());
+                    newUser.setApproved(existingUser.isApproved());
+
+                    // Update all assessments that reference this user
+                    List<Assessment> touchedAssessments = new ArrayList<>();
+                    for (Assessment a : assessments) {
+                        // If lecturer created this assessment, update lecturer ID
+                        if (a.getLecturerID() != null && a.getLecturerID().equals(oldUserID)) {
+                            a.setLecturerID(newUserID);
+                            touchedAssessments.add(a);
+                        }
                     }
-                }
 
-                // Update all classes that reference this lecturer
-                for (ClassModule c : classes) {
-                    if (c.getLecturerID() != null && c.getLecturerID().equals(oldUserID)) {
-                        c.setLecturerID(newUserID);
+                    // Update all feedback that references this user
+                    List<Feedback> touchedFeedback = new ArrayList<>();
+                    for (Feedback f : feedbackList) {
+                        boolean touched = false;
+                        // If this user gave feedback, update their ID
+                        if (f.getLecturerID() != null && f.getLecturerID().equals(oldUserID)) {
+                            f.setLecturerID(newUserID);
+                            touched = true;
+                        }
+                        // If this user received feedback (as student), update their ID
+                        if (f.getStudentID() != null && f.getStudentID().equals(oldUserID)) {
+                            f.setStudentID(newUserID);
+                            touched = true;
+                        }
+                        if (touched) touchedFeedback.add(f);
                     }
-                }
 
-                // Replace user in list and save
-                for (int i = 0; i < users.size(); i++) {
-                    if (users.get(i).getUserID().equals(oldUserID)) {
-                        users.set(i, newUser);
-                        break;
+                    // Update all classes that reference this lecturer
+                    List<ClassModule> touchedClasses = new ArrayList<>();
+                    for (ClassModule c : classes) {
+                        if (c.getLecturerID() != null && c.getLecturerID().equals(oldUserID)) {
+                            c.setLecturerID(newUserID);
+                            touchedClasses.add(c);
+                        }
                     }
-                }
-
-                // Save all changes to files
-                FileManager.saveAllUsers(users);
-                FileManager.saveAllAssessments(assessments);
-                FileManager.saveAllClasses(classes);
 
-                return true;
+                    // Replace user in list and indexes
+                    replaceInList(users, existingUser, newUser);
+                    unindexUser(existingUser);
+                    usersByID.put(newUserID, newUser);
+                    indexUsername(newUser);
+                    userSearch.add(newUser);
+
+                    // Log only the records that changed
+                    FileManager.deleteUser(oldUserID);
+                    FileManager.saveUser(newUser);
+                    for (Assessment a : touchedAssessments) FileManager.saveAssessment(a);
+                    for (Feedback f : touchedFeedback) FileManager.saveFeedback(f);
+                    for (ClassModule c : touchedClasses) FileManager.saveClass(c);
+                    endSessions(oldUserID);   // the old ID no longer exists; log in again
+
+                    changed(ReportCache.Data.USERS);
+                    if (!touchedAssessments.isEmpty()) changed(ReportCache.Data.ASSESSMENTS);
+                    if (!touchedFeedback.isEmpty()) changed(ReportCache.Data.FEEDBACK);
+                    if (!touchedClasses.isEmpty()) changed(ReportCache.Data.CLASSES);
+                    gpaEngine.clear();   // marks are keyed by the old ID
+
+                    return true;
+                }
+            } catch (Exception e) {
+                return false;
             }
-        } catch (Exception e) {
+
             return false;
+        } finally {
+            writeLock.unlock();
         }
-
-        return false;
     }
 }
@@ -0,0 +1,199 @@
+import java.util.*;
+
+/**
+ * UserSearchIndex class - case-insensitive substring search over user ID,
+ * username, full name and email without lowercasing every user per search
+ *
+ * Each indexed user gets a document number and one lowercased copy of the
+ * four fields, made once when the user is indexed (fields are separated so
+ * a match never spans two of them). Every three-character sequence
+ * (trigram) of that text has a postings list: the document numbers that
+ * contain it, in increasing order because numbers are handed out in order.
+ *
+ * A query of three or more characters intersects the postings of its
+ * trigrams, shortest list first, and then checks the few candidates left
+ * with String.contains (trigrams only say a match is possible). Shorter
+ * queries match too many users for postings to help and scan the stored
+ * texts instead.
+ *
+ * Removing a user only forgets its document; the postings keep the stale
+ * number, which queries skip, until more than half of the documents are
+ * stale and everything is re-indexed. An edited user is removed and
+ * added again. Not thread-safe: SystemManager updates it under its write
+ * lock and searches under its read lock.
+ */
+public class UserSearchIndex {
+
+    private static final char SEPARATOR = '\u0001';
+
+    private User[] users = new User[1024];       // by document number, null once removed
+    private String[] texts = new String[1024];   // lowercased fields, by document number
+    private int nextDoc;
+    private int live;
+    private final Map<User, Integer> docOf = new IdentityHashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /** Growable sorted int list */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) return;   // trigram seen twice in one text
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+    }
+
+    // ======================================================
+    // MAINTENANCE
+    // ======================================================
+
+    public void rebuild(Collection<? extends User> all) {
+        users = new User[Math.max(1024, all.size() + all.size() / 4)];
+        texts = new String[users.length];
+        nextDoc = 0;
+        live = 0;
+        docOf.clear();
+        postings.clear();
+        for (User u : all) add(u);
+    }
+
+    public void add(User user) {
+        if (user == null) return;
+        if (docOf.containsKey(user)) remove(user);
+        if (nextDoc == users.length) {
+            users = Arrays.copyOf(users, nextDoc * 2);
+            texts = Arrays.copyOf(texts, nextDoc * 2);
+        }
+        int doc = nextDoc++;
+        String text = textOf(user);
+        users[doc] = user;
+        texts[doc] = text;
+        docOf.put(user, doc);
+        live++;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            long key = trigram(text, i);
+            if (key < 0) continue;   // spans a field separator
+            postings.computeIfAbsent(key, k -> new Postings()).add(doc);
+        }
+    }
+
+    public void remove(User user) {
+        Integer doc = docOf.remove(user);
+        if (doc == null) return;
+        users[doc] = null;
+        texts[doc] = null;
+        live--;
+        if (nextDoc > 1024 && live < nextDoc / 2) compact();
+    }
+
+    /**
+     * Re-index a user whose fields may have changed (or replace one user
+     * object with another)
+     */
+    public void update(User old, User updated) {
+        if (old != null) remove(old);
+        add(updated);
+    }
+
+    public int size() {
+        return live;
+    }
+
+    private void compact() {
+        List<User> current = new ArrayList<>(live);
+        for (int d = 0; d < nextDoc; d++) {
+            if (users[d] != null) current.add(users[d]);
+        }
+        rebuild(current);
+    }
+
+    // ======================================================
+    // SEARCH
+    // ======================================================
+
+    /**
+     * Users with the query somewhere in their ID, username, full name or
+     * email, ignoring case, in the order they were indexed. An empty query
+     * matches everyone. At most limit results (limit <= 0: no limit).
+     */
+    public List<User> search(String query, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        int max = limit <= 0 ? Integer.MAX_VALUE : limit;
+        List<User> result = new ArrayList<>();
+
+        if (q.length() < 3 || q.indexOf(SEPARATOR) >= 0) {
+            for (int d = 0; d < nextDoc && result.size() < max; d++) {
+                if (texts[d] != null && texts[d].contains(q)) result.add(users[d]);
+            }
+            return result;
+        }
+
+        // postings of every trigram of the query, shortest first
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Postings p = postings.get(trigram(q, i));
+            if (p == null) return result;   // some trigram occurs nowhere
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        Postings first = lists.get(0);
+        int[] cursor = new int[lists.size()];
+        for (int c = 0; c < first.size && result.size() < max; c++) {
+            int doc = first.docs[c];
+            if (texts[doc] == null || !inAll(lists, cursor, doc)) continue;
+            if (texts[doc].contains(q)) result.add(users[doc]);
+        }
+        return result;
+    }
+
+    /**
+     * Whether doc is in every other list; cursors only move forward since
+     * docs are asked for in increasing order
+     */
+    private static boolean inAll(List<Postings> lists, int[] cursor, int doc) {
+        for (int l = 1; l < lists.size(); l++) {
+            Postings p = lists.get(l);
+            int i = cursor[l];
+            if (i < p.size && p.docs[i] < doc) {
+                // gallop, then binary search within the last step
+                int step = 1;
+                while (i + step < p.size && p.docs[i + step] < doc) step <<= 1;
+                int from = i + (step >> 1);
+                int to = Math.min(p.size, i + step);
+                i = Arrays.binarySearch(p.docs, from, to, doc);
+                if (i < 0) i = -i - 1;
+            }
+            cursor[l] = i;
+            if (i >= p.size || p.docs[i] != doc) return false;
+        }
+        return true;
+    }
+
+    // ======================================================
+    // HELPERS
+    // ======================================================
+
+    private static String textOf(User u) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, u.getUserID());
+        append(sb, u.getUsername());
+        append(sb, u.getFullName());
+        append(sb, u.getEmail());
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void append(StringBuilder sb, String field) {
+        if (sb.length() > 0) sb.append(SEPARATOR);
+        if (field != null) sb.append(field);
+    }
+
+    /** Three chars packed in a long, or -1 if one is a separator */
+    private static long trigram(String s, int i) {
+        char a = s.charAt(i), b = s.charAt(i + 1), c = s.charAt(i + 2);
+        if (a == SEPARATOR || b == SEPARATOR || c == SEPARATOR) return -1;
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+}
@@ -0,0 +1,264 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * AfsBenchmarks class - benchmarks for the FileManager and SystemManager
+ * hot paths, run once per dataset size
+ *
+ * Run with bench/run.sh (it builds everything and runs in a scratch
+ * directory, because FileManager reads and writes ./data).
+ *
+ *   java AfsBenchmarks [sizes]     e.g. "1000,10000,100000" (the default)
+ *
+ * Groups, in order (loads run before saves so they read the generated files):
+ *   load.*     FileManager.loadAll* per entity, and a full SystemManager load
+ *   system.*   authenticateUser, findUserByID, getAll*, searchUsers (index vs a
+ *              lowercasing scan), generate*ID
+ *   grading.*  GradingSystem.getGradeLetterByPercentage, batch grading of `size` marks,
+ *              and a what-if GradingSimulation over every recorded mark
+ *   gpa.*      GpaEngine: every student from cold, and one cached student
+ *   report.*   the loops behind the academic leader reports
+ *   save.*     FileManager.saveAll* per entity
+ *   durable.*  a full save and a single-record save (written and flushed),
+ *              once with fsync ("durable") and once without ("nosync")
+ *   parse.*    run once, not per size: every line of a generated assessments
+ *              file (-Dbench.parseLines, default 1000000) read and parsed with
+ *              FieldCursor, and with String.split as the deserializers used to
+ *
+ * Data comes from DatasetGenerator with a fixed seed.
+ * Use -Dbench.filter=<regex> to pick benchmarks (see Bench).
+ */
+public class AfsBenchmarks {
+
+    private static final long SEED = 42;   // same data on every run
+
+    public static void main(String[] args) {
+        String sizes = args.length > 0 ? args[0] : "1000,10000,100000";
+        Bench bench = new Bench();
+        bench.header();
+        for (String size : sizes.split(",")) {
+            run(bench, Integer.parseInt(size.trim()));
+        }
+        parse(bench, Integer.getInteger("bench.parseLines", 1_000_000));
+    }
+
+    /**
+     * parse.*: the same assessments file parsed both ways. Both sum every
+     * number they parse, and the sums must match.
+     */
+    private static void parse(Bench bench, int lines) {
+        if (!bench.selected("parse.fieldCursor") && !bench.selected("parse.split")) return;
+        File file = new File("data/parse-bench.txt");
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            Random random = new Random(SEED);
+            for (int i = 1; i <= lines; i++) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(String.format("ASM%07d|Assessment %d|ASSIGNMENT|%d.0|100.0|MD%03d|LEC%03d|%d|%d|CL%04d|",
+                        i, i, 10 + random.nextInt(50), random.nextInt(200), random.nextInt(300),
+                        1_770_000_000_000L + random.nextInt(1_000_000_000), 1_771_000_000_000L + random.nextInt(1_000_000_000),
+                        random.nextInt(5000)));
+                int marks = 1 + random.nextInt(8);
+                for (int m = 0; m < marks; m++) {
+                    if (m > 0) sb.append(',');
+                    sb.append(String.format("STU%06d=%d.%d", random.nextInt(100_000), random.nextInt(101), random.nextInt(10)));
+                }
+                out.println(sb);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing " + file + ": " + e.getMessage());
+            return;
+        }
+
+        try {
+            double byCursor = parseWithCursor(file);
+            double bySplit = parseWithSplit(file);
+            if (Math.abs(byCursor - bySplit) > 1e-6 * Math.abs(bySplit)) {
+                System.out.printf("parse: MISMATCH, FieldCursor sum %.3f, split sum %.3f%n", byCursor, bySplit);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + file + ": " + e.getMessage());
+        }
+        bench.run("parse.fieldCursor", lines, () -> parseWithCursor(file));
+        bench.run("parse.split", lines, () -> parseWithSplit(file));
+        file.delete();
+    }
+
+    private static double parseWithCursor(File file) throws IOException {
+        FieldCursor p = new FieldCursor();
+        FieldCursor marks = new FieldCursor();
+        FieldCursor mark = new FieldCursor();
+        double sum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                p.reset(line, '|', true);
+                if (p.count() < 11) continue;
+                sum += p.string(0).length() + p.parseDouble(3) + p.parseDouble(4)
+                        + p.parseLong(7) % 1000 + p.parseLong(8) % 1000;
+                marks.reset(p, 10, ',', false);
+                for (int i = 0; i < marks.count(); i++) {
+                    mark.reset(marks, i, '=', false);
+                    if (mark.count() == 2) sum += mark.string(0).length() + mark.parseDouble(1);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static double parseWithSplit(File file) throws IOException {
+        double sum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("\\|", -1);
+                if (parts.length < 11) continue;
+                sum += parts[0].length() + Double.parseDouble(parts[3]) + Double.parseDouble(parts[4])
+                        + Long.parseLong(parts[7]) % 1000 + Long.parseLong(parts[8]) % 1000;
+                for (String entry : parts[10].split(",")) {
+                    String[] kv = entry.split("=");
+                    if (kv.length == 2) sum += kv[0].length() + Double.parseDouble(kv[1]);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static void run(Bench bench, int size) {
+        new DatasetGenerator(SEED).generate(size).write();
+        if (BinarySnapshot.isEnabled()) {
+            FileManager.writeBinarySnapshot();
+        }
+
+        // ===== LOAD =====
+        List<User> users = FileManager.loadAllUsers();
+        List<Module> modules = FileManager.loadAllModules();
+        bench.run("load.users", size, FileManager::loadAllUsers);
+        bench.run("load.modules", size, FileManager::loadAllModules);
+        bench.run("load.classes", size, () -> FileManager.loadAllClasses(modules, users));
+        bench.run("load.assessments", size, () -> FileManager.loadAllAssessments(modules, users));
+        bench.run("load.feedback", size, FileManager::loadAllFeedback);
+        bench.run("load.systemManager", size, SystemManager::new);
+
+        // ===== SYSTEM MANAGER =====
+        SystemManager sm = new SystemManager();
+        List<User> all = sm.getAllUsers();
+        String[] usernames = new String[all.size()];
+        String[] passwords = new String[all.size()];
+        String[] ids = new String[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            usernames[i] = all.get(i).getUsername();
+            passwords[i] = all.get(i).getPassword();
+            ids[i] = all.get(i).getUserID();
+        }
+        int[] next = new int[1];
+        bench.run("system.authenticateUser", size, () -> {
+            int i = next[0]++ % usernames.length;
+            return sm.authenticateUser(usernames[i], passwords[i]);
+        });
+        bench.run("system.findUserByID", size, () -> sm.findUserByID(ids[next[0]++ % ids.length]));
+        bench.run("system.getAllUsers", size, sm::getAllUsers);
+        // what an admin might type: pieces of names, emails and IDs, 2 to 8 characters
+        String[] queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            User u = all.get((i * 7919) % all.size());
+            String field = i % 3 == 0 ? u.getFullName() : i % 3 == 1 ? u.getEmail() : u.getUserID();
+            int len = Math.min(field.length(), 2 + i % 7);
+            int from = (i * 31) % (field.length() - len + 1);
+            queries[i] = field.substring(from, from + len).toUpperCase();
+        }
+        bench.run("system.searchUsers", size, () -> sm.searchUsers(queries[next[0]++ % queries.length], 0));
+        bench.run("system.searchUsers(scan)", size, () -> {
+            String q = queries[next[0]++ % queries.length].toLowerCase();
+            List<User> found = new ArrayList<>();
+            for (User u : all) {
+                if (u.getUserID().toLowerCase().contains(q) || u.getUsername().toLowerCase().contains(q)
+                        || u.getFullName().toLowerCase().contains(q) || u.getEmail().toLowerCase().contains(q)) {
+                    found.add(u);
+                }
+            }
+            return found;
+        });
+        bench.run("system.getAllStudents", size, sm::getAllStudents);
+        bench.run("system.generateUserID", size, () -> sm.generateUserID("STUDENT"));
+        bench.run("system.generateClassID", size, sm::generateClassID);
+        bench.run("system.generateAssessmentID", size, sm::generateAssessmentID);
+
+        // ===== GRADING =====
+        GradingSystem grading = sm.getGradingSystem();
+        bench.run("grading.getGradeLetterByPercentage", size,
+                () -> grading.getGradeLetterByPercentage(next[0]++ % 1001 / 10.0));
+        double[] percentages = new double[size];
+        Random random = new Random(SEED);
+        for (int i = 0; i < size; i++) percentages[i] = random.nextInt(10001) / 100.0;
+        int[] gradeIndices = new int[size];
+        bench.run("grading.getGradeIndices(batch)", size, () -> {
+            grading.getGradeIndices(percentages, gradeIndices);
+            return gradeIndices;
+        });
+        GradingSystem candidate = new GradingSystem("GS-BENCH", "What-if", 60.0);
+        candidate.getGrades().get(6).setMinPercentage(45);   // D from 45 instead of 50
+        candidate.getGrades().get(7).setMaxPercentage(44);
+        List<Assessment> marked = sm.getAllAssessments();
+        bench.run("grading.simulate", size, () -> GradingSimulation.run(grading, candidate, marked));
+
+        // ===== GPA =====
+        GpaEngine gpa = sm.getGpaEngine();
+        List<String> studentIDs = new ArrayList<>();
+        for (User u : sm.getAllStudents()) studentIDs.add(((Student) u).getStudentID());
+        bench.run("gpa.allStudents(cold)", size, () -> {
+            gpa.clear();
+            return gpa.getStudentGpas(studentIDs);
+        });
+        bench.run("gpa.student(cached)", size, () -> gpa.getStudentGpa(studentIDs.get(next[0]++ % studentIDs.size())));
+
+        // ===== REPORTS =====
+        bench.run("report.userSummary", size, () -> {
+            Map<String, Integer> roleCount = new HashMap<>();
+            for (User u : sm.getAllUsers()) roleCount.merge(u.getRole(), 1, Integer::sum);
+            return roleCount;
+        });
+        bench.run("report.enrollmentByStudent", size, () -> {
+            long total = 0;
+            for (User u : sm.getAllStudents()) {
+                total += sm.countClassesForStudent(((Student) u).getStudentID());
+            }
+            return total;
+        });
+        bench.run("report.assessmentAverages", size, () -> {
+            double total = 0;
+            for (Assessment a : sm.getAllAssessments()) total += a.getScore();
+            return total;
+        });
+        bench.run("report.moduleStats", size, sm::getModuleStats);
+        bench.run("report.moduleSketches", size, sm::getModuleSketches);
+        bench.run("report.cachedSection", size, () -> sm.getReportCache().get("bench.users",
+                () -> String.valueOf(sm.getAllUsers().size()), ReportCache.Data.USERS));
+
+        // ===== SAVE =====
+        List<ClassModule> classes = sm.getAllClasses();
+        List<Assessment> assessments = sm.getAllAssessments();
+        List<Feedback> feedback = sm.getAllFeedback();
+        bench.run("save.users", size, () -> { FileManager.saveAllUsers(all); return null; });
+        bench.run("save.modules", size, () -> { FileManager.saveAllModules(modules); return null; });
+        bench.run("save.classes", size, () -> { FileManager.saveAllClasses(classes); return null; });
+        bench.run("save.assessments", size, () -> { FileManager.saveAllAssessments(assessments); return null; });
+        bench.run("save.feedback", size, () -> { FileManager.saveAllFeedback(feedback); return null; });
+
+        // ===== DURABILITY =====
+        boolean mode = DurableFiles.isDurable();
+        User user = all.get(0);
+        for (boolean durable : new boolean[] {true, false}) {
+            DurableFiles.setDurable(durable);
+            String tag = durable ? "durable" : "nosync";
+            bench.run("durable." + tag + ".saveAllUsers", size, () -> { FileManager.saveAllUsers(all); return null; });
+            bench.run("durable." + tag + ".saveAllAssessments", size,
+                    () -> { FileManager.saveAllAssessments(assessments); return null; });
+            bench.run("durable." + tag + ".saveUser", size, () -> {
+                FileManager.saveUser(user);
+                FileManager.flush();   // wait for the log append (and its fsync)
+                return null;
+            });
+        }
+        DurableFiles.setDurable(mode);
+    }
+}
@@ -0,0 +1,113 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ApiLoadTest class - many concurrent student result lookups against one
+ * ApiServer and one SystemManager
+ *
+ * Run with:  MAIN=ApiLoadTest bench/run.sh [users] [students] [requests] [concurrency]
+ * (defaults 10000, 500, 20000, 2000)
+ *
+ * Generates a dataset, starts ApiServer in this JVM on a free port, logs
+ * in `students` students over HTTP and then sends `requests` GET
+ * /api/results calls spread over those sessions, keeping `concurrency` of
+ * them in flight at all times. Prints throughput and latency percentiles
+ * and checks that every answer was 200 and belonged to the student who
+ * asked. Exits with status 1 otherwise.
+ */
+public class ApiLoadTest {
+
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int studentCount = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+
+        new DatasetGenerator(SEED).generate(users).write();
+        SystemManager sm = new SystemManager();
+        ApiServer api = new ApiServer(sm, 0);
+        api.start();
+        String base = "http://localhost:" + api.getPort();
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+
+        // ===== LOG IN =====
+        List<String> tokens = new ArrayList<>();
+        List<String> studentIDs = new ArrayList<>();
+        for (User u : sm.getAllStudents()) {
+            if (tokens.size() == studentCount) break;
+            if (!u.isApproved() || !u.isActive() || sm.findUserByUsername(u.getUsername()) != u) continue;
+            String body = Json.write(Json.object("username", u.getUsername(), "password", u.getPassword()));
+            HttpResponse<String> res = client.send(HttpRequest.newBuilder(URI.create(base + "/api/login"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            if (res.statusCode() != 200) {
+                System.out.println("login failed for " + u.getUsername() + ": " + res.body());
+                continue;
+            }
+            tokens.add((String) Json.parseObject(res.body()).get("token"));
+            studentIDs.add(((Student) u).getStudentID());
+        }
+        System.out.println("users=" + users + " sessions=" + tokens.size()
+                + " requests=" + requests + " concurrency=" + concurrency);
+
+        // ===== LOAD =====
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger active = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int slot = i;
+            int who = i % tokens.size();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/results"))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Authorization", "Bearer " + tokens.get(who)).GET().build();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((res, err) -> {
+                latencies[slot] = System.nanoTime() - sent;
+                boolean ok = err == null && res.statusCode() == 200
+                        && res.body().startsWith("{\"studentID\":\"" + studentIDs.get(who) + "\"");
+                if (!ok && failures.getAndIncrement() < 5) {
+                    System.out.println("failed: " + (err != null ? err : res.statusCode() + " " + res.body()));
+                }
+                active.decrementAndGet();
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %.2f s = %.0f req/s, peak in flight %d%n",
+                requests, seconds, requests / seconds, peak.get());
+        System.out.printf("latency ms  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                pct(latencies, 50), pct(latencies, 95), pct(latencies, 99), latencies[requests - 1] / 1e6);
+        System.out.println(failures.get() == 0 ? "ALL PASSED" : failures.get() + " REQUEST(S) FAILED");
+
+        api.stop();
+        FileManager.shutdown();
+        System.exit(failures.get() == 0 ? 0 : 1);
+    }
+
+    private static double pct(long[] sorted, int p) {
+        int i = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Bench class - a small timing harness in the style of JMH, with no
+ * dependencies so it runs anywhere the app itself compiles
+ *
+ * It is a quick check, not JMH: no forked JVM, no dead-code or
+ * constant-folding protection beyond the sink below. For numbers to quote
+ * use the JMH module in bench/jmh (bench/jmh/run.sh), which measures the
+ * same operations.
+ *
+ * Each benchmark is warmed up for a while (so the JIT has compiled it),
+ * then timed over several rounds. A round runs the operation as often as
+ * fits in its time slice (at least once), and the result is reported as
+ * the mean time per operation with the spread between rounds.
+ * Results are kept in a volatile field so the JIT cannot skip the work.
+ *
+ * Settings (system properties):
+ *   bench.warmup   warm-up time per benchmark in ms (default 1000)
+ *   bench.time     measured time per benchmark in ms (default 2000)
+ *   bench.rounds   measured rounds (default 5)
+ *   bench.filter   regex; only benchmarks whose name matches are run
+ */
+public class Bench {
+
+    /** One benchmarked operation; the return value is consumed */
+    public interface Op {
+        Object run() throws Exception;
+    }
+
+    private static volatile Object sink;
+
+    private final long warmupNanos = Long.getLong("bench.warmup", 1000) * 1_000_000L;
+    private final long measureNanos = Long.getLong("bench.time", 2000) * 1_000_000L;
+    private final int rounds = Integer.getInteger("bench.rounds", 5);
+    private final Pattern filter = Pattern.compile(System.getProperty("bench.filter", ".*"));
+
+    public void header() {
+        System.out.printf("%-44s %8s %16s %10s %12s%n", "Benchmark", "(size)", "ns/op", "error", "ops/s");
+    }
+
+    public boolean selected(String name) {
+        return filter.matcher(name).find();
+    }
+
+    /**
+     * Warm up and time one operation, then print a result line
+     */
+    public void run(String name, int size, Op op) {
+        if (!selected(name)) return;
+        try {
+            long end = System.nanoTime() + warmupNanos;
+            do {
+                sink = op.run();
+            } while (System.nanoTime() < end);
+
+            long slice = Math.max(1, measureNanos / rounds);
+            double[] nsPerOp = new double[rounds];
+            for (int r = 0; r < rounds; r++) {
+                long ops = 0;
+                long start = System.nanoTime();
+                long now;
+                do {
+                    sink = op.run();
+                    ops++;
+                    now = System.nanoTime();
+                } while (now - start < slice);
+                nsPerOp[r] = (double) (now - start) / ops;
+            }
+
+            double mean = 0;
+            for (double v : nsPerOp) mean += v;
+            mean /= rounds;
+            double variance = 0;
+            for (double v : nsPerOp) variance += (v - mean) * (v - mean);
+            double error = rounds > 1 ? Math.sqrt(variance / (rounds - 1)) : 0;
+
+            System.out.printf(Locale.ROOT, "%-44s %8d %16.1f %9.1f%% %12.1f%n",
+                    name, size, mean, mean > 0 ? error * 100 / mean : 0, 1e9 / mean);
+        } catch (Exception e) {
+            System.out.printf("%-44s %8d   FAILED: %s%n", name, size, e);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConcurrencyStress class - many sessions hammering one SystemManager
+ *
+ * Run with:  MAIN=ConcurrencyStress bench/run.sh [threads] [opsPerThread]
+ *
+ * Every scenario starts all threads together (a latch) so they really
+ * contend, then checks that the result is what some one-at-a-time order of
+ * the same calls would give:
+ *   ids        every thread creates classes: all IDs unique, none lost
+ *   register   every thread registers the same username: exactly one wins
+ *   enrol      every thread enrols its own students in one small class:
+ *              exactly `capacity` succeed and the enrolment index agrees
+ *   marks      every thread records marks for its own students on a few
+ *              shared assessments: none lost, statistics agree with the marks
+ *   sessions   concurrent login/logout: unique session IDs, none left over;
+ *              deleting, rejecting, deactivating or converting a user ends
+ *              their sessions
+ *   reload     after FileManager.flush() a fresh SystemManager reads back
+ *              the same classes and enrolments
+ * Readers run lookups, getAll* and the mark statistics the whole time; any exception they hit
+ * (e.g. ConcurrentModificationException) fails the run.
+ * Exits with status 1 if any check fails.
+ */
+public class ConcurrencyStress {
+
+    private static final long SEED = 42;
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        new DatasetGenerator(SEED).generate(2000).write();
+        SystemManager sm = new SystemManager();
+        System.out.println("threads=" + threads + " ops/thread=" + ops + " users=" + sm.getAllUsers().size());
+
+        ReaderLoad readers = new ReaderLoad(sm, Math.max(2, threads / 2));
+        readers.start();
+
+        ids(sm, threads, ops);
+        register(sm, threads);
+        enrol(sm, threads, ops);
+        marks(sm, threads, ops);
+        sessions(sm, threads, ops);
+
+        readers.stop();
+        check("readers ran without errors (" + readers.reads.get() + " reads)", readers.errors.isEmpty());
+        for (Throwable t : readers.errors) t.printStackTrace();
+
+        reload(sm);
+
+        System.out.println(failures == 0 ? "ALL PASSED" : failures + " CHECK(S) FAILED");
+        FileManager.shutdown();
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // ======================================================
+    // SCENARIOS
+    // ======================================================
+
+    private static void ids(SystemManager sm, int threads, int ops) throws Exception {
+        int before = sm.getAllClasses().size();
+        List<String> created = Collections.synchronizedList(new ArrayList<>());
+        long ms = together(threads, t -> {
+            for (int i = 0; i < ops; i++) {
+                String id = sm.generateClassID();
+                sm.createClass(new ClassModule(id, "Stress " + t + "-" + i, "MD001", 30, "Mon", "09:00", "Lab", null));
+                created.add(id);
+            }
+        });
+        Set<String> unique = new HashSet<>(created);
+        check("ids: " + created.size() + " classes created in " + ms + " ms, all IDs unique",
+                unique.size() == threads * ops);
+        check("ids: every created class is stored and findable",
+                sm.getAllClasses().size() == before + threads * ops
+                        && created.stream().allMatch(id -> sm.findClassByID(id) != null));
+    }
+
+    private static void register(SystemManager sm, int threads) throws Exception {
+        AtomicInteger wins = new AtomicInteger();
+        together(threads, t -> {
+            String id = sm.generateUserID("STUDENT");
+            Student s = new Student(id, "stress.same.name", "pw", "s@x", "Stress", "0", id, "2026");
+            if (sm.registerUser(s)) wins.incrementAndGet();
+        });
+        check("register: exactly one of " + threads + " registrations of one username wins", wins.get() == 1);
+    }
+
+    private static void enrol(SystemManager sm, int threads, int ops) throws Exception {
+        int capacity = Math.max(1, threads * ops / 4);
+        String classID = sm.generateClassID();
+        sm.createClass(new ClassModule(classID, "Contended", "MD001", capacity, "Tue", "10:00", "Hall", null));
+
+        AtomicInteger accepted = new AtomicInteger();
+        long ms = together(threads, t -> {
+            for (int i = 0; i < ops; i++) {
+                String id = sm.generateUserID("STUDENT");
+                Student s = new Student(id, "stress." + id, "pw", id + "@x", "Stress", "0", id, "2026");
+                sm.registerUser(s);
+                if (sm.enrollStudent(classID, s)) accepted.incrementAndGet();
+            }
+        });
+        ClassModule c = sm.findClassByID(classID);
+        check("enrol: " + threads * ops + " attempts in " + ms + " ms, exactly capacity (" + capacity + ") accepted",
+                accepted.get() == capacity && c.getEnrolledStudents().size() == capacity);
+        boolean indexed = true;
+        for (Student s : c.getEnrolledStudents()) {
+            indexed &= sm.isEnrolled(s.getStudentID(), classID);
+        }
+        check("enrol: enrolment index matches the class", indexed);
+    }
+
+    private static void marks(SystemManager sm, int threads, int ops) throws Exception {
+        List<Assessment> targets = new ArrayList<>();
+        for (Assessment a : sm.getAllAssessments()) {
+            if (a.getAssessmentType() != null && a.getTotalMarks() > 0) targets.add(a);
+            if (targets.size() == 4) break;
+        }
+        Map<String, Integer> before = new HashMap<>();
+        for (Assessment a : targets) before.put(a.getAssessmentID(), a.getMarkedCount());
+
+        AtomicInteger rejected = new AtomicInteger();
+        long ms = together(threads, t -> {
+            for (int i = 0; i < ops; i++) {
+                Assessment a = targets.get(i % targets.size());
+                double mark = (i % 101) * a.getTotalMarks() / 100;
+                if (!sm.recordMarks(a.getAssessmentID(), "STRESS-" + t + "-" + i, mark)) rejected.incrementAndGet();
+            }
+        });
+        boolean counted = true;
+        boolean stats = true;
+        for (int k = 0; k < targets.size(); k++) {
+            Assessment a = targets.get(k);
+            int expected = 0;
+            for (int i = k; i < ops; i += targets.size()) expected++;
+            counted &= a.getMarkedCount() == before.get(a.getAssessmentID()) + expected * threads;
+            stats &= a.getStats(sm.getGradingSystem()).getCount() == a.getMarkedCount();
+        }
+        check("marks: " + threads * ops + " marks recorded in " + ms + " ms, none rejected or lost",
+                rejected.get() == 0 && counted);
+        check("marks: running statistics match the stored marks", stats);
+    }
+
+    private static void sessions(SystemManager sm, int threads, int ops) throws Exception {
+        List<User> logins = new ArrayList<>();
+        for (User u : sm.getAllUsers()) {
+            if (u.isApproved() && u.isActive() && sm.findUserByUsername(u.getUsername()) == u) logins.add(u);
+            if (logins.size() == threads) break;
+        }
+        Set<String> sessionIDs = ConcurrentHashMap.newKeySet();
+        AtomicInteger wrongUser = new AtomicInteger();
+        together(logins.size(), t -> {
+            User u = logins.get(t);
+            for (int i = 0; i < ops; i++) {
+                Session session = sm.login(u.getUsername(), u.getPassword());
+                if (session == null || session.getUser() != u) {
+                    wrongUser.incrementAndGet();
+                    continue;
+                }
+                sessionIDs.add(session.getSessionID());
+                sm.logout(session);
+            }
+        });
+        check("sessions: every login got its own user and a unique session ID",
+                wrongUser.get() == 0 && sessionIDs.size() == logins.size() * ops);
+        check("sessions: none left open", sm.getActiveSessions().isEmpty());
+
+        // ending a user's account ends their sessions, even while readers look them up
+        if (logins.size() >= 4) {
+            List<Session> open = new ArrayList<>();
+            for (User u : logins.subList(0, 4)) open.add(sm.login(u.getUsername(), u.getPassword()));
+            sm.deleteUser(logins.get(0).getUserID());
+            sm.rejectUser(logins.get(1).getUserID());
+            sm.editUser(logins.get(2).getUserID(), u -> u.setActive(false));
+            sm.convertUserRole(logins.get(3).getUserID(), "Admin Staff", "Admin", "S999");
+            boolean ended = true;
+            for (Session s : open) ended &= sm.findSession(s.getSessionID()) == null;
+            check("sessions: deleted, rejected, deactivated and converted users are logged out",
+                    ended && sm.getActiveSessions().isEmpty());
+        }
+    }
+
+    private static void reload(SystemManager sm) {
+        check("reload: every queued save written", FileManager.flush());
+        SystemManager fresh = new SystemManager();
+        Map<String, Integer> expected = new HashMap<>();
+        for (ClassModule c : sm.getAllClasses()) expected.put(c.getClassID(), c.getEnrolledStudents().size());
+        Map<String, Integer> actual = new HashMap<>();
+        for (ClassModule c : fresh.getAllClasses()) actual.put(c.getClassID(), c.getEnrolledStudents().size());
+        check("reload: " + expected.size() + " classes and their enrolments read back from disk", expected.equals(actual));
+    }
+
+    // ======================================================
+    // HELPERS
+    // ======================================================
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Run the worker on this many threads, all released at the same moment.
+     * Returns the wall time in ms; rethrows the first worker failure.
+     */
+    private static long together(int threads, Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        return (System.nanoTime() - begin) / 1_000_000;
+    }
+
+    private static void check(String what, boolean ok) {
+        System.out.println((ok ? "  ok    " : "  FAIL  ") + what);
+        if (!ok) failures++;
+    }
+
+    /** Background threads doing lookups while the scenarios run */
+    private static class ReaderLoad {
+        final SystemManager sm;
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger reads = new AtomicInteger();
+        volatile boolean running = true;
+
+        ReaderLoad(SystemManager sm, int count) {
+            this.sm = sm;
+            for (int i = 0; i < count; i++) threads.add(new Thread(this::loop, "reader-" + i));
+        }
+
+        void start() {
+            for (Thread t : threads) t.start();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            for (Thread t : threads) t.join();
+        }
+
+        private void loop() {
+            Random random = new Random();
+            try {
+                while (running) {
+                    List<User> users = sm.getAllUsers();
+                    User u = users.get(random.nextInt(users.size()));
+                    sm.findUserByID(u.getUserID());
+                    sm.findUserByUsername(u.getUsername());
+                    if (u instanceof Student) {
+                        String id = ((Student) u).getStudentID();
+                        for (ClassModule c : sm.getClassesForStudent(id)) sm.isEnrolled(id, c.getClassID());
+                    }
+                    for (ClassModule c : sm.getAllClasses()) c.getEnrolledStudents().size();
+                    sm.getModuleStats();
+                    sm.getModuleSketches();
+                    List<Assessment> assessments = sm.getAllAssessments();
+                    if (!assessments.isEmpty()) {
+                        // what the API and GPA code do while marks are being recorded
+                        Assessment a = assessments.get(random.nextInt(Math.min(4, assessments.size())));
+                        MarkStore store = a.getMarkStore();
+                        for (int slot = 0; slot < store.size(); slot++) a.getStudentMarks(store.studentAt(slot));
+                    }
+                    reads.incrementAndGet();
+                }
+            } catch (Throwable t) {
+                errors.add(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.*;
+
+/**
+ * GradingSimulationCheck class - checks the what-if grading preview against
+ * marks worked out by hand
+ *
+ * Run with:  MAIN=GradingSimulationCheck bench/run.sh
+ *
+ * Checks:
+ *   bands      a candidate that splits F into F- (40-49, grade point 1.0)
+ *              and F (0-39) moves exactly the marks in 40-49 to F-
+ *   pass       pass/fail follows the passing percentage, not the grade
+ *              point: F- marks still fail, D (50-59) marks still pass
+ *              when passing is 50%, and a band edit alone changes no
+ *              module's pass rate
+ *   passMark   a candidate with a higher passing percentage fails exactly
+ *              the marks below it
+ *   table      the admin panel's candidate, built from the live system's
+ *              own bands with a live pass mark of 50, keeps that pass mark,
+ *              ID and name, and changes no mark and no pass rate
+ * Exits with status 1 if any check fails.
+ */
+public class GradingSimulationCheck {
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        // one module, one assessment out of 100 marks: 10 students at each of these marks
+        double[] marks = {20, 39, 40, 45, 49, 50, 55, 59, 60, 75, 95};
+        Module module = new Module("MD-C", "Check", "CHK101", "Simulation check", 3, "Computing");
+        AssessmentType type = new AssessmentType("AT-C", AssessmentType.Type.values()[0], 100, 100);
+        Assessment a = new Assessment("ASM-C", "Check", type, module, null, null, new Date());
+        int student = 0;
+        for (double mark : marks) {
+            for (int i = 0; i < 10; i++) a.addStudentMark("S" + student++, mark);
+        }
+        List<Assessment> assessments = Collections.singletonList(a);
+
+        GradingSystem current = new GradingSystem("GS-NOW", "Current", 50.0);
+        GradingSystem fMinus = new GradingSystem("GS-FM", "With F-", 50.0);
+        fMinus.getGrades().get(7).setMaxPercentage(39);   // F 0-39
+        fMinus.getGrades().add(new GradingScale("G9", "F-", 40, 49, "Marginal fail", 1.0));
+
+        GradingSimulation.Result bands = GradingSimulation.run(current, fMinus, assessments);
+        check("bands: 30 marks in 40-49 move from F to F-", after(bands, "F-") == 30
+                && before(bands, "F") == 50 && after(bands, "F") == 20 && bands.getChangedMarks() == 30);
+        check("pass: F- (grade point 1.0) still fails and D still passes, so no module's pass rate changes",
+                bands.getModuleDeltas().isEmpty());
+
+        GradingSystem stricter = new GradingSystem("GS-60", "Pass at 60", 60.0);
+        GradingSimulation.Result passMark = GradingSimulation.run(current, stricter, assessments);
+        GradingSimulation.ModuleDelta delta = passMark.getModuleDeltas().isEmpty() ? null : passMark.getModuleDeltas().get(0);
+        check("passMark: at 60% the 30 marks in 50-59 fail (60 of 110 passed before, 30 after)",
+                delta != null && delta.getMarks() == 110 && delta.getPassedBefore() == 60 && delta.getPassedAfter() == 30);
+
+        javax.swing.table.DefaultTableModel rows = new javax.swing.table.DefaultTableModel(
+                new Object[] {"Min %", "Max %", "Grade", "GPA", "Classification"}, 0);
+        for (GradingScale scale : current.getGrades()) {
+            rows.addRow(new Object[] {(int) scale.getMinPercentage(), (int) scale.getMaxPercentage(),
+                    scale.getGradeLetter(), scale.getGPA(), scale.getDescription()});
+        }
+        GradingSystem fromTable = AdminGradingSystemPanel.buildGradingSystem(current, rows);
+        GradingSimulation.Result unchanged = GradingSimulation.run(current, fromTable, assessments);
+        check("table: an unedited table keeps the live pass mark (50%), ID and name",
+                fromTable.getPassingPercentage() == 50.0 && fromTable.getSystemID().equals("GS-NOW")
+                        && fromTable.getSystemName().equals("Current"));
+        check("table: an unedited table changes no mark and no module's pass rate",
+                unchanged.getChangedMarks() == 0 && unchanged.getModuleDeltas().isEmpty());
+
+        System.out.println(failures == 0 ? "ALL PASSED" : failures + " CHECK(S) FAILED");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static long before(GradingSimulation.Result result, String letter) {
+        for (GradingSimulation.GradeCount c : result.getDistribution()) {
+            if (c.getGradeLetter().equals(letter)) return c.getBefore();
+        }
+        return 0;
+    }
+
+    private static long after(GradingSimulation.Result result, String letter) {
+        for (GradingSimulation.GradeCount c : result.getDistribution()) {
+            if (c.getGradeLetter().equals(letter)) return c.getAfter();
+        }
+        return 0;
+    }
+
+    private static void check(String what, boolean ok) {
+        System.out.println((ok ? "  ok    " : "  FAIL  ") + what);
+        if (!ok) failures++;
+    }
+}
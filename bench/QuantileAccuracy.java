@@ -0,0 +1,156 @@
+import java.util.*;
+
+/**
+ * QuantileAccuracy class - checks QuantileSketch against the exact answers
+ * from sorting every mark
+ *
+ * Run with:  MAIN=QuantileAccuracy bench/run.sh [marks]   (default 1000000)
+ *
+ * Checks, for several mark distributions (uniform, bell-shaped, two
+ * humps, whole marks with many ties):
+ *   exact      up to k marks every quantile and rank is exactly right
+ *   sketch     with `marks` marks every quantile's true rank, and every
+ *              percentile rank, is within 2% of the asked-for value
+ *   merge      100 sketches merged (as modules into a department) stay
+ *              within the same bound
+ *   assessment an assessment's sketch follows new and overwritten marks
+ * Prints the largest rank error seen and exits with status 1 if any
+ * check fails.
+ */
+public class QuantileAccuracy {
+
+    private static final double TOLERANCE = 0.02;
+    private static final double[] QS = {0.01, 0.05, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        int marks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+
+        for (String shape : new String[] {"uniform", "bell", "two-humps", "whole-marks"}) {
+            double[] small = sample(shape, QuantileSketch.DEFAULT_K, random);
+            QuantileSketch exact = sketchOf(small);
+            check(shape + " exact: " + small.length + " marks, sketch is exact",
+                    exact.isExact() && maxError(exact, small) < 1e-9);
+
+            double[] values = sample(shape, marks, random);
+            long start = System.nanoTime();
+            QuantileSketch sketch = sketchOf(values);
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            double error = maxError(sketch, values);
+            check(String.format("%s sketch: %,d marks in %d ms, %d values kept, max rank error %.3f%%",
+                    shape, marks, ms, sketch.getRetainedCount(), error * 100), error <= TOLERANCE);
+
+            QuantileSketch merged = new QuantileSketch();
+            int parts = 100;
+            for (int p = 0; p < parts; p++) {
+                QuantileSketch part = new QuantileSketch();
+                for (int i = p; i < values.length; i += parts) part.add(values[i]);
+                merged.include(part);
+            }
+            error = maxError(merged, values);
+            check(String.format("%s merge: %d sketches merged, max rank error %.3f%%", shape, parts, error * 100),
+                    merged.getCount() == values.length && error <= TOLERANCE);
+        }
+
+        assessment(random);
+
+        System.out.println(failures == 0 ? "ALL PASSED" : failures + " CHECK(S) FAILED");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void assessment(Random random) {
+        AssessmentType type = new AssessmentType("AT-Q", AssessmentType.Type.values()[0], 30, 50);
+        Assessment a = new Assessment("ASM-Q", "Quantiles", type, null, null, null, new Date());
+        double[] truth = new double[150];
+        for (int i = 0; i < truth.length; i++) {
+            double mark = random.nextInt(51);
+            a.addStudentMark("S" + i, mark);
+            truth[i] = mark * 2;
+        }
+        a.getSketch();   // built once, then kept up to date
+        for (int i = 0; i < 40; i++) {
+            int who = random.nextInt(truth.length);
+            double mark = random.nextInt(51);
+            a.addStudentMark("S" + who, mark);   // overwrite
+            truth[who] = mark * 2;
+        }
+        QuantileSketch sketch = a.getSketch();
+        check("assessment: sketch follows new and overwritten marks exactly (" + sketch.getCount() + " marks)",
+                sketch.isExact() && sketch.getCount() == truth.length && maxError(sketch, truth) < 1e-9);
+    }
+
+    // ======================================================
+    // HELPERS
+    // ======================================================
+
+    private static double[] sample(String shape, int n, Random random) {
+        double[] v = new double[n];
+        for (int i = 0; i < n; i++) {
+            switch (shape) {
+                case "uniform": v[i] = random.nextDouble() * 100; break;
+                case "bell": v[i] = clamp(65 + random.nextGaussian() * 12); break;
+                case "two-humps": v[i] = clamp(random.nextBoolean() ? 40 + random.nextGaussian() * 8 : 78 + random.nextGaussian() * 6); break;
+                default: v[i] = random.nextInt(101);
+            }
+        }
+        return v;
+    }
+
+    private static double clamp(double x) {
+        return Math.max(0, Math.min(100, x));
+    }
+
+    private static QuantileSketch sketchOf(double[] values) {
+        QuantileSketch s = new QuantileSketch();
+        for (double v : values) s.add(v);
+        return s;
+    }
+
+    /**
+     * Worst distance, as a fraction of the count, between what was asked
+     * for and the truth: for quantiles, from q to the true rank range of
+     * the returned value; for percentile ranks, from the sketch's rank to
+     * the true (mid) rank of each quantile value
+     */
+    private static double maxError(QuantileSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        double worst = 0;
+        for (double q : QS) {
+            double v = sketch.getQuantile(q);
+            double below = lowerBound(sorted, v) / (double) n;
+            double atOrBelow = upperBound(sorted, v) / (double) n;
+            worst = Math.max(worst, q < below ? below - q : q > atOrBelow ? q - atOrBelow : 0);
+
+            double probe = sorted[Math.min(n - 1, (int) (q * n))];
+            double trueRank = (lowerBound(sorted, probe) + upperBound(sorted, probe)) / 2.0 / n;
+            worst = Math.max(worst, Math.abs(sketch.getPercentileRank(probe) / 100.0 - trueRank));
+        }
+        return worst;
+    }
+
+    private static int lowerBound(double[] sorted, double v) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < v) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int upperBound(double[] sorted, double v) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= v) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static void check(String what, boolean ok) {
+        System.out.println((ok ? "  ok    " : "  FAIL  ") + what);
+        if (!ok) failures++;
+    }
+}
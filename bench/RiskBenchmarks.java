@@ -0,0 +1,80 @@
+import java.util.*;
+
+/**
+ * RiskBenchmarks class - department-wide module risk, one module at a time
+ * versus AcademicLeader.analyzeAllModules
+ *
+ * Run with:  MAIN=RiskBenchmarks bench/run.sh [modules] [assessments] [marks]
+ * (defaults 2000, 100000, 30 marks per assessment)
+ *
+ * Builds the modules and assessments in memory (no files), checks that
+ * both ways give every module the same risk, prints the first (cold) run
+ * of analyzeAllModules, which builds every assessment's statistics, and
+ * then benchmarks:
+ *   risk.perModule          getAssessmentsByModule + analyzeModuleMarks
+ *                           for each module (a scan of all assessments per module)
+ *   risk.analyzeAllModules  one grouping scan, modules evaluated in parallel
+ */
+public class RiskBenchmarks {
+
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        int moduleCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int assessmentCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int marks = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        Random random = new Random(SEED);
+        List<Module> modules = new ArrayList<>();
+        double[] difficulty = new double[moduleCount];
+        for (int i = 0; i < moduleCount; i++) {
+            modules.add(new Module(String.format("MD%05d", i), "Module " + i, String.format("M%05d", i),
+                    "", 4, "DEPT" + (i % 4)));
+            difficulty[i] = 50 + random.nextDouble() * 35;   // mean mark of the module
+        }
+        AssessmentType type = new AssessmentType("AT1", AssessmentType.Type.ASSIGNMENT, 30, 100);
+        List<Assessment> assessments = new ArrayList<>();
+        for (int i = 0; i < assessmentCount; i++) {
+            int m = random.nextInt(moduleCount);
+            Assessment a = new Assessment(String.format("ASM%06d", i), "A" + i, type, modules.get(m), null, null, new Date());
+            for (int s = 0; s < marks; s++) {
+                double mark = Math.max(0, Math.min(100, difficulty[m] + random.nextGaussian() * 15));
+                a.addStudentMark("S" + random.nextInt(50_000), Math.round(mark));
+            }
+            assessments.add(a);
+        }
+        GradingSystem grading = new GradingSystem("GS001", "APU Grading System", 60.0);
+        AcademicLeader leader = new AcademicLeader("U1", "leader", "pw", "l@x", "Leader", "0", "DEPT0", "ACL1");
+        System.out.println("modules=" + moduleCount + " assessments=" + assessmentCount + " marks/assessment=" + marks
+                + " threads=" + Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        List<AcademicLeader.ModuleRisk> table = leader.analyzeAllModules(modules, assessments, grading);
+        System.out.printf("analyzeAllModules (cold, builds all stats): %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        Map<String, String> expected = perModule(leader, modules, assessments, grading);
+        boolean same = table.size() == modules.size();
+        Map<String, Integer> levels = new TreeMap<>();
+        for (AcademicLeader.ModuleRisk r : table) {
+            same &= r.getRisk().equals(expected.get(r.getModule().getModuleID()));
+            levels.merge(r.getRisk(), 1, Integer::sum);
+        }
+        System.out.println("risk levels " + levels + (same ? ", same as one module at a time" : ", MISMATCH"));
+
+        Bench bench = new Bench();
+        bench.header();
+        bench.run("risk.perModule", moduleCount, () -> perModule(leader, modules, assessments, grading));
+        bench.run("risk.analyzeAllModules", moduleCount, () -> leader.analyzeAllModules(modules, assessments, grading));
+        System.exit(same ? 0 : 1);
+    }
+
+    private static Map<String, String> perModule(AcademicLeader leader, List<Module> modules,
+                                                 List<Assessment> assessments, GradingSystem grading) {
+        Map<String, String> risk = new HashMap<>();
+        for (Module m : modules) {
+            List<Assessment> own = leader.getAssessmentsByModule(assessments, m);
+            risk.put(m.getModuleID(), leader.analyzeModuleMarks(m, own, grading));
+        }
+        return risk;
+    }
+}
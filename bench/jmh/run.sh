@@ -0,0 +1,22 @@
+#!/bin/sh
+# Build the JMH benchmarks (bench/jmh/pom.xml) and run them in a scratch
+# directory (FileManager works on ./data, so the real data/ folder is never
+# touched). Arguments go to JMH:
+#
+#   bench/jmh/run.sh                                  everything
+#   bench/jmh/run.sh SystemBenchmarks                 one class (a regex)
+#   bench/jmh/run.sh 'SystemBenchmarks.search' -p size=100000
+#   bench/jmh/run.sh ParseBenchmarks                  FieldCursor vs split on 1M lines
+#   bench/jmh/run.sh -l                               list the benchmarks
+#   JAVA_OPTS="-Dafs.snapshot=true" bench/jmh/run.sh LoadBenchmarks
+set -e
+
+HERE=$(cd "$(dirname "$0")" && pwd)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+mvn -B -q -f "$HERE/pom.xml" package
+
+cd "$WORK"
+# text files by default; the snapshot is opt-in through JAVA_OPTS
+java -jar "$HERE/target/benchmarks.jar" -jvmArgsAppend "-Dafs.snapshot=false $JAVA_OPTS" "$@"
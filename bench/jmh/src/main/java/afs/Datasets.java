@@ -0,0 +1,21 @@
+package afs;
+
+/**
+ * Datasets class - writes the generated data files the benchmarks load
+ *
+ * Same seed as bench/AfsBenchmarks, so both harnesses measure the same data.
+ * Files go to ./data (run.sh runs the benchmarks in a scratch directory).
+ */
+final class Datasets {
+
+    static final long SEED = 42;
+
+    private Datasets() {}
+
+    static void write(int users) {
+        new DatasetGenerator(SEED).generate(users).write();
+        if (BinarySnapshot.isEnabled()) {
+            FileManager.writeBinarySnapshot();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package afs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GradingBenchmarks class - grade lookups, the what-if simulation and GPA
+ * (grading.* and gpa.* in AfsBenchmarks)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradingBenchmarks {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private GradingSystem grading;
+    private GradingSystem candidate;
+    private List<Assessment> marked;
+    private double[] percentages;
+    private int[] gradeIndices;
+    private GpaEngine gpa;
+    private List<String> studentIDs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Datasets.write(size);
+        SystemManager sm = new SystemManager();
+        grading = sm.getGradingSystem();
+        candidate = new GradingSystem("GS-BENCH", "What-if", 60.0);
+        candidate.getGrades().get(6).setMinPercentage(45);   // D from 45 instead of 50
+        candidate.getGrades().get(7).setMaxPercentage(44);
+        marked = sm.getAllAssessments();
+
+        percentages = new double[size];
+        Random random = new Random(Datasets.SEED);
+        for (int i = 0; i < size; i++) percentages[i] = random.nextInt(10001) / 100.0;
+        gradeIndices = new int[size];
+
+        gpa = sm.getGpaEngine();
+        studentIDs = new ArrayList<>();
+        for (User u : sm.getAllStudents()) studentIDs.add(((Student) u).getStudentID());
+    }
+
+    @Benchmark
+    public String gradeLetterByPercentage() {
+        return grading.getGradeLetterByPercentage(next++ % 1001 / 10.0);
+    }
+
+    @Benchmark
+    public int[] gradeIndicesBatch() {
+        grading.getGradeIndices(percentages, gradeIndices);
+        return gradeIndices;
+    }
+
+    @Benchmark
+    public GradingSimulation.Result simulate() {
+        return GradingSimulation.run(grading, candidate, marked);
+    }
+
+    @Benchmark
+    public Object gpaAllStudentsCold() {
+        gpa.clear();
+        return gpa.getStudentGpas(studentIDs);
+    }
+
+    @Benchmark
+    public Object gpaStudentCached() {
+        return gpa.getStudentGpa(studentIDs.get(next++ % studentIDs.size()));
+    }
+}
@@ -0,0 +1,51 @@
+package afs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoadBenchmarks class - reading the data files back (load.* in AfsBenchmarks)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmarks {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<User> users;
+    private List<Module> modules;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Datasets.write(size);
+        users = FileManager.loadAllUsers();
+        modules = FileManager.loadAllModules();
+    }
+
+    @Benchmark
+    public List<User> users() {
+        return FileManager.loadAllUsers();
+    }
+
+    @Benchmark
+    public List<ClassModule> classes() {
+        return FileManager.loadAllClasses(modules, users);
+    }
+
+    @Benchmark
+    public List<Assessment> assessments() {
+        return FileManager.loadAllAssessments(modules, users);
+    }
+
+    @Benchmark
+    public SystemManager systemManager() {
+        return new SystemManager();
+    }
+}
@@ -0,0 +1,102 @@
+package afs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParseBenchmarks class - one assessments file (1M lines by default) read
+ * and parsed with FieldCursor, and with String.split as the deserializers
+ * used to (parse.* in AfsBenchmarks)
+ *
+ * Both return the sum of every number they parse, and setUp checks that the
+ * sums match.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmarks {
+
+    @Param({"1000000"})
+    public int lines;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = new File("parse-bench.txt");
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            Random random = new Random(Datasets.SEED);
+            for (int i = 1; i <= lines; i++) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(String.format("ASM%07d|Assessment %d|ASSIGNMENT|%d.0|100.0|MD%03d|LEC%03d|%d|%d|CL%04d|",
+                        i, i, 10 + random.nextInt(50), random.nextInt(200), random.nextInt(300),
+                        1_770_000_000_000L + random.nextInt(1_000_000_000), 1_771_000_000_000L + random.nextInt(1_000_000_000),
+                        random.nextInt(5000)));
+                int marks = 1 + random.nextInt(8);
+                for (int m = 0; m < marks; m++) {
+                    if (m > 0) sb.append(',');
+                    sb.append(String.format("STU%06d=%d.%d", random.nextInt(100_000), random.nextInt(101), random.nextInt(10)));
+                }
+                out.println(sb);
+            }
+        }
+        double byCursor = fieldCursor();
+        double bySplit = split();
+        if (Math.abs(byCursor - bySplit) > 1e-6 * Math.abs(bySplit)) {
+            throw new IllegalStateException("FieldCursor sum " + byCursor + " != split sum " + bySplit);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public double fieldCursor() throws IOException {
+        FieldCursor p = new FieldCursor();
+        FieldCursor marks = new FieldCursor();
+        FieldCursor mark = new FieldCursor();
+        double sum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                p.reset(line, '|', true);
+                if (p.count() < 11) continue;
+                sum += p.string(0).length() + p.parseDouble(3) + p.parseDouble(4)
+                        + p.parseLong(7) % 1000 + p.parseLong(8) % 1000;
+                marks.reset(p, 10, ',', false);
+                for (int i = 0; i < marks.count(); i++) {
+                    mark.reset(marks, i, '=', false);
+                    if (mark.count() == 2) sum += mark.string(0).length() + mark.parseDouble(1);
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double split() throws IOException {
+        double sum = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split("\\|", -1);
+                if (parts.length < 11) continue;
+                sum += parts[0].length() + Double.parseDouble(parts[3]) + Double.parseDouble(parts[4])
+                        + Long.parseLong(parts[7]) % 1000 + Long.parseLong(parts[8]) % 1000;
+                for (String entry : parts[10].split(",")) {
+                    String[] kv = entry.split("=");
+                    if (kv.length == 2) sum += kv[0].length() + Double.parseDouble(kv[1]);
+                }
+            }
+        }
+        return sum;
+    }
+}
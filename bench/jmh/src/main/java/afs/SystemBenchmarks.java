@@ -0,0 +1,102 @@
+package afs;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SystemBenchmarks class - SystemManager lookups, search and ID allocation
+ * (system.* in AfsBenchmarks)
+ *
+ * searchUsersScan is the lowercasing scan the search index replaced, over
+ * the same queries. peekUserID is the ID preview the forms show;
+ * generateUserID also reserves the ID, which queues one sequences log line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SystemBenchmarks {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private SystemManager sm;
+    private List<User> all;
+    private String[] usernames;
+    private String[] passwords;
+    private String[] ids;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Datasets.write(size);
+        sm = new SystemManager();
+        all = sm.getAllUsers();
+        usernames = new String[all.size()];
+        passwords = new String[all.size()];
+        ids = new String[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            usernames[i] = all.get(i).getUsername();
+            passwords[i] = all.get(i).getPassword();
+            ids[i] = all.get(i).getUserID();
+        }
+        // what an admin might type: pieces of names, emails and IDs, 2 to 8 characters
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            User u = all.get((i * 7919) % all.size());
+            String field = i % 3 == 0 ? u.getFullName() : i % 3 == 1 ? u.getEmail() : u.getUserID();
+            int len = Math.min(field.length(), 2 + i % 7);
+            int from = (i * 31) % (field.length() - len + 1);
+            queries[i] = field.substring(from, from + len).toUpperCase();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileManager.flush();
+    }
+
+    @Benchmark
+    public User authenticateUser() {
+        int i = next++ % usernames.length;
+        return sm.authenticateUser(usernames[i], passwords[i]);
+    }
+
+    @Benchmark
+    public User findUserByID() {
+        return sm.findUserByID(ids[next++ % ids.length]);
+    }
+
+    @Benchmark
+    public List<User> searchUsers() {
+        return sm.searchUsers(queries[next++ % queries.length], 0);
+    }
+
+    @Benchmark
+    public List<User> searchUsersScan() {
+        String q = queries[next++ % queries.length].toLowerCase();
+        List<User> found = new ArrayList<>();
+        for (User u : all) {
+            if (u.getUserID().toLowerCase().contains(q) || u.getUsername().toLowerCase().contains(q)
+                    || u.getFullName().toLowerCase().contains(q) || u.getEmail().toLowerCase().contains(q)) {
+                found.add(u);
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public String peekUserID() {
+        return sm.peekUserID("STUDENT");
+    }
+
+    @Benchmark
+    public String generateUserID() {
+        return sm.generateUserID("STUDENT");
+    }
+}
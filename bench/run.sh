@@ -0,0 +1,29 @@
+#!/bin/sh
+# Build the app and the benchmarks, then run them in a scratch directory
+# (FileManager works on ./data, so the real data/ folder is never touched).
+# This is the quick, dependency-free harness; bench/jmh/run.sh runs the same
+# benchmarks under JMH.
+#
+#   bench/run.sh                      sizes 1000,10000,100000
+#   bench/run.sh 1000,10000           other sizes
+#   JAVA_OPTS="-Dbench.filter=load" bench/run.sh
+#   JAVA_OPTS="-Dafs.snapshot=true" bench/run.sh     load from the binary snapshot
+#   JAVA_OPTS="-Dafs.durable=false" bench/run.sh     save.* without fsync
+#   JAVA_OPTS="-Dbench.filter=^parse" bench/run.sh 100   FieldCursor vs split on 1M assessment lines
+#   MAIN=ConcurrencyStress bench/run.sh 8 500         concurrent sessions stress check
+#   MAIN=QuantileAccuracy bench/run.sh 1000000        quantile sketch vs sorted marks
+#   MAIN=GradingSimulationCheck bench/run.sh           what-if grading against hand-worked marks
+#   MAIN=RiskBenchmarks bench/run.sh 2000 100000      module risk, per module vs all at once
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=$(mktemp -d)
+WORK=$(mktemp -d)
+trap 'rm -rf "$OUT" "$WORK"' EXIT
+
+javac -encoding UTF-8 -Xlint:all -d "$OUT" "$ROOT"/*.java
+javac -encoding UTF-8 -Xlint:all -cp "$OUT" -d "$OUT" "$ROOT"/bench/*.java
+
+cd "$WORK"
+# text files by default; the snapshot is opt-in through JAVA_OPTS
+java -Dafs.snapshot=false $JAVA_OPTS -cp "$OUT" "${MAIN:-AfsBenchmarks}" "$@"
@@ -6,6 +6,9 @@ public class main {
 
     public static void main(String[] args) {
         SystemManager systemManager = new SystemManager();
+        // On exit write any queued saves, fold the change logs back into the data
+        // files, then refresh the binary snapshot so the next start can skip the text files
+        Runtime.getRuntime().addShutdownHook(new Thread(FileManager::shutdown));
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {